@@ -52,6 +52,15 @@ dependencies {
 
     // Gson for JSON serialization
     implementation("com.google.code.gson:gson:2.10.1")
+
+    testImplementation("org.junit.jupiter:junit-jupiter:5.10.2")
+    testRuntimeOnly("org.junit.platform:junit-platform-launcher")
+    // Runs tests on the remapped game classpath so Minecraft can be bootstrapped
+    testImplementation("net.fabricmc:fabric-loader-junit:${project.property("loader_version")}")
+}
+
+tasks.test {
+    useJUnitPlatform()
 }
 
 tasks.processResources {
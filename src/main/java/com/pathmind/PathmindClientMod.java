@@ -2,9 +2,17 @@ package com.pathmind;
 
 import com.pathmind.data.PresetManager;
 import com.pathmind.execution.ExecutionManager;
+import com.pathmind.execution.ExecutionScheduler;
+import com.pathmind.execution.GameEventTriggers;
+import com.pathmind.execution.InputSimulator;
+import com.pathmind.execution.PreciseCompletionTracker;
+import com.pathmind.execution.SensorSubscriptions;
 import com.pathmind.screen.PathmindMainMenuIntegration;
 import com.pathmind.screen.PathmindVisualEditorScreen;
 import com.pathmind.ui.ActiveNodeOverlay;
+import com.pathmind.world.EntityIndex;
+import com.pathmind.world.WorldBlockIndex;
+import com.pathmind.world.WorldObservation;
 import net.fabricmc.api.ClientModInitializer;
 import net.fabricmc.fabric.api.client.event.lifecycle.v1.ClientTickEvents;
 import net.fabricmc.fabric.api.client.rendering.v1.HudRenderCallback;
@@ -28,6 +36,11 @@ public class PathmindClientMod implements ClientModInitializer {
 
         PresetManager.initialize();
 
+        // Keep the watched-block index in sync with loaded chunks
+        WorldBlockIndex.register();
+        EntityIndex.register();
+        GameEventTriggers.register();
+
         // Initialize the active node overlay
         this.activeNodeOverlay = new ActiveNodeOverlay();
         
@@ -40,9 +53,16 @@ public class PathmindClientMod implements ClientModInitializer {
         // Hook into the main menu for button and keyboard support
         PathmindMainMenuIntegration.register();
 
-        // Register client tick events for keybind handling
+        // Simulated keys are applied before the player reads its input for the tick
+        ClientTickEvents.START_CLIENT_TICK.register(client -> InputSimulator.getInstance().tick(client));
+
+        // Register client tick events for keybind handling and node execution
         ClientTickEvents.END_CLIENT_TICK.register(client -> {
+            WorldObservation.getInstance().invalidate();
             handleKeybinds(client);
+            PreciseCompletionTracker.getInstance().tick();
+            SensorSubscriptions.getInstance().tick();
+            ExecutionScheduler.getInstance().tick();
         });
         
         // Register HUD render callback for the active node overlay
@@ -0,0 +1,394 @@
+package com.pathmind.data;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Compact binary encoding of {@link NodeGraphData} ({@code .pmg} files).
+ *
+ * <p>Layout: the magic {@code PMG}, a version byte, then the nodes and connections as a single
+ * stream. Strings are interned on the fly: the first occurrence is written inline and later ones
+ * are back-references into the table both sides build while streaming. Coordinates are zigzag
+ * varints relative to the previous node, and every node reference (attachments, connections) is
+ * the varint index of the node in the file instead of its id.</p>
+ */
+public final class NodeGraphBinaryFormat {
+    public static final String FILE_EXTENSION = ".pmg";
+
+    private static final byte[] MAGIC = {'P', 'M', 'G'};
+    private static final int VERSION = 1;
+
+    // String reference tags; anything above refers to table entry (tag - STRING_FIRST_INDEX)
+    private static final int STRING_NULL = 0;
+    private static final int STRING_NEW = 1;
+    private static final int STRING_FIRST_INDEX = 2;
+
+    private static final int ID_UUID = 0;
+    private static final int ID_STRING = 1;
+
+    private static final int HAS_SENSOR = 1;
+    private static final int HAS_PARENT_CONTROL = 1 << 1;
+    private static final int HAS_ACTION = 1 << 2;
+    private static final int HAS_PARENT_ACTION_CONTROL = 1 << 3;
+    private static final int HAS_PARAMETER = 1 << 4;
+    private static final int HAS_PARENT_PARAMETER_HOST = 1 << 5;
+    private static final int HAS_PARAMETER_ATTACHMENTS = 1 << 6;
+
+    private NodeGraphBinaryFormat() {
+    }
+
+    /**
+     * Whether a file header starts with the binary magic.
+     */
+    public static boolean hasMagic(byte[] header) {
+        return header != null && header.length >= MAGIC.length
+            && Arrays.equals(Arrays.copyOf(header, MAGIC.length), MAGIC);
+    }
+
+    public static void write(NodeGraphData data, OutputStream out) throws IOException {
+        Writer writer = new Writer(out);
+        out.write(MAGIC);
+        out.write(VERSION);
+
+        List<NodeGraphData.NodeData> nodes = data.getNodes() != null ? data.getNodes() : List.of();
+        Map<String, Integer> indexById = new HashMap<>(nodes.size() * 2);
+        for (int i = 0; i < nodes.size(); i++) {
+            String id = nodes.get(i).getId();
+            if (id != null) {
+                indexById.putIfAbsent(id, i);
+            }
+        }
+
+        writer.writeVarInt(nodes.size());
+        int previousX = 0;
+        int previousY = 0;
+        for (NodeGraphData.NodeData node : nodes) {
+            writer.writeId(node.getId());
+            writer.writeString(node.getType() != null ? node.getType().name() : null);
+            writer.writeString(node.getMode() != null ? node.getMode().name() : null);
+            writer.writeSignedVarInt(node.getX() - previousX);
+            writer.writeSignedVarInt(node.getY() - previousY);
+            previousX = node.getX();
+            previousY = node.getY();
+
+            List<NodeGraphData.ParameterData> parameters = node.getParameters() != null ? node.getParameters() : List.of();
+            writer.writeVarInt(parameters.size());
+            for (NodeGraphData.ParameterData parameter : parameters) {
+                writer.writeString(parameter.getName());
+                writer.writeString(parameter.getType());
+                writer.writeString(parameter.getValue());
+            }
+
+            List<NodeGraphData.ParameterAttachmentData> attachments = node.getParameterAttachments();
+            int flags = 0;
+            flags |= flag(indexById, node.getAttachedSensorId(), HAS_SENSOR);
+            flags |= flag(indexById, node.getParentControlId(), HAS_PARENT_CONTROL);
+            flags |= flag(indexById, node.getAttachedActionId(), HAS_ACTION);
+            flags |= flag(indexById, node.getParentActionControlId(), HAS_PARENT_ACTION_CONTROL);
+            flags |= flag(indexById, node.getAttachedParameterId(), HAS_PARAMETER);
+            flags |= flag(indexById, node.getParentParameterHostId(), HAS_PARENT_PARAMETER_HOST);
+            if (attachments != null && !attachments.isEmpty()) {
+                flags |= HAS_PARAMETER_ATTACHMENTS;
+            }
+            writer.writeVarInt(flags);
+            writeReference(writer, indexById, node.getAttachedSensorId(), flags, HAS_SENSOR);
+            writeReference(writer, indexById, node.getParentControlId(), flags, HAS_PARENT_CONTROL);
+            writeReference(writer, indexById, node.getAttachedActionId(), flags, HAS_ACTION);
+            writeReference(writer, indexById, node.getParentActionControlId(), flags, HAS_PARENT_ACTION_CONTROL);
+            writeReference(writer, indexById, node.getAttachedParameterId(), flags, HAS_PARAMETER);
+            writeReference(writer, indexById, node.getParentParameterHostId(), flags, HAS_PARENT_PARAMETER_HOST);
+            if ((flags & HAS_PARAMETER_ATTACHMENTS) != 0) {
+                List<NodeGraphData.ParameterAttachmentData> resolved = new ArrayList<>(attachments.size());
+                for (NodeGraphData.ParameterAttachmentData attachment : attachments) {
+                    if (attachment != null && indexById.containsKey(attachment.getParameterNodeId())) {
+                        resolved.add(attachment);
+                    }
+                }
+                writer.writeVarInt(resolved.size());
+                for (NodeGraphData.ParameterAttachmentData attachment : resolved) {
+                    writer.writeVarInt(attachment.getSlotIndex());
+                    writer.writeVarInt(indexById.get(attachment.getParameterNodeId()));
+                }
+            }
+        }
+
+        List<NodeGraphData.ConnectionData> connections = data.getConnections() != null ? data.getConnections() : List.of();
+        List<NodeGraphData.ConnectionData> resolvedConnections = new ArrayList<>(connections.size());
+        for (NodeGraphData.ConnectionData connection : connections) {
+            if (indexById.containsKey(connection.getOutputNodeId()) && indexById.containsKey(connection.getInputNodeId())) {
+                resolvedConnections.add(connection);
+            }
+        }
+        writer.writeVarInt(resolvedConnections.size());
+        for (NodeGraphData.ConnectionData connection : resolvedConnections) {
+            writer.writeVarInt(indexById.get(connection.getOutputNodeId()));
+            writer.writeVarInt(indexById.get(connection.getInputNodeId()));
+            writer.writeVarInt(connection.getOutputSocket());
+            writer.writeVarInt(connection.getInputSocket());
+        }
+        out.flush();
+    }
+
+    public static NodeGraphData read(InputStream in) throws IOException {
+        Reader reader = new Reader(in);
+        byte[] magic = reader.readBytes(MAGIC.length);
+        if (!Arrays.equals(magic, MAGIC)) {
+            throw new IOException("Not a Pathmind binary graph");
+        }
+        int version = reader.readByte();
+        if (version != VERSION) {
+            throw new IOException("Unsupported binary graph version " + version);
+        }
+
+        NodeGraphData data = new NodeGraphData();
+        int nodeCount = reader.readVarInt();
+        List<NodeGraphData.NodeData> nodes = data.getNodes();
+        String[] ids = new String[nodeCount];
+        // Node references may point forward, so they are resolved once every id is known
+        int[][] references = new int[nodeCount][];
+        int[][] attachmentRefs = new int[nodeCount][];
+        int x = 0;
+        int y = 0;
+        for (int i = 0; i < nodeCount; i++) {
+            NodeGraphData.NodeData node = new NodeGraphData.NodeData();
+            ids[i] = reader.readId();
+            node.setId(ids[i]);
+            node.setType(NodeTypeAdapter.parse(reader.readString()));
+            node.setMode(NodeModeAdapter.parse(reader.readString()));
+            x += reader.readSignedVarInt();
+            y += reader.readSignedVarInt();
+            node.setX(x);
+            node.setY(y);
+
+            int parameterCount = reader.readVarInt();
+            List<NodeGraphData.ParameterData> parameters = new ArrayList<>(parameterCount);
+            for (int p = 0; p < parameterCount; p++) {
+                NodeGraphData.ParameterData parameter = new NodeGraphData.ParameterData();
+                parameter.setName(reader.readString());
+                parameter.setType(reader.readString());
+                parameter.setValue(reader.readString());
+                parameters.add(parameter);
+            }
+            node.setParameters(parameters);
+
+            int flags = reader.readVarInt();
+            int[] refs = new int[6];
+            for (int bit = 0; bit < refs.length; bit++) {
+                refs[bit] = (flags & (1 << bit)) != 0 ? reader.readVarInt() : -1;
+            }
+            references[i] = refs;
+            if ((flags & HAS_PARAMETER_ATTACHMENTS) != 0) {
+                int attachmentCount = reader.readVarInt();
+                int[] pairs = new int[attachmentCount * 2];
+                for (int a = 0; a < attachmentCount; a++) {
+                    pairs[a * 2] = reader.readVarInt();
+                    pairs[a * 2 + 1] = reader.readVarInt();
+                }
+                attachmentRefs[i] = pairs;
+            }
+            nodes.add(node);
+        }
+
+        for (int i = 0; i < nodeCount; i++) {
+            NodeGraphData.NodeData node = nodes.get(i);
+            int[] refs = references[i];
+            node.setAttachedSensorId(resolve(ids, refs[0]));
+            node.setParentControlId(resolve(ids, refs[1]));
+            node.setAttachedActionId(resolve(ids, refs[2]));
+            node.setParentActionControlId(resolve(ids, refs[3]));
+            node.setAttachedParameterId(resolve(ids, refs[4]));
+            node.setParentParameterHostId(resolve(ids, refs[5]));
+            List<NodeGraphData.ParameterAttachmentData> attachments = new ArrayList<>();
+            int[] pairs = attachmentRefs[i];
+            if (pairs != null) {
+                for (int a = 0; a < pairs.length; a += 2) {
+                    String parameterId = resolve(ids, pairs[a + 1]);
+                    if (parameterId != null) {
+                        attachments.add(new NodeGraphData.ParameterAttachmentData(pairs[a], parameterId));
+                    }
+                }
+            }
+            node.setParameterAttachments(attachments);
+        }
+
+        int connectionCount = reader.readVarInt();
+        for (int i = 0; i < connectionCount; i++) {
+            NodeGraphData.ConnectionData connection = new NodeGraphData.ConnectionData();
+            connection.setOutputNodeId(resolve(ids, reader.readVarInt()));
+            connection.setInputNodeId(resolve(ids, reader.readVarInt()));
+            connection.setOutputSocket(reader.readVarInt());
+            connection.setInputSocket(reader.readVarInt());
+            data.getConnections().add(connection);
+        }
+        return data;
+    }
+
+    private static int flag(Map<String, Integer> indexById, String id, int bit) {
+        return id != null && indexById.containsKey(id) ? bit : 0;
+    }
+
+    private static void writeReference(Writer writer, Map<String, Integer> indexById, String id, int flags, int bit) throws IOException {
+        if ((flags & bit) != 0) {
+            writer.writeVarInt(indexById.get(id));
+        }
+    }
+
+    private static String resolve(String[] ids, int index) {
+        return index >= 0 && index < ids.length ? ids[index] : null;
+    }
+
+    private static final class Writer {
+        private final OutputStream out;
+        private final Map<String, Integer> strings;
+
+        Writer(OutputStream out) {
+            this.out = out;
+            this.strings = new HashMap<>();
+        }
+
+        void writeVarInt(int value) throws IOException {
+            while ((value & ~0x7F) != 0) {
+                out.write((value & 0x7F) | 0x80);
+                value >>>= 7;
+            }
+            out.write(value);
+        }
+
+        void writeSignedVarInt(int value) throws IOException {
+            writeVarInt((value << 1) ^ (value >> 31));
+        }
+
+        void writeString(String value) throws IOException {
+            if (value == null) {
+                writeVarInt(STRING_NULL);
+                return;
+            }
+            Integer index = strings.get(value);
+            if (index != null) {
+                writeVarInt(index + STRING_FIRST_INDEX);
+                return;
+            }
+            strings.put(value, strings.size());
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            writeVarInt(STRING_NEW);
+            writeVarInt(bytes.length);
+            out.write(bytes);
+        }
+
+        void writeId(String id) throws IOException {
+            UUID uuid = parseUuid(id);
+            if (uuid == null) {
+                out.write(ID_STRING);
+                writeString(id);
+                return;
+            }
+            out.write(ID_UUID);
+            writeLong(uuid.getMostSignificantBits());
+            writeLong(uuid.getLeastSignificantBits());
+        }
+
+        private void writeLong(long value) throws IOException {
+            for (int shift = 56; shift >= 0; shift -= 8) {
+                out.write((int) (value >>> shift) & 0xFF);
+            }
+        }
+
+        private static UUID parseUuid(String id) {
+            if (id == null || id.length() != 36) {
+                return null;
+            }
+            try {
+                UUID uuid = UUID.fromString(id);
+                // Only use the compact form when it round-trips to the exact same text
+                return uuid.toString().equals(id) ? uuid : null;
+            } catch (IllegalArgumentException e) {
+                return null;
+            }
+        }
+    }
+
+    private static final class Reader {
+        private final InputStream in;
+        private final List<String> strings;
+
+        Reader(InputStream in) {
+            this.in = in;
+            this.strings = new ArrayList<>();
+        }
+
+        int readByte() throws IOException {
+            int value = in.read();
+            if (value < 0) {
+                throw new EOFException("Truncated binary graph");
+            }
+            return value;
+        }
+
+        byte[] readBytes(int length) throws IOException {
+            byte[] bytes = in.readNBytes(length);
+            if (bytes.length != length) {
+                throw new EOFException("Truncated binary graph");
+            }
+            return bytes;
+        }
+
+        int readVarInt() throws IOException {
+            int value = 0;
+            for (int shift = 0; shift < 35; shift += 7) {
+                int b = readByte();
+                value |= (b & 0x7F) << shift;
+                if ((b & 0x80) == 0) {
+                    return value;
+                }
+            }
+            throw new IOException("Malformed varint in binary graph");
+        }
+
+        int readSignedVarInt() throws IOException {
+            int raw = readVarInt();
+            return (raw >>> 1) ^ -(raw & 1);
+        }
+
+        String readString() throws IOException {
+            int tag = readVarInt();
+            if (tag == STRING_NULL) {
+                return null;
+            }
+            if (tag == STRING_NEW) {
+                String value = new String(readBytes(readVarInt()), StandardCharsets.UTF_8);
+                strings.add(value);
+                return value;
+            }
+            int index = tag - STRING_FIRST_INDEX;
+            if (index >= strings.size()) {
+                throw new IOException("Invalid string reference in binary graph");
+            }
+            return strings.get(index);
+        }
+
+        String readId() throws IOException {
+            int kind = readByte();
+            if (kind == ID_STRING) {
+                return readString();
+            }
+            return new UUID(readLong(), readLong()).toString();
+        }
+
+        private long readLong() throws IOException {
+            long value = 0;
+            for (int i = 0; i < 8; i++) {
+                value = (value << 8) | readByte();
+            }
+            return value;
+        }
+    }
+}
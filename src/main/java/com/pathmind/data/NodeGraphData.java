@@ -4,6 +4,7 @@ import com.pathmind.nodes.NodeType;
 import com.pathmind.nodes.NodeMode;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 
 /**
@@ -12,6 +13,7 @@ import java.util.List;
 public class NodeGraphData {
     private List<NodeData> nodes;
     private List<ConnectionData> connections;
+    private transient boolean frozen;
     
     public NodeGraphData() {
         this.nodes = new ArrayList<>();
@@ -28,6 +30,7 @@ public class NodeGraphData {
     }
     
     public void setNodes(List<NodeData> nodes) {
+        checkMutable(frozen);
         this.nodes = nodes;
     }
     
@@ -36,8 +39,86 @@ public class NodeGraphData {
     }
     
     public void setConnections(List<ConnectionData> connections) {
+        checkMutable(frozen);
         this.connections = connections;
     }
+
+    /**
+     * Make this graph read-only and return it: its lists become unmodifiable and every setter of the
+     * graph and its node, connection and parameter data throws {@link IllegalStateException}.
+     * Frozen graphs are shared between callers by the parsed graph cache.
+     */
+    public NodeGraphData freeze() {
+        if (frozen) {
+            return this;
+        }
+        frozen = true;
+        if (nodes != null) {
+            for (NodeData node : nodes) {
+                if (node == null) {
+                    continue;
+                }
+                node.frozen = true;
+                if (node.parameters != null) {
+                    for (ParameterData parameter : node.parameters) {
+                        if (parameter != null) {
+                            parameter.frozen = true;
+                        }
+                    }
+                    node.parameters = Collections.unmodifiableList(node.parameters);
+                }
+                if (node.parameterAttachments != null) {
+                    for (ParameterAttachmentData attachment : node.parameterAttachments) {
+                        if (attachment != null) {
+                            attachment.frozen = true;
+                        }
+                    }
+                    node.parameterAttachments = Collections.unmodifiableList(node.parameterAttachments);
+                }
+            }
+            nodes = Collections.unmodifiableList(nodes);
+        }
+        if (connections != null) {
+            for (ConnectionData connection : connections) {
+                if (connection != null) {
+                    connection.frozen = true;
+                }
+            }
+            connections = Collections.unmodifiableList(connections);
+        }
+        return this;
+    }
+
+    public boolean isFrozen() {
+        return frozen;
+    }
+
+    private static void checkMutable(boolean frozen) {
+        if (frozen) {
+            throw new IllegalStateException("Node graph data is frozen and shared; copy it before modifying");
+        }
+    }
+
+    /**
+     * Rough heap footprint, used to bound the parsed graph cache.
+     */
+    long estimateSize() {
+        long size = 64;
+        if (nodes != null) {
+            for (NodeData node : nodes) {
+                size += 160;
+                if (node != null && node.parameters != null) {
+                    for (ParameterData parameter : node.parameters) {
+                        size += 64 + 2L * (parameter.value != null ? parameter.value.length() : 0);
+                    }
+                }
+            }
+        }
+        if (connections != null) {
+            size += 48L * connections.size();
+        }
+        return size;
+    }
     
     /**
      * Data structure for a single node
@@ -55,6 +136,7 @@ public class NodeGraphData {
         private String attachedParameterId;
         private String parentParameterHostId;
         private List<ParameterAttachmentData> parameterAttachments;
+        private transient boolean frozen;
 
         public NodeData() {
             this.parameters = new ArrayList<>();
@@ -79,43 +161,43 @@ public class NodeGraphData {
 
         // Getters and setters
         public String getId() { return id; }
-        public void setId(String id) { this.id = id; }
+        public void setId(String id) { checkMutable(frozen); this.id = id; }
         
         public NodeType getType() { return type; }
-        public void setType(NodeType type) { this.type = type; }
+        public void setType(NodeType type) { checkMutable(frozen); this.type = type; }
         
         public NodeMode getMode() { return mode; }
-        public void setMode(NodeMode mode) { this.mode = mode; }
+        public void setMode(NodeMode mode) { checkMutable(frozen); this.mode = mode; }
         
         public int getX() { return x; }
-        public void setX(int x) { this.x = x; }
+        public void setX(int x) { checkMutable(frozen); this.x = x; }
         
         public int getY() { return y; }
-        public void setY(int y) { this.y = y; }
+        public void setY(int y) { checkMutable(frozen); this.y = y; }
 
         public List<ParameterData> getParameters() { return parameters; }
-        public void setParameters(List<ParameterData> parameters) { this.parameters = parameters; }
+        public void setParameters(List<ParameterData> parameters) { checkMutable(frozen); this.parameters = parameters; }
 
         public String getAttachedSensorId() { return attachedSensorId; }
-        public void setAttachedSensorId(String attachedSensorId) { this.attachedSensorId = attachedSensorId; }
+        public void setAttachedSensorId(String attachedSensorId) { checkMutable(frozen); this.attachedSensorId = attachedSensorId; }
 
         public String getParentControlId() { return parentControlId; }
-        public void setParentControlId(String parentControlId) { this.parentControlId = parentControlId; }
+        public void setParentControlId(String parentControlId) { checkMutable(frozen); this.parentControlId = parentControlId; }
 
         public String getAttachedActionId() { return attachedActionId; }
-        public void setAttachedActionId(String attachedActionId) { this.attachedActionId = attachedActionId; }
+        public void setAttachedActionId(String attachedActionId) { checkMutable(frozen); this.attachedActionId = attachedActionId; }
 
         public String getParentActionControlId() { return parentActionControlId; }
-        public void setParentActionControlId(String parentActionControlId) { this.parentActionControlId = parentActionControlId; }
+        public void setParentActionControlId(String parentActionControlId) { checkMutable(frozen); this.parentActionControlId = parentActionControlId; }
 
         public String getAttachedParameterId() { return attachedParameterId; }
-        public void setAttachedParameterId(String attachedParameterId) { this.attachedParameterId = attachedParameterId; }
+        public void setAttachedParameterId(String attachedParameterId) { checkMutable(frozen); this.attachedParameterId = attachedParameterId; }
 
         public String getParentParameterHostId() { return parentParameterHostId; }
-        public void setParentParameterHostId(String parentParameterHostId) { this.parentParameterHostId = parentParameterHostId; }
+        public void setParentParameterHostId(String parentParameterHostId) { checkMutable(frozen); this.parentParameterHostId = parentParameterHostId; }
 
         public List<ParameterAttachmentData> getParameterAttachments() { return parameterAttachments; }
-        public void setParameterAttachments(List<ParameterAttachmentData> parameterAttachments) { this.parameterAttachments = parameterAttachments; }
+        public void setParameterAttachments(List<ParameterAttachmentData> parameterAttachments) { checkMutable(frozen); this.parameterAttachments = parameterAttachments; }
     }
     
     /**
@@ -126,6 +208,7 @@ public class NodeGraphData {
         private String inputNodeId;
         private int outputSocket;
         private int inputSocket;
+        private transient boolean frozen;
         
         public ConnectionData() {}
         
@@ -138,16 +221,16 @@ public class NodeGraphData {
         
         // Getters and setters
         public String getOutputNodeId() { return outputNodeId; }
-        public void setOutputNodeId(String outputNodeId) { this.outputNodeId = outputNodeId; }
+        public void setOutputNodeId(String outputNodeId) { checkMutable(frozen); this.outputNodeId = outputNodeId; }
         
         public String getInputNodeId() { return inputNodeId; }
-        public void setInputNodeId(String inputNodeId) { this.inputNodeId = inputNodeId; }
+        public void setInputNodeId(String inputNodeId) { checkMutable(frozen); this.inputNodeId = inputNodeId; }
         
         public int getOutputSocket() { return outputSocket; }
-        public void setOutputSocket(int outputSocket) { this.outputSocket = outputSocket; }
+        public void setOutputSocket(int outputSocket) { checkMutable(frozen); this.outputSocket = outputSocket; }
         
         public int getInputSocket() { return inputSocket; }
-        public void setInputSocket(int inputSocket) { this.inputSocket = inputSocket; }
+        public void setInputSocket(int inputSocket) { checkMutable(frozen); this.inputSocket = inputSocket; }
     }
     
     /**
@@ -157,6 +240,7 @@ public class NodeGraphData {
         private String name;
         private String value;
         private String type;
+        private transient boolean frozen;
         
         public ParameterData() {}
         
@@ -168,18 +252,19 @@ public class NodeGraphData {
         
         // Getters and setters
         public String getName() { return name; }
-        public void setName(String name) { this.name = name; }
+        public void setName(String name) { checkMutable(frozen); this.name = name; }
         
         public String getValue() { return value; }
-        public void setValue(String value) { this.value = value; }
+        public void setValue(String value) { checkMutable(frozen); this.value = value; }
         
         public String getType() { return type; }
-        public void setType(String type) { this.type = type; }
+        public void setType(String type) { checkMutable(frozen); this.type = type; }
     }
 
     public static class ParameterAttachmentData {
         private int slotIndex;
         private String parameterNodeId;
+        private transient boolean frozen;
 
         public ParameterAttachmentData() {
         }
@@ -194,6 +279,7 @@ public class NodeGraphData {
         }
 
         public void setSlotIndex(int slotIndex) {
+            checkMutable(frozen);
             this.slotIndex = slotIndex;
         }
 
@@ -202,6 +288,7 @@ public class NodeGraphData {
         }
 
         public void setParameterNodeId(String parameterNodeId) {
+            checkMutable(frozen);
             this.parameterNodeId = parameterNodeId;
         }
     }
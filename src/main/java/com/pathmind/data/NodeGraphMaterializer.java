@@ -0,0 +1,160 @@
+package com.pathmind.data;
+
+import com.pathmind.nodes.Node;
+import com.pathmind.nodes.NodeConnection;
+import com.pathmind.nodes.NodeParameter;
+import com.pathmind.nodes.ParameterType;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Turns {@link NodeGraphData} back into live nodes and connections. Shared by the editor, preset
+ * loading and execution replay.
+ *
+ * <p>Nodes are created with their saved id and parameters directly. While they are created, every
+ * attachment is resolved to a pair of nodes; the pairs are then applied sensors first, actions
+ * second and parameters last, with host-side links ahead of the child-side fallbacks, matching the
+ * order older saves were written to expect.</p>
+ */
+public final class NodeGraphMaterializer {
+    private static final Comparator<NodeGraphData.ParameterAttachmentData> BY_SLOT =
+        Comparator.comparingInt(NodeGraphData.ParameterAttachmentData::getSlotIndex);
+
+    private NodeGraphMaterializer() {
+    }
+
+    public record Result(List<Node> nodes, List<NodeConnection> connections, Map<String, Node> nodesById) {
+    }
+
+    private record Link(Node host, Node child, int slotIndex) {
+    }
+
+    public static Result materialize(NodeGraphData data) {
+        List<NodeGraphData.NodeData> nodeDataList = data != null && data.getNodes() != null ? data.getNodes() : List.of();
+        int nodeCount = nodeDataList.size();
+        List<Node> nodes = new ArrayList<>(nodeCount);
+        Map<String, Node> nodesById = new HashMap<>(Math.max(16, nodeCount * 2));
+        Map<String, NodeGraphData.NodeData> dataById = new HashMap<>(Math.max(16, nodeCount * 2));
+
+        for (NodeGraphData.NodeData nodeData : nodeDataList) {
+            if (nodeData == null || nodeData.getType() == null) {
+                continue;
+            }
+            List<NodeGraphData.ParameterData> savedParameters = nodeData.getParameters();
+            List<NodeParameter> parameters = new ArrayList<>(savedParameters != null ? savedParameters.size() : 0);
+            if (savedParameters != null) {
+                for (NodeGraphData.ParameterData paramData : savedParameters) {
+                    ParameterType paramType = ParameterType.valueOf(paramData.getType());
+                    parameters.add(new NodeParameter(paramData.getName(), paramType, paramData.getValue()));
+                }
+            }
+            Node node = new Node(nodeData.getId(), nodeData.getType(), nodeData.getMode(),
+                nodeData.getX(), nodeData.getY(), parameters);
+            nodes.add(node);
+            nodesById.put(node.getId(), node);
+            dataById.put(node.getId(), nodeData);
+        }
+
+        List<Link> sensorLinks = new ArrayList<>();
+        List<Link> sensorFallbacks = new ArrayList<>();
+        List<Link> actionLinks = new ArrayList<>();
+        List<Link> actionFallbacks = new ArrayList<>();
+        List<Link> parameterLinks = new ArrayList<>();
+        List<Link> parameterFallbacks = new ArrayList<>();
+
+        for (NodeGraphData.NodeData nodeData : nodeDataList) {
+            Node node = nodeData != null ? nodesById.get(nodeData.getId()) : null;
+            if (node == null) {
+                continue;
+            }
+
+            Node sensor = lookup(nodesById, nodeData.getAttachedSensorId());
+            if (sensor != null) {
+                sensorLinks.add(new Link(node, sensor, 0));
+            }
+            Node control = lookup(nodesById, nodeData.getParentControlId());
+            if (control != null && node.isSensorNode()
+                && !node.getId().equals(dataById.get(control.getId()).getAttachedSensorId())) {
+                sensorFallbacks.add(new Link(control, node, 0));
+            }
+
+            Node action = lookup(nodesById, nodeData.getAttachedActionId());
+            if (action != null) {
+                actionLinks.add(new Link(node, action, 0));
+            }
+            Node actionControl = lookup(nodesById, nodeData.getParentActionControlId());
+            if (actionControl != null
+                && !node.getId().equals(dataById.get(actionControl.getId()).getAttachedActionId())) {
+                actionFallbacks.add(new Link(actionControl, node, 0));
+            }
+
+            List<NodeGraphData.ParameterAttachmentData> attachments = nodeData.getParameterAttachments();
+            if (attachments != null && !attachments.isEmpty()) {
+                List<NodeGraphData.ParameterAttachmentData> ordered = new ArrayList<>(attachments);
+                ordered.sort(BY_SLOT);
+                for (NodeGraphData.ParameterAttachmentData attachment : ordered) {
+                    Node parameter = lookup(nodesById, attachment.getParameterNodeId());
+                    if (parameter != null) {
+                        parameterLinks.add(new Link(node, parameter, attachment.getSlotIndex()));
+                    }
+                }
+            } else {
+                Node parameter = lookup(nodesById, nodeData.getAttachedParameterId());
+                if (parameter != null) {
+                    parameterLinks.add(new Link(node, parameter, 0));
+                }
+                Node host = lookup(nodesById, nodeData.getParentParameterHostId());
+                if (host != null && node.isParameterNode()) {
+                    parameterFallbacks.add(new Link(host, node, 0));
+                }
+            }
+        }
+
+        for (Link link : sensorLinks) {
+            link.host().attachSensor(link.child());
+        }
+        for (Link link : sensorFallbacks) {
+            link.host().attachSensor(link.child());
+        }
+        for (Link link : actionLinks) {
+            link.host().attachActionNode(link.child());
+        }
+        for (Link link : actionFallbacks) {
+            if (link.host().canAcceptActionNode(link.child())) {
+                link.host().attachActionNode(link.child());
+            }
+        }
+        for (Link link : parameterLinks) {
+            link.host().attachParameter(link.child(), link.slotIndex());
+        }
+        for (Link link : parameterFallbacks) {
+            link.host().attachParameter(link.child());
+        }
+
+        List<NodeGraphData.ConnectionData> connectionDataList = data != null && data.getConnections() != null
+            ? data.getConnections() : List.of();
+        List<NodeConnection> connections = new ArrayList<>(connectionDataList.size());
+        for (NodeGraphData.ConnectionData connData : connectionDataList) {
+            Node outputNode = lookup(nodesById, connData.getOutputNodeId());
+            Node inputNode = lookup(nodesById, connData.getInputNodeId());
+            if (outputNode == null || inputNode == null) {
+                System.err.println("Failed to restore connection: missing node(s)");
+                continue;
+            }
+            if (outputNode.isSensorNode() || inputNode.isSensorNode()) {
+                continue;
+            }
+            connections.add(new NodeConnection(outputNode, inputNode, connData.getOutputSocket(), connData.getInputSocket()));
+        }
+
+        return new Result(nodes, connections, nodesById);
+    }
+
+    private static Node lookup(Map<String, Node> nodesById, String id) {
+        return id != null ? nodesById.get(id) : null;
+    }
+}
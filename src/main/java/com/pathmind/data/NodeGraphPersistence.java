@@ -6,18 +6,27 @@ import com.pathmind.nodes.Node;
 import com.pathmind.nodes.NodeConnection;
 import com.pathmind.nodes.NodeParameter;
 import com.pathmind.nodes.NodeType;
-import com.pathmind.nodes.ParameterType;
 
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
 import java.io.Reader;
-import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
 import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 /**
  * Handles saving and loading node graphs to/from disk.
@@ -29,7 +38,12 @@ public class NodeGraphPersistence {
             .registerTypeAdapter(com.pathmind.nodes.NodeMode.class, new NodeModeAdapter())
             .create();
 
-    private static final Map<String, String> IN_MEMORY_JSON_CACHE = new ConcurrentHashMap<>();
+    // Parsed presets, shared read-only between the editor and execution
+    private static final ParsedGraphCache PARSED_GRAPH_CACHE = new ParsedGraphCache();
+
+    // One writer thread keeps saves to the same file in submission order
+    private static final ExecutorService SAVE_EXECUTOR = Executors.newSingleThreadExecutor(
+        Thread.ofPlatform().name("Pathmind-GraphSave").daemon().factory());
 
     /**
      * Save the current node graph to disk
@@ -39,15 +53,53 @@ public class NodeGraphPersistence {
     }
 
     public static boolean saveNodeGraphForPreset(String presetName, List<Node> nodes, List<NodeConnection> connections) {
+        return saveNodeGraphForPresetAsync(presetName, nodes, connections).join();
+    }
+
+    /**
+     * Snapshot the graph on the calling thread, then serialize and write it on the save thread.
+     * The future completes with whether the write succeeded.
+     */
+    public static CompletableFuture<Boolean> saveNodeGraphForPresetAsync(String presetName, List<Node> nodes, List<NodeConnection> connections) {
         Path savePath = PresetManager.getPresetPath(presetName);
+        String cacheKey = cacheKeyForPreset(presetName);
         NodeGraphData data = buildNodeGraphData(nodes, connections);
-        cachePresetGraph(presetName, data);
-        return writeNodeGraphDataToPath(data, savePath);
+        return CompletableFuture.supplyAsync(() -> {
+            byte[] encoded = encodeForPath(data, savePath);
+            if (encoded == null) {
+                return false;
+            }
+            boolean written = writeBytesToPath(encoded, savePath);
+            PresetManager.invalidate();
+            if (cacheKey != null) {
+                BasicFileAttributes attributes = written ? readAttributes(savePath) : null;
+                if (attributes != null) {
+                    PARSED_GRAPH_CACHE.put(cacheKey, data, attributes.lastModifiedTime().toMillis(), attributes.size());
+                } else {
+                    // Keep the snapshot over the older file on disk so the edits still load this session
+                    PARSED_GRAPH_CACHE.putUnsaved(cacheKey, data);
+                }
+            }
+            return written;
+        }, SAVE_EXECUTOR);
     }
 
+    /**
+     * Save to an arbitrary file; a {@code .pmg} extension selects the binary format, anything else JSON.
+     */
     public static boolean saveNodeGraphToPath(List<Node> nodes, List<NodeConnection> connections, Path savePath) {
         NodeGraphData data = buildNodeGraphData(nodes, connections);
-        return writeNodeGraphDataToPath(data, savePath);
+        return CompletableFuture.supplyAsync(() -> {
+            byte[] encoded = encodeForPath(data, savePath);
+            return encoded != null && writeBytesToPath(encoded, savePath);
+        }, SAVE_EXECUTOR).join();
+    }
+
+    /**
+     * Block until every save submitted so far has reached the disk.
+     */
+    public static void awaitPendingSaves() {
+        CompletableFuture.runAsync(() -> { }, SAVE_EXECUTOR).join();
     }
 
     /**
@@ -57,38 +109,45 @@ public class NodeGraphPersistence {
         return loadNodeGraphForPreset(PresetManager.getActivePreset());
     }
 
+    /**
+     * Load a preset, reusing the parsed graph while its file is unchanged. The returned graph is
+     * frozen and may be shared with other callers; it must not be modified.
+     */
     public static NodeGraphData loadNodeGraphForPreset(String presetName) {
-        Path savePath = PresetManager.getPresetPath(presetName);
-        NodeGraphData data = loadNodeGraphFromPath(savePath);
-        if (data != null) {
-            cachePresetGraph(presetName, data);
-            return data;
-        }
+        String key = cacheKeyForPreset(presetName);
+        awaitPendingSaves();
 
-        String key = cacheKeyForPath(savePath);
+        // Size and mtime come from the preset manager's watched snapshot, so a hit touches no file
+        PresetManager.PresetFile file = PresetManager.getPresetFile(presetName);
+        if (file == null) {
+            return key != null ? PARSED_GRAPH_CACHE.getAny(key) : null;
+        }
+        long modifiedMillis = file.lastModifiedMillis();
+        long fileSize = file.size();
         if (key != null) {
-            String cached = IN_MEMORY_JSON_CACHE.get(key);
+            NodeGraphData cached = PARSED_GRAPH_CACHE.get(key, modifiedMillis, fileSize);
             if (cached != null) {
-                try {
-                    return GSON.fromJson(cached, NodeGraphData.class);
-                } catch (Exception e) {
-                    System.err.println("Failed to deserialize cached node graph: " + e.getMessage());
-                }
+                return cached;
             }
         }
 
-        return null;
+        NodeGraphData data = loadNodeGraphFromPath(file.path());
+        if (data == null) {
+            return key != null ? PARSED_GRAPH_CACHE.getAny(key) : null;
+        }
+        return key != null ? PARSED_GRAPH_CACHE.put(key, data, modifiedMillis, fileSize) : data;
     }
 
     public static NodeGraphData loadNodeGraphFromPath(Path savePath) {
+        awaitPendingSaves();
         try {
             if (!Files.exists(savePath)) {
                 System.out.println("No saved node graph found at: " + savePath);
                 return null;
             }
 
-            try (Reader reader = Files.newBufferedReader(savePath)) {
-                NodeGraphData data = GSON.fromJson(reader, NodeGraphData.class);
+            try (InputStream in = Files.newInputStream(savePath)) {
+                NodeGraphData data = readNodeGraphData(in);
                 System.out.println("Node graph loaded successfully from: " + savePath);
                 return data;
             }
@@ -101,122 +160,46 @@ public class NodeGraphPersistence {
     }
 
     /**
-     * Convert loaded data back to Node objects
+     * Read either format, telling them apart by the binary magic rather than the file name.
      */
-    public static List<Node> convertToNodes(NodeGraphData data) {
-        List<Node> nodes = new ArrayList<>();
-        Map<String, Node> nodeMap = new HashMap<>();
-
-        // Create nodes
-        for (NodeGraphData.NodeData nodeData : data.getNodes()) {
-            Node node = new Node(nodeData.getType(), nodeData.getX(), nodeData.getY());
-
-            // Set the same ID using reflection
-            try {
-                java.lang.reflect.Field idField = Node.class.getDeclaredField("id");
-                idField.setAccessible(true);
-                idField.set(node, nodeData.getId());
-            } catch (Exception e) {
-                System.err.println("Failed to set node ID: " + e.getMessage());
-            }
-
-            // Set the mode if it exists (this will reinitialize parameters)
-            if (nodeData.getMode() != null) {
-                node.setMode(nodeData.getMode());
-            }
-
-            // Restore parameters (overwrite the default parameters with saved ones)
-            node.getParameters().clear();
-            if (nodeData.getParameters() != null) {
-                for (NodeGraphData.ParameterData paramData : nodeData.getParameters()) {
-                    ParameterType paramType = ParameterType.valueOf(paramData.getType());
-                    NodeParameter param = new NodeParameter(paramData.getName(), paramType, paramData.getValue());
-                    node.getParameters().add(param);
-                }
-            }
-            node.recalculateDimensions();
-
-            nodes.add(node);
-            nodeMap.put(nodeData.getId(), node);
+    private static NodeGraphData readNodeGraphData(InputStream source) throws IOException {
+        BufferedInputStream in = new BufferedInputStream(source);
+        in.mark(4);
+        byte[] header = in.readNBytes(3);
+        in.reset();
+        if (NodeGraphBinaryFormat.hasMagic(header)) {
+            return NodeGraphBinaryFormat.read(in);
         }
-
-        for (NodeGraphData.NodeData nodeData : data.getNodes()) {
-            if (nodeData.getAttachedSensorId() != null) {
-                Node control = nodeMap.get(nodeData.getId());
-                Node sensor = nodeMap.get(nodeData.getAttachedSensorId());
-                if (control != null && sensor != null) {
-                    control.attachSensor(sensor);
-                }
-            }
-        }
-
-        for (NodeGraphData.NodeData nodeData : data.getNodes()) {
-            if (nodeData.getParentControlId() != null) {
-                Node sensor = nodeMap.get(nodeData.getId());
-                Node control = nodeMap.get(nodeData.getParentControlId());
-                if (sensor != null && control != null && sensor.isSensorNode()) {
-                    control.attachSensor(sensor);
-                }
-            }
-        }
-
-        for (NodeGraphData.NodeData nodeData : data.getNodes()) {
-            if (nodeData.getAttachedActionId() != null) {
-                Node control = nodeMap.get(nodeData.getId());
-                Node child = nodeMap.get(nodeData.getAttachedActionId());
-                if (control != null && child != null) {
-                    control.attachActionNode(child);
-                }
-            }
+        try (Reader reader = new InputStreamReader(in, StandardCharsets.UTF_8)) {
+            return GSON.fromJson(reader, NodeGraphData.class);
         }
+    }
 
-        for (NodeGraphData.NodeData nodeData : data.getNodes()) {
-            if (nodeData.getParentActionControlId() != null) {
-                Node child = nodeMap.get(nodeData.getId());
-                Node control = nodeMap.get(nodeData.getParentActionControlId());
-                if (child != null && control != null && control.canAcceptActionNode(child)) {
-                    control.attachActionNode(child);
-                }
-            }
-        }
+    private static boolean isBinaryPath(Path path) {
+        Path fileName = path != null ? path.getFileName() : null;
+        return fileName != null
+            && fileName.toString().toLowerCase(Locale.ROOT).endsWith(NodeGraphBinaryFormat.FILE_EXTENSION);
+    }
 
-        for (NodeGraphData.NodeData nodeData : data.getNodes()) {
-            List<NodeGraphData.ParameterAttachmentData> attachments = nodeData.getParameterAttachments();
-            if (attachments != null && !attachments.isEmpty()) {
-                Node host = nodeMap.get(nodeData.getId());
-                if (host != null) {
-                    attachments.sort(java.util.Comparator.comparingInt(NodeGraphData.ParameterAttachmentData::getSlotIndex));
-                    for (NodeGraphData.ParameterAttachmentData attachment : attachments) {
-                        Node parameter = nodeMap.get(attachment.getParameterNodeId());
-                        if (parameter != null) {
-                            host.attachParameter(parameter, attachment.getSlotIndex());
-                        }
-                    }
-                }
-            } else if (nodeData.getAttachedParameterId() != null) {
-                Node host = nodeMap.get(nodeData.getId());
-                Node parameter = nodeMap.get(nodeData.getAttachedParameterId());
-                if (host != null && parameter != null) {
-                    host.attachParameter(parameter);
-                }
-            }
+    private static byte[] encodeForPath(NodeGraphData data, Path path) {
+        if (!isBinaryPath(path)) {
+            return GSON.toJson(data).getBytes(StandardCharsets.UTF_8);
         }
-
-        for (NodeGraphData.NodeData nodeData : data.getNodes()) {
-            List<NodeGraphData.ParameterAttachmentData> attachments = nodeData.getParameterAttachments();
-            if (attachments != null && !attachments.isEmpty()) {
-                continue;
-            }
-            if (nodeData.getParentParameterHostId() != null) {
-                Node parameter = nodeMap.get(nodeData.getId());
-                Node host = nodeMap.get(nodeData.getParentParameterHostId());
-                if (parameter != null && host != null && parameter.isParameterNode()) {
-                    host.attachParameter(parameter);
-                }
-            }
+        try {
+            ByteArrayOutputStream out = new ByteArrayOutputStream(8192);
+            NodeGraphBinaryFormat.write(data, out);
+            return out.toByteArray();
+        } catch (IOException e) {
+            System.err.println("Failed to encode node graph: " + e.getMessage());
+            return null;
         }
+    }
 
-        return nodes;
+    /**
+     * Convert loaded data back to Node objects
+     */
+    public static List<Node> convertToNodes(NodeGraphData data) {
+        return NodeGraphMaterializer.materialize(data).nodes();
     }
 
     /**
@@ -263,18 +246,32 @@ public class NodeGraphPersistence {
     }
 
     public static boolean hasSavedNodeGraph(String presetName) {
-        Path path = PresetManager.getPresetPath(presetName);
-        if (Files.exists(path)) {
+        if (PresetManager.getPresetFile(presetName) != null) {
             return true;
         }
+        Path path = PresetManager.getPresetPath(presetName);
         String key = cacheKeyForPath(path);
-        return key != null && IN_MEMORY_JSON_CACHE.containsKey(key);
+        return key != null && PARSED_GRAPH_CACHE.contains(key);
     }
 
-    private static void cachePresetGraph(String presetName, NodeGraphData data) {
-        String key = cacheKeyForPreset(presetName);
-        if (key != null && data != null) {
-            IN_MEMORY_JSON_CACHE.put(key, GSON.toJson(data));
+    /**
+     * Drop the parsed graph cached for the preset stored at {@code path}, e.g. after deleting it.
+     */
+    static void evictCachedGraph(Path path) {
+        String key = cacheKeyForPath(path);
+        if (key != null) {
+            PARSED_GRAPH_CACHE.remove(key);
+        }
+    }
+
+    private static BasicFileAttributes readAttributes(Path path) {
+        if (path == null) {
+            return null;
+        }
+        try {
+            return Files.readAttributes(path, BasicFileAttributes.class);
+        } catch (IOException e) {
+            return null;
         }
     }
 
@@ -293,6 +290,8 @@ public class NodeGraphPersistence {
         String name = fileName.toString();
         if (name.endsWith(".json")) {
             name = name.substring(0, name.length() - 5);
+        } else if (name.endsWith(NodeGraphBinaryFormat.FILE_EXTENSION)) {
+            name = name.substring(0, name.length() - NodeGraphBinaryFormat.FILE_EXTENSION.length());
         }
         return name.toLowerCase(Locale.ROOT);
     }
@@ -361,13 +360,23 @@ public class NodeGraphPersistence {
         return data;
     }
 
-    private static boolean writeNodeGraphDataToPath(NodeGraphData data, Path savePath) {
+    /**
+     * Write through a temporary sibling and rename it over the target, so a crash mid-write never
+     * leaves a truncated graph behind.
+     */
+    private static boolean writeBytesToPath(byte[] bytes, Path savePath) {
         try {
             if (savePath.getParent() != null) {
                 Files.createDirectories(savePath.getParent());
             }
-            try (Writer writer = Files.newBufferedWriter(savePath)) {
-                GSON.toJson(data, writer);
+            Path tempPath = savePath.resolveSibling(savePath.getFileName() + ".tmp");
+            try (OutputStream out = Files.newOutputStream(tempPath)) {
+                out.write(bytes);
+            }
+            try {
+                Files.move(tempPath, savePath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(tempPath, savePath, StandardCopyOption.REPLACE_EXISTING);
             }
             System.out.println("Node graph saved successfully to: " + savePath);
             return true;
@@ -390,7 +399,13 @@ class NodeTypeAdapter extends com.google.gson.TypeAdapter<NodeType> {
 
     @Override
     public NodeType read(com.google.gson.stream.JsonReader in) throws java.io.IOException {
-        String name = in.nextString();
+        return parse(in.nextString());
+    }
+
+    static NodeType parse(String name) {
+        if (name == null) {
+            return null;
+        }
         try {
             if ("MINE".equals(name)) {
                 return NodeType.COLLECT;
@@ -426,7 +441,13 @@ class NodeModeAdapter extends com.google.gson.TypeAdapter<com.pathmind.nodes.Nod
             in.nextNull();
             return null;
         }
-        String name = in.nextString();
+        return parse(in.nextString());
+    }
+
+    static com.pathmind.nodes.NodeMode parse(String name) {
+        if (name == null) {
+            return null;
+        }
         try {
             if ("MINE_SINGLE".equals(name)) {
                 return com.pathmind.nodes.NodeMode.COLLECT_SINGLE;
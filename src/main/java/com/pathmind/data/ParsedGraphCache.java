@@ -0,0 +1,109 @@
+package com.pathmind.data;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Bounded LRU of parsed, frozen preset graphs keyed by preset, validated against the file's
+ * modification time and size. A hit hands back the very same {@link NodeGraphData} instance, so
+ * anything keyed by identity (compiled execution plans) is reused as well. Entries are weighed by
+ * {@link NodeGraphData#estimateSize()}; the least recently used ones are dropped once either the
+ * entry or the weight limit is exceeded. Graphs whose save failed are kept as unsaved entries:
+ * they win over the file on disk and are never evicted, until a later save replaces them.
+ * Thread-safe.
+ */
+final class ParsedGraphCache {
+    private static final int MAX_ENTRIES = 32;
+    private static final long MAX_WEIGHT = 48L * 1024 * 1024;
+    private static final long UNSAVED = -1L;
+
+    private record Entry(NodeGraphData data, long modifiedMillis, long fileSize, long weight) {
+        boolean isUnsaved() {
+            return modifiedMillis == UNSAVED;
+        }
+    }
+
+    private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private long totalWeight;
+
+    /**
+     * Cached graph for {@code key} if it was read from or written to a file with the given
+     * modification time and size, or if its last save failed; otherwise {@code null}.
+     */
+    synchronized NodeGraphData get(String key, long modifiedMillis, long fileSize) {
+        Entry entry = entries.get(key);
+        if (entry == null) {
+            return null;
+        }
+        if (entry.isUnsaved()) {
+            return entry.data();
+        }
+        if (entry.modifiedMillis() != modifiedMillis || entry.fileSize() != fileSize) {
+            remove(key);
+            return null;
+        }
+        return entry.data();
+    }
+
+    /**
+     * Cached graph for {@code key} regardless of the file, for presets that exist only in memory.
+     */
+    synchronized NodeGraphData getAny(String key) {
+        Entry entry = entries.get(key);
+        return entry != null ? entry.data() : null;
+    }
+
+    synchronized boolean contains(String key) {
+        return entries.containsKey(key);
+    }
+
+    /**
+     * Freeze {@code data} and cache it. Graphs heavier than the whole budget are not kept.
+     */
+    synchronized NodeGraphData put(String key, NodeGraphData data, long modifiedMillis, long fileSize) {
+        data.freeze();
+        remove(key);
+        long weight = data.estimateSize();
+        if (weight > MAX_WEIGHT) {
+            return data;
+        }
+        entries.put(key, new Entry(data, modifiedMillis, fileSize, weight));
+        totalWeight += weight;
+        evict();
+        return data;
+    }
+
+    /**
+     * Freeze {@code data} and cache it as the current graph of a preset whose file could not be written.
+     */
+    synchronized NodeGraphData putUnsaved(String key, NodeGraphData data) {
+        data.freeze();
+        remove(key);
+        long weight = data.estimateSize();
+        entries.put(key, new Entry(data, UNSAVED, UNSAVED, weight));
+        totalWeight += weight;
+        evict();
+        return data;
+    }
+
+    synchronized void remove(String key) {
+        Entry removed = entries.remove(key);
+        if (removed != null) {
+            totalWeight -= removed.weight();
+        }
+    }
+
+    private void evict() {
+        Iterator<Map.Entry<String, Entry>> iterator = entries.entrySet().iterator();
+        while ((entries.size() > MAX_ENTRIES || totalWeight > MAX_WEIGHT) && iterator.hasNext()) {
+            Entry entry = iterator.next().getValue();
+            if (entry.isUnsaved()) {
+                // The only copy of the latest edits; dropping it would bring back the stale file
+                continue;
+            }
+            totalWeight -= entry.weight();
+            iterator.remove();
+        }
+    }
+}
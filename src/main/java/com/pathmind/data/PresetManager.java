@@ -5,24 +5,59 @@ import net.minecraft.client.MinecraftClient;
 
 import java.io.IOException;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.DirectoryStream;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.nio.file.attribute.BasicFileAttributes;
 import java.util.ArrayList;
 import java.util.Comparator;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
 import java.util.Optional;
-import java.util.stream.Collectors;
-import java.util.stream.Stream;
 
 /**
  * Utility class that manages Pathmind workspace presets.
+ *
+ * <p>The active preset and the preset files (with their size and modification time) are kept in
+ * an in-memory snapshot. A {@link WatchService} on the workspace and presets directories marks the
+ * snapshot stale whenever anything there changes, including edits made outside the game, and the
+ * next call rescans once; otherwise lookups do no disk I/O. Our own writes mark it stale directly so
+ * they are visible immediately. If the directories cannot be watched, every call rescans as before.</p>
  */
 public final class PresetManager {
     private static final String BASE_DIRECTORY_NAME = "pathmind";
     private static final String PRESETS_DIRECTORY_NAME = "presets";
     private static final String ACTIVE_PRESET_FILE_NAME = "active_preset.txt";
     private static final String DEFAULT_PRESET_NAME = "Default";
+    private static final String JSON_EXTENSION = ".json";
+
+    /**
+     * A preset file as of the last scan. When both formats exist, the binary one is listed.
+     */
+    record PresetFile(String name, Path path, long lastModifiedMillis, long size) {
+    }
+
+    /**
+     * Presets are keyed by {@link #presetKey(String)}, so lookups ignore case like the preset names do elsewhere.
+     */
+    private record Snapshot(Path baseDirectory, String activePreset, Map<String, PresetFile> presets) {
+    }
+
+    private static final Object LOCK = new Object();
+    private static volatile Snapshot snapshot;
+    private static volatile boolean stale = true;
+    private static WatchService watchService;
+    private static boolean watchUnavailable;
+    private static Path watchedBaseDirectory;
+    private static WatchKey baseDirectoryKey;
+    private static WatchKey presetsDirectoryKey;
 
     private PresetManager() {
     }
@@ -31,32 +66,14 @@ public final class PresetManager {
      * Ensure the base directories exist and that there is always an active preset defined.
      */
     public static void initialize() {
-        try {
-            ensureDirectoryExists(getBaseDirectory());
-            ensureDirectoryExists(getPresetsDirectory());
-            ensureActivePresetFile();
-        } catch (IOException e) {
-            System.err.println("Failed to initialize preset directories: " + e.getMessage());
-        }
+        snapshot();
     }
 
     /**
      * Get the currently active preset name.
      */
     public static String getActivePreset() {
-        initialize();
-        Path activePresetFile = getBaseDirectory().resolve(ACTIVE_PRESET_FILE_NAME);
-        if (Files.exists(activePresetFile)) {
-            try {
-                String value = Files.readString(activePresetFile, StandardCharsets.UTF_8).trim();
-                if (!value.isEmpty()) {
-                    return value;
-                }
-            } catch (IOException e) {
-                System.err.println("Failed to read active preset: " + e.getMessage());
-            }
-        }
-        return DEFAULT_PRESET_NAME;
+        return snapshot().activePreset();
     }
 
     /**
@@ -73,32 +90,24 @@ public final class PresetManager {
         } catch (IOException e) {
             System.err.println("Failed to write active preset: " + e.getMessage());
         }
+        invalidate();
     }
 
     /**
      * List all available presets.
      */
     public static List<String> getAvailablePresets() {
-        initialize();
+        Snapshot current = snapshot();
         List<String> presets = new ArrayList<>();
-        Path presetsDirectory = getPresetsDirectory();
-        try (Stream<Path> pathStream = Files.list(presetsDirectory)) {
-            presets = pathStream
-                .filter(path -> Files.isRegularFile(path) && path.getFileName().toString().endsWith(".json"))
-                .map(path -> {
-                    String fileName = path.getFileName().toString();
-                    return fileName.substring(0, fileName.length() - 5);
-                })
-                .collect(Collectors.toCollection(ArrayList::new));
-        } catch (IOException e) {
-            System.err.println("Failed to list presets: " + e.getMessage());
+        for (PresetFile file : current.presets().values()) {
+            presets.add(file.name());
         }
 
         if (presets.stream().noneMatch(name -> name.equalsIgnoreCase(DEFAULT_PRESET_NAME))) {
             presets.add(DEFAULT_PRESET_NAME);
         }
 
-        String activePreset = getActivePreset();
+        String activePreset = current.activePreset();
         if (presets.stream().noneMatch(name -> name.equalsIgnoreCase(activePreset))) {
             presets.add(activePreset);
         }
@@ -130,6 +139,7 @@ public final class PresetManager {
 
         try {
             Files.writeString(presetPath, "{}", StandardCharsets.UTF_8);
+            invalidate();
             return Optional.of(sanitized);
         } catch (IOException e) {
             System.err.println("Failed to create preset: " + e.getMessage());
@@ -149,14 +159,20 @@ public final class PresetManager {
             return false;
         }
 
-        initialize();
-        Path presetPath = getPresetsDirectory().resolve(sanitized + ".json");
-        if (!Files.exists(presetPath)) {
+        // Use the file's own spelling; the name may differ in case
+        PresetFile file = getPresetFile(sanitized);
+        String fileName = file != null ? file.name() : sanitized;
+        Path jsonPath = getPresetsDirectory().resolve(fileName + JSON_EXTENSION);
+        Path binaryPath = getPresetsDirectory().resolve(fileName + NodeGraphBinaryFormat.FILE_EXTENSION);
+        if (!Files.exists(jsonPath) && !Files.exists(binaryPath)) {
             return false;
         }
 
         try {
-            Files.delete(presetPath);
+            Files.deleteIfExists(jsonPath);
+            Files.deleteIfExists(binaryPath);
+            NodeGraphPersistence.evictCachedGraph(jsonPath);
+            invalidate();
             return true;
         } catch (IOException e) {
             System.err.println("Failed to delete preset: " + e.getMessage());
@@ -172,15 +188,195 @@ public final class PresetManager {
     }
 
     /**
-     * Resolve the save path for a preset.
+     * Resolve the save path for a preset. A preset stored in the binary {@code .pmg} format keeps
+     * using it; every other preset is JSON.
      */
     public static Path getPresetPath(String presetName) {
-        initialize();
+        Snapshot current = snapshot();
         String sanitized = sanitizePresetName(presetName);
         if (sanitized.isEmpty()) {
             sanitized = DEFAULT_PRESET_NAME;
         }
-        return getPresetsDirectory().resolve(sanitized + ".json");
+        PresetFile file = current.presets().get(presetKey(sanitized));
+        if (file != null) {
+            return file.path();
+        }
+        return current.baseDirectory().resolve(PRESETS_DIRECTORY_NAME).resolve(sanitized + JSON_EXTENSION);
+    }
+
+    /**
+     * The preset's file as of the last scan, or {@code null} if it has none on disk.
+     */
+    static PresetFile getPresetFile(String presetName) {
+        String sanitized = sanitizePresetName(presetName);
+        return snapshot().presets().get(presetKey(sanitized.isEmpty() ? DEFAULT_PRESET_NAME : sanitized));
+    }
+
+    private static String presetKey(String sanitizedName) {
+        return sanitizedName.toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Rescan on the next call, after we changed something in the workspace ourselves.
+     */
+    static void invalidate() {
+        stale = true;
+    }
+
+    private static Snapshot snapshot() {
+        Path baseDirectory = getBaseDirectory();
+        Snapshot current = snapshot;
+        if (current != null && !stale && current.baseDirectory().equals(baseDirectory)) {
+            return current;
+        }
+        synchronized (LOCK) {
+            current = snapshot;
+            if (current == null || stale || !current.baseDirectory().equals(baseDirectory)) {
+                // Cleared and registered before scanning so changes made during the scan trigger another one
+                stale = false;
+                ensureDirectories(baseDirectory);
+                boolean watched = watch(baseDirectory);
+                current = scan(baseDirectory);
+                snapshot = current;
+                if (!watched) {
+                    stale = true;
+                }
+            }
+            return current;
+        }
+    }
+
+    private static void ensureDirectories(Path baseDirectory) {
+        try {
+            ensureDirectoryExists(baseDirectory);
+            ensureDirectoryExists(baseDirectory.resolve(PRESETS_DIRECTORY_NAME));
+            ensureActivePresetFile(baseDirectory);
+        } catch (IOException e) {
+            System.err.println("Failed to initialize preset directories: " + e.getMessage());
+        }
+    }
+
+    private static Snapshot scan(Path baseDirectory) {
+        Path presetsDirectory = baseDirectory.resolve(PRESETS_DIRECTORY_NAME);
+        Map<String, PresetFile> presets = new HashMap<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(presetsDirectory)) {
+            for (Path path : stream) {
+                String name = stripPresetExtension(path.getFileName().toString());
+                if (name == null) {
+                    continue;
+                }
+                BasicFileAttributes attributes;
+                try {
+                    attributes = Files.readAttributes(path, BasicFileAttributes.class);
+                } catch (IOException e) {
+                    continue;
+                }
+                if (!attributes.isRegularFile()) {
+                    continue;
+                }
+                String key = presetKey(name);
+                PresetFile existing = presets.get(key);
+                if (existing != null && isBinaryPreset(existing.path())) {
+                    continue;
+                }
+                presets.put(key, new PresetFile(name, path,
+                    attributes.lastModifiedTime().toMillis(), attributes.size()));
+            }
+        } catch (IOException e) {
+            System.err.println("Failed to list presets: " + e.getMessage());
+        }
+
+        return new Snapshot(baseDirectory, readActivePreset(baseDirectory), Map.copyOf(presets));
+    }
+
+    private static String readActivePreset(Path baseDirectory) {
+        Path activePresetFile = baseDirectory.resolve(ACTIVE_PRESET_FILE_NAME);
+        if (Files.exists(activePresetFile)) {
+            try {
+                String value = Files.readString(activePresetFile, StandardCharsets.UTF_8).trim();
+                if (!value.isEmpty()) {
+                    return value;
+                }
+            } catch (IOException e) {
+                System.err.println("Failed to read active preset: " + e.getMessage());
+            }
+        }
+        return DEFAULT_PRESET_NAME;
+    }
+
+    /**
+     * Make sure both directories are registered with the watch service. Returns whether they are watched.
+     */
+    private static boolean watch(Path baseDirectory) {
+        if (watchUnavailable) {
+            return false;
+        }
+        try {
+            if (watchService == null) {
+                WatchService service = baseDirectory.getFileSystem().newWatchService();
+                Thread.ofPlatform().name("Pathmind-PresetWatcher").daemon().start(() -> pollWatchService(service));
+                watchService = service;
+            }
+            if (!baseDirectory.equals(watchedBaseDirectory)) {
+                cancel(baseDirectoryKey);
+                cancel(presetsDirectoryKey);
+                baseDirectoryKey = null;
+                presetsDirectoryKey = null;
+                watchedBaseDirectory = baseDirectory;
+            }
+            if (baseDirectoryKey == null || !baseDirectoryKey.isValid()) {
+                baseDirectoryKey = register(baseDirectory);
+            }
+            if (presetsDirectoryKey == null || !presetsDirectoryKey.isValid()) {
+                presetsDirectoryKey = register(baseDirectory.resolve(PRESETS_DIRECTORY_NAME));
+            }
+            return true;
+        } catch (IOException | UnsupportedOperationException e) {
+            System.err.println("Failed to watch preset directories, presets will be rescanned on every access: " + e.getMessage());
+            watchUnavailable = true;
+            return false;
+        }
+    }
+
+    private static WatchKey register(Path directory) throws IOException {
+        return directory.register(watchService,
+            StandardWatchEventKinds.ENTRY_CREATE,
+            StandardWatchEventKinds.ENTRY_DELETE,
+            StandardWatchEventKinds.ENTRY_MODIFY);
+    }
+
+    private static void cancel(WatchKey key) {
+        if (key != null) {
+            key.cancel();
+        }
+    }
+
+    private static void pollWatchService(WatchService service) {
+        try {
+            while (true) {
+                WatchKey key = service.take();
+                key.pollEvents();
+                stale = true;
+                // A key that cannot be reset belongs to a deleted directory; the rescan recreates and re-registers it
+                key.reset();
+            }
+        } catch (InterruptedException | ClosedWatchServiceException e) {
+            // Shutting down
+        }
+    }
+
+    private static boolean isBinaryPreset(Path path) {
+        return path.getFileName().toString().endsWith(NodeGraphBinaryFormat.FILE_EXTENSION);
+    }
+
+    private static String stripPresetExtension(String fileName) {
+        if (fileName.endsWith(JSON_EXTENSION)) {
+            return fileName.substring(0, fileName.length() - JSON_EXTENSION.length());
+        }
+        if (fileName.endsWith(NodeGraphBinaryFormat.FILE_EXTENSION)) {
+            return fileName.substring(0, fileName.length() - NodeGraphBinaryFormat.FILE_EXTENSION.length());
+        }
+        return null;
     }
 
     /**
@@ -192,7 +388,7 @@ public final class PresetManager {
     }
 
     private static Path getPresetsDirectory() {
-        return getBaseDirectory().resolve(PRESETS_DIRECTORY_NAME);
+        return snapshot().baseDirectory().resolve(PRESETS_DIRECTORY_NAME);
     }
 
     private static Path getMinecraftDirectory() {
@@ -213,8 +409,8 @@ public final class PresetManager {
         }
     }
 
-    private static void ensureActivePresetFile() throws IOException {
-        Path activePresetFile = getBaseDirectory().resolve(ACTIVE_PRESET_FILE_NAME);
+    private static void ensureActivePresetFile(Path baseDirectory) throws IOException {
+        Path activePresetFile = baseDirectory.resolve(ACTIVE_PRESET_FILE_NAME);
         if (!Files.exists(activePresetFile)) {
             Files.writeString(activePresetFile, DEFAULT_PRESET_NAME, StandardCharsets.UTF_8);
         }
@@ -10,24 +10,32 @@ import baritone.api.process.IMineProcess;
 import com.pathmind.nodes.Node;
 import com.pathmind.nodes.NodeConnection;
 import com.pathmind.nodes.NodeParameter;
+import com.pathmind.nodes.NodeRuntimeState;
 import com.pathmind.nodes.NodeType;
-import com.pathmind.nodes.ParameterType;
 import com.pathmind.data.NodeGraphData;
+import com.pathmind.data.NodeGraphMaterializer;
 import com.pathmind.data.NodeGraphPersistence;
 
 import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Collections;
-import java.util.HashMap;
-import java.util.LinkedHashSet;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
 import java.util.List;
-import java.util.Locale;
 import java.util.Map;
 import java.util.Set;
+import java.util.WeakHashMap;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletionException;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.TimeUnit;
-import java.util.Objects;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.function.BiFunction;
+import java.util.function.Predicate;
 
 /**
  * Manages the execution state of the node graph.
@@ -42,78 +50,132 @@ public class ExecutionManager {
     private static final long MINIMUM_DISPLAY_DURATION = 3000; // 3 seconds minimum display
     private NodeGraphData lastExecutedGraph;
     private NodeGraphData lastGlobalGraph;
-    private List<Node> activeNodes;
-    private List<NodeConnection> activeConnections;
-    private final Set<ConnectionKey> activeConnectionLookup;
-    private final List<String> executingEvents;
+    private volatile ExecutionPlan activePlan;
     private volatile boolean cancelRequested;
     private final Map<Node, ChainController> activeChains;
-    private final Map<ConnectionKey, Node> eventConnectionOwners;
     private final Set<Node> activeEventFunctionNodes;
+    private final Set<Future<?>> detachedBlockingTasks;
+    private final Map<NodeGraphData, ExecutionPlan> materializedPlans;
+    private final Map<ExecutionPlan, List<SensorSubscriptions.Subscription>> triggerSubscriptions;
+    private int runningInterrupts;
+    private ChainController executingController;
+    private final BiFunction<Node, NodeRuntimeState, CompletableFuture<Void>> nodeExecutor;
     private boolean globalExecutionActive;
     private boolean lastSnapshotWasGlobal;
 
-    private static final long NODE_EXECUTION_DELAY_MS = 150L;
+    private static final int NODE_EXECUTION_DELAY_TICKS = 1;
 
-    private static class ChainController {
-        final Node startNode;
-        volatile boolean cancelRequested;
-
-        ChainController(Node startNode) {
-            this.startNode = startNode;
-            this.cancelRequested = false;
+    /**
+     * Fails the node a chain was running when an interrupt handler preempted it.
+     */
+    private static final class ChainPreemptedException extends CancellationException {
+        ChainPreemptedException() {
+            super("Chain preempted by an interrupt handler");
         }
     }
 
-    private static final class ConnectionKey {
-        private final String outputNodeId;
-        private final int outputSocket;
-        private final String inputNodeId;
-        private final int inputSocket;
+    private static final ExecutorService BLOCKING_TASK_EXECUTOR = Executors.newThreadPerTaskExecutor(
+        Thread.ofVirtual().name("Pathmind-Node-", 0).factory());
+
+    private static class ChainController {
+        final Node startNode;
+        final ExecutionPlan plan;
+        final Set<Future<?>> blockingTasks;
+        final boolean interrupt;
+        volatile boolean cancelRequested;
+        volatile boolean suspended;
+        volatile CompletableFuture<Void> currentNodeFuture;
+        volatile NodeRuntimeState currentNodeState;
+        ChainRunner runner;
 
-        ConnectionKey(String outputNodeId, int outputSocket, String inputNodeId, int inputSocket) {
-            this.outputNodeId = outputNodeId;
-            this.outputSocket = outputSocket;
-            this.inputNodeId = inputNodeId;
-            this.inputSocket = inputSocket;
+        ChainController(Node startNode, ExecutionPlan plan) {
+            this(startNode, plan, false);
         }
 
-        @Override
-        public boolean equals(Object obj) {
-            if (this == obj) {
-                return true;
+        ChainController(Node startNode, ExecutionPlan plan, boolean interrupt) {
+            this.startNode = startNode;
+            this.plan = plan;
+            this.blockingTasks = ConcurrentHashMap.newKeySet();
+            this.interrupt = interrupt;
+            this.cancelRequested = false;
+            this.suspended = false;
+        }
+
+        /**
+         * Park this chain for an interrupt handler. The node in flight is abandoned (its blocking body
+         * interrupted, its future failed with {@link ChainPreemptedException}) and will run again from
+         * the start when the chain resumes.
+         *
+         * @return {@code true} when a node was in flight
+         */
+        boolean suspend() {
+            suspended = true;
+            cancelBlockingTasks(blockingTasks);
+            CompletableFuture<Void> nodeFuture = currentNodeFuture;
+            boolean abandoned = nodeFuture != null && nodeFuture.completeExceptionally(new ChainPreemptedException());
+            cancelTrackedTask();
+            return abandoned;
+        }
+
+        /**
+         * Stop this chain: interrupt its blocking node bodies and fail the node it is waiting on,
+         * so the chain unwinds right away instead of after the current node finishes.
+         */
+        void cancel() {
+            cancelRequested = true;
+            cancelBlockingTasks(blockingTasks);
+            NodeRuntimeState nodeState = currentNodeState;
+            boolean ownsBaritoneTask = nodeState != null && nodeState.hasPendingTrackedTask();
+            CompletableFuture<Void> nodeFuture = currentNodeFuture;
+            if (nodeFuture != null) {
+                nodeFuture.completeExceptionally(new CancellationException("Chain stopped"));
             }
-            if (!(obj instanceof ConnectionKey)) {
-                return false;
+            cancelTrackedTask();
+            if (ownsBaritoneTask) {
+                // Baritone was working for this chain only; other chains' tracked tasks stay pending
+                stopBaritoneProcesses();
+            }
+            // A parked chain only notices the stop once it runs again
+            ChainRunner parkedRunner = runner;
+            if (suspended && parkedRunner != null) {
+                ExecutionScheduler.getInstance().runAfterTicks(0, parkedRunner::resume);
             }
-            ConnectionKey other = (ConnectionKey) obj;
-            return outputSocket == other.outputSocket
-                    && inputSocket == other.inputSocket
-                    && Objects.equals(outputNodeId, other.outputNodeId)
-                    && Objects.equals(inputNodeId, other.inputNodeId);
         }
 
-        @Override
-        public int hashCode() {
-            return Objects.hash(outputNodeId, outputSocket, inputNodeId, inputSocket);
+        /**
+         * Drop the Baritone task of the node in flight, by its handle.
+         */
+        private void cancelTrackedTask() {
+            NodeRuntimeState nodeState = currentNodeState;
+            if (nodeState != null) {
+                nodeState.cancelTrackedTask();
+            }
         }
     }
 
     private ExecutionManager() {
+        this(Node::execute);
+    }
+
+    /**
+     * Manager whose chains run nodes through {@code nodeExecutor}; tests use it to drive chains without a game client.
+     */
+    ExecutionManager(BiFunction<Node, NodeRuntimeState, CompletableFuture<Void>> nodeExecutor) {
+        this.nodeExecutor = nodeExecutor;
         this.activeNode = null;
         this.isExecuting = false;
         this.executionStartTime = 0;
         this.executionEndTime = 0;
-        this.activeNodes = new ArrayList<>();
-        this.activeConnections = new ArrayList<>();
-        this.executingEvents = new ArrayList<>();
+        this.activePlan = ExecutionPlan.EMPTY;
         this.cancelRequested = false;
         this.activeChains = new ConcurrentHashMap<>();
         this.globalExecutionActive = false;
         this.lastSnapshotWasGlobal = false;
-        this.activeConnectionLookup = ConcurrentHashMap.newKeySet();
-        this.eventConnectionOwners = new ConcurrentHashMap<>();
         this.activeEventFunctionNodes = ConcurrentHashMap.newKeySet();
+        this.detachedBlockingTasks = ConcurrentHashMap.newKeySet();
+        this.materializedPlans = Collections.synchronizedMap(new WeakHashMap<>());
+        this.triggerSubscriptions = new IdentityHashMap<>();
+        this.runningInterrupts = 0;
     }
     
     public static ExecutionManager getInstance() {
@@ -133,34 +195,48 @@ public class ExecutionManager {
             return;
         }
 
-        List<Node> startNodes = findStartNodes(nodes);
-        if (startNodes.isEmpty()) {
+        List<NodeConnection> filteredConnections = filterConnections(connections);
+        ExecutionPlan plan = ExecutionPlan.compile(nodes, filteredConnections);
+        if (plan.getStartNodes().isEmpty()) {
             System.out.println("ExecutionManager: No START nodes found!");
             return;
         }
 
-        List<NodeConnection> filteredConnections = filterConnections(connections);
+        startPlan(plan, createGraphSnapshot(nodes, filteredConnections), markGlobalSnapshot);
+    }
+
+    private void startPlan(ExecutionPlan plan, NodeGraphData snapshot, boolean markGlobalSnapshot) {
+        List<Node> startNodes = plan.getStartNodes();
+        if (startNodes.isEmpty()) {
+            System.out.println("ExecutionManager: No START nodes found!");
+            return;
+        }
 
-        NodeGraphData snapshot = createGraphSnapshot(nodes, filteredConnections);
         this.lastExecutedGraph = snapshot;
         if (markGlobalSnapshot) {
             this.lastGlobalGraph = snapshot;
         }
         this.lastSnapshotWasGlobal = markGlobalSnapshot;
-        this.activeNodes = new ArrayList<>(nodes);
-        this.activeConnections = new ArrayList<>(filteredConnections);
-        rebuildConnectionState(this.activeNodes, this.activeConnections);
+        this.activePlan = plan;
+        this.activeEventFunctionNodes.clear();
         this.cancelRequested = false;
 
         startExecution(startNodes, markGlobalSnapshot);
+        // A replayed snapshot reuses the same START nodes, so the chains still running must not linger under their keys
+        for (ChainController running : activeChains.values()) {
+            running.cancel();
+        }
         activeChains.clear();
+        runningInterrupts = 0;
+        cancelTriggerSubscriptions();
 
         for (Node startNode : startNodes) {
-            ChainController controller = new ChainController(startNode);
+            ChainController controller = new ChainController(startNode, plan);
             activeChains.put(startNode, controller);
-            CompletableFuture<Void> chainFuture = runChain(startNode, controller);
+            CompletableFuture<Void> chainFuture = new ChainRunner(controller).start(startNode);
             chainFuture.whenComplete((ignored, throwable) -> handleChainCompletion(controller, throwable));
         }
+        subscribeTriggers(plan);
     }
 
     public void replayLastGraph() {
@@ -202,11 +278,16 @@ public class ExecutionManager {
         }
 
         List<NodeConnection> filteredConnections = filterConnections(connections);
-        Set<Node> branchNodeSet = collectBranchNodes(startNode, filteredConnections);
+        ExecutionPlan fullPlan = ExecutionPlan.compile(nodes, filteredConnections);
+        Set<Node> branchNodeSet = fullPlan.collectReachable(startNode);
 
-        for (Node node : nodes) {
-            if (node.getType() == NodeType.EVENT_FUNCTION) {
-                branchNodeSet.addAll(collectBranchNodes(node, filteredConnections));
+        for (Node eventFunction : fullPlan.getEventFunctionNodes()) {
+            branchNodeSet.addAll(fullPlan.collectReachable(eventFunction));
+        }
+        for (Node trigger : fullPlan.getTriggerNodes()) {
+            branchNodeSet.add(trigger);
+            if (trigger.getAttachedSensor() != null) {
+                branchNodeSet.add(trigger.getAttachedSensor());
             }
         }
 
@@ -224,11 +305,11 @@ public class ExecutionManager {
             }
         }
 
+        ExecutionPlan branchPlan = ExecutionPlan.compile(branchNodes, branchConnections);
         this.lastExecutedGraph = createGraphSnapshot(branchNodes, branchConnections);
         this.lastSnapshotWasGlobal = false;
-        this.activeNodes = branchNodes;
-        this.activeConnections = branchConnections;
-        rebuildConnectionState(this.activeNodes, this.activeConnections);
+        this.activePlan = branchPlan;
+        this.activeEventFunctionNodes.clear();
         this.cancelRequested = false;
 
         if (activeChains.isEmpty()) {
@@ -237,12 +318,163 @@ public class ExecutionManager {
             this.isExecuting = true;
         }
 
-        ChainController controller = new ChainController(startNode);
+        ChainController controller = new ChainController(startNode, branchPlan);
         activeChains.put(startNode, controller);
-        CompletableFuture<Void> chainFuture = runChain(startNode, controller);
+        CompletableFuture<Void> chainFuture = new ChainRunner(controller).start(startNode);
         chainFuture.whenComplete((ignored, throwable) -> handleChainCompletion(controller, throwable));
+        subscribeTriggers(branchPlan);
+        return true;
+    }
+
+    /**
+     * Hand the plan's When nodes to the sensor evaluator. The subscriptions live until the last chain
+     * of the plan ends, so branches started side by side keep their own triggers.
+     */
+    private void subscribeTriggers(ExecutionPlan plan) {
+        if (triggerSubscriptions.containsKey(plan)) {
+            return;
+        }
+        List<SensorSubscriptions.Subscription> subscriptions = new ArrayList<>();
+        for (Node trigger : plan.getTriggerNodes()) {
+            Node sensor = trigger.getAttachedSensor();
+            if (trigger.getType() != NodeType.EVENT_WHEN || sensor == null) {
+                continue;
+            }
+            subscriptions.add(sensor.subscribe(() -> {
+                NodeParameter functionParam = trigger.getParameter("Function");
+                NodeParameter interruptParam = trigger.getParameter("Interrupt");
+                boolean interrupt = interruptParam != null && interruptParam.getBoolValue();
+                runTriggeredFunction(plan, functionParam != null ? functionParam.getStringValue() : null, interrupt);
+            }));
+        }
+        triggerSubscriptions.put(plan, subscriptions);
+    }
+
+    private void cancelTriggerSubscriptions(ExecutionPlan plan) {
+        List<SensorSubscriptions.Subscription> subscriptions = triggerSubscriptions.remove(plan);
+        if (subscriptions != null) {
+            for (SensorSubscriptions.Subscription subscription : subscriptions) {
+                subscription.cancel();
+            }
+        }
+    }
+
+    private void cancelTriggerSubscriptions() {
+        for (ExecutionPlan plan : new ArrayList<>(triggerSubscriptions.keySet())) {
+            cancelTriggerSubscriptions(plan);
+        }
+    }
+
+    private boolean isPlanRunning(ExecutionPlan plan) {
+        for (ChainController controller : activeChains.values()) {
+            if (controller.plan == plan) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Fire every trigger node of the given type in the running plans that accepts the event.
+     * Each trigger calls its function like a When node would, as an interrupt if it is flagged as one.
+     */
+    public void fireTriggers(NodeType triggerType, Predicate<Node> accepts) {
+        if (!isExecuting || activeChains.isEmpty()) {
+            return;
+        }
+        Set<ExecutionPlan> plans = Collections.newSetFromMap(new IdentityHashMap<>());
+        for (ChainController controller : activeChains.values()) {
+            plans.add(controller.plan);
+        }
+        for (ExecutionPlan plan : plans) {
+            for (Node trigger : plan.getTriggerNodes()) {
+                if (trigger.getType() != triggerType || !accepts.test(trigger)) {
+                    continue;
+                }
+                NodeParameter functionParam = trigger.getParameter("Function");
+                NodeParameter interruptParam = trigger.getParameter("Interrupt");
+                boolean interrupt = interruptParam != null && interruptParam.getBoolValue();
+                runTriggeredFunction(plan, functionParam != null ? functionParam.getStringValue() : null, interrupt);
+            }
+        }
+    }
+
+    /**
+     * Start the named function's handlers of a running plan as chains of their own, as interrupts when
+     * asked to: every other chain is then parked and its Baritone work cancelled, and the parked chains
+     * resume at the node they were on once no interrupt handler is left running. A handler still busy
+     * with an earlier trigger is not started twice.
+     *
+     * @return {@code true} when at least one handler was started
+     */
+    private boolean runTriggeredFunction(ExecutionPlan plan, String name, boolean interrupt) {
+        if (plan == null || cancelRequested || !isExecuting || !isPlanRunning(plan)) {
+            return false;
+        }
+        String eventName = ExecutionPlan.normalizeEventName(name);
+        if (eventName.isEmpty()) {
+            return false;
+        }
+
+        List<Node> handlers = new ArrayList<>();
+        for (Node handler : plan.getEventHandlers(eventName)) {
+            if (!activeChains.containsKey(handler)) {
+                handlers.add(handler);
+            }
+        }
+        if (handlers.isEmpty()) {
+            return false;
+        }
+
+        if (interrupt) {
+            preemptChains();
+        }
+        for (Node handler : handlers) {
+            ChainController controller = new ChainController(handler, plan, interrupt);
+            // Ordinary handlers triggered while an interrupt runs wait for it like everything else
+            controller.suspended = !interrupt && runningInterrupts > 0;
+            activeChains.put(handler, controller);
+            setEventFunctionActive(handler, true);
+            if (interrupt) {
+                runningInterrupts++;
+            }
+            CompletableFuture<Void> chainFuture = new ChainRunner(controller).start(handler);
+            chainFuture.whenComplete((ignored, throwable) -> {
+                setEventFunctionActive(handler, false);
+                if (interrupt && activeChains.get(handler) == controller) {
+                    finishInterrupt();
+                }
+                handleChainCompletion(controller, throwable);
+            });
+        }
         return true;
     }
+
+    private void preemptChains() {
+        boolean abandonedWork = false;
+        for (ChainController controller : activeChains.values()) {
+            if (controller.interrupt || controller.suspended || controller.cancelRequested) {
+                continue;
+            }
+            abandonedWork |= controller.suspend();
+        }
+        if (abandonedWork) {
+            // The parked chains' tracked tasks were dropped by handle; interrupt handlers keep theirs
+            stopBaritoneProcesses();
+        }
+    }
+
+    private void finishInterrupt() {
+        runningInterrupts = Math.max(0, runningInterrupts - 1);
+        if (runningInterrupts > 0) {
+            return;
+        }
+        for (ChainController controller : activeChains.values()) {
+            if (controller.suspended && controller.runner != null) {
+                controller.runner.resume();
+            }
+        }
+    }
     
     /**
      * Start execution with the given start node
@@ -294,6 +526,8 @@ public class ExecutionManager {
      */
     public void requestStopAll() {
         cancelAllBaritoneCommands();
+        InputSimulator.getInstance().releaseAll();
+        cancelBlockingTasks(detachedBlockingTasks);
 
         if (!isExecuting && activeNode == null && activeChains.isEmpty()) {
             return;
@@ -302,25 +536,26 @@ public class ExecutionManager {
         System.out.println("ExecutionManager: Stop requested for all node trees at time " + System.currentTimeMillis());
         cancelRequested = true;
         for (ChainController controller : activeChains.values()) {
-            controller.cancelRequested = true;
+            controller.cancel();
         }
         this.isExecuting = false;
         this.globalExecutionActive = false;
         this.activeNode = null;
         this.executionStartTime = 0;
         this.executionEndTime = 0;
-        this.activeNodes.clear();
-        this.activeConnections.clear();
-        this.activeConnectionLookup.clear();
-        this.executingEvents.clear();
-        this.eventConnectionOwners.clear();
+        this.activePlan = ExecutionPlan.EMPTY;
         this.activeEventFunctionNodes.clear();
         this.activeChains.clear();
+        this.runningInterrupts = 0;
+        cancelTriggerSubscriptions();
     }
 
     private void cancelAllBaritoneCommands() {
         PreciseCompletionTracker.getInstance().cancelAllTasks();
+        stopBaritoneProcesses();
+    }
 
+    private static void stopBaritoneProcesses() {
         try {
             IBaritone baritone = BaritoneAPI.getProvider().getPrimaryBaritone();
             if (baritone == null) {
@@ -375,11 +610,51 @@ public class ExecutionManager {
             return false;
         }
 
-        controller.cancelRequested = true;
+        controller.cancel();
         System.out.println("ExecutionManager: Stop requested for START node " + startNode.getId() + " at time " + System.currentTimeMillis());
         return true;
     }
 
+    /**
+     * Executor for node bodies that have to block (sleeping between actions, waiting on the world).
+     * Tasks run on a shared virtual-thread executor and are registered with the chain executing the
+     * current node, so stopping that chain interrupts them immediately. Must be requested while the
+     * node is being dispatched.
+     */
+    public Executor getBlockingTaskExecutor() {
+        ChainController controller = executingController;
+        Set<Future<?>> registry = controller != null ? controller.blockingTasks : detachedBlockingTasks;
+        return task -> submitBlockingTask(registry, task);
+    }
+
+    private static void submitBlockingTask(Set<Future<?>> registry, Runnable task) {
+        FutureTask<Void> futureTask = new FutureTask<>(task, null) {
+            @Override
+            protected void done() {
+                registry.remove(this);
+            }
+        };
+        registry.add(futureTask);
+        BLOCKING_TASK_EXECUTOR.execute(futureTask);
+    }
+
+    private static void cancelBlockingTasks(Set<Future<?>> tasks) {
+        for (Future<?> task : tasks) {
+            task.cancel(true);
+        }
+        tasks.clear();
+    }
+
+    /**
+     * Number of loop and event-call frames the chain started at {@code startNode} is nested in,
+     * or {@code -1} when no such chain is running.
+     */
+    int getChainFrameDepth(Node startNode) {
+        ChainController controller = startNode != null ? activeChains.get(startNode) : null;
+        ChainRunner runner = controller != null ? controller.runner : null;
+        return runner != null ? runner.frames.size() : -1;
+    }
+
     public boolean isChainActive(Node startNode) {
         if (startNode == null) {
             return false;
@@ -452,140 +727,284 @@ public class ExecutionManager {
         return 0;
     }
 
-    private CompletableFuture<Void> runChain(Node currentNode, ChainController controller) {
-        if (cancelRequested || controller == null || controller.cancelRequested) {
-            return CompletableFuture.completedFuture(null);
+    /**
+     * Iterative interpreter for a single chain.
+     * Each node is scheduled on the execution scheduler and its completion only records where to go next,
+     * so loops and long chains never build up nested futures. Loop bodies and event handlers push a frame
+     * describing where to resume; the frame stack only grows with nesting depth, not with iterations.
+     */
+    private final class ChainRunner {
+        private final ChainController controller;
+        private final CompletableFuture<Void> completion;
+        private final ArrayDeque<Frame> frames;
+        private final Set<String> activeEvents;
+        private final NodeRuntimeState[] runtimeFrame;
+        private Node resumeNode;
+
+        ChainRunner(ChainController controller) {
+            this.controller = controller;
+            controller.runner = this;
+            this.completion = new CompletableFuture<>();
+            this.frames = new ArrayDeque<>();
+            this.activeEvents = new HashSet<>();
+            this.runtimeFrame = controller.plan.newRuntimeFrame();
+        }
+
+        private NodeRuntimeState stateFor(Node node) {
+            int index = controller.plan.indexOf(node);
+            if (index == ExecutionPlan.NO_NODE) {
+                return new NodeRuntimeState();
+            }
+            NodeRuntimeState state = runtimeFrame[index];
+            if (state == null) {
+                state = new NodeRuntimeState();
+                runtimeFrame[index] = state;
+            }
+            return state;
+        }
+
+        CompletableFuture<Void> start(Node startNode) {
+            schedule(startNode);
+            return completion;
         }
 
-        return scheduleNodeStartDelay()
-            .thenCompose(ignored -> {
-                if (cancelRequested || controller.cancelRequested) {
-                    return CompletableFuture.completedFuture(null);
-                }
+        private boolean isCancelled() {
+            return cancelRequested || controller.cancelRequested;
+        }
 
-                setActiveNode(currentNode);
+        private void schedule(Node node) {
+            if (isCancelled()) {
+                finish(null);
+                return;
+            }
+            if (controller.suspended) {
+                resumeNode = node;
+                return;
+            }
+            ExecutionScheduler.getInstance().runAfterTicks(NODE_EXECUTION_DELAY_TICKS, () -> executeNode(node));
+        }
+
+        /**
+         * Continue after an interrupt handler finished, re-running the node that was preempted.
+         */
+        void resume() {
+            controller.suspended = false;
+            Node node = resumeNode;
+            resumeNode = null;
+            if (node != null) {
+                schedule(node);
+            }
+        }
 
-                if (cancelRequested || controller.cancelRequested) {
-                    return CompletableFuture.completedFuture(null);
-                }
+        private void executeNode(Node node) {
+            if (isCancelled()) {
+                finish(null);
+                return;
+            }
+            if (controller.suspended) {
+                resumeNode = node;
+                return;
+            }
+
+            setActiveNode(node);
 
-                return currentNode.execute()
-                    .thenCompose(ignoredFuture -> {
-                        if (cancelRequested || controller.cancelRequested) {
-                            return CompletableFuture.completedFuture(null);
+            CompletableFuture<Void> nodeFuture;
+            executingController = controller;
+            try {
+                NodeRuntimeState nodeState = stateFor(node);
+                controller.currentNodeState = nodeState;
+                nodeFuture = nodeExecutor.apply(node, nodeState);
+            } catch (RuntimeException e) {
+                finish(e);
+                return;
+            } finally {
+                executingController = null;
+            }
+            controller.currentNodeFuture = nodeFuture;
+
+            // Resume on the scheduler so the interpreter state is only touched from the client thread
+            nodeFuture.whenComplete((ignored, throwable) ->
+                ExecutionScheduler.getInstance().runAfterTicks(0, () -> {
+                    if (isPreemption(throwable)) {
+                        resumeNode = node;
+                        if (!controller.suspended) {
+                            resume();
                         }
-                        return handleEventCallIfNeeded(currentNode, controller);
-                    })
-                    .thenCompose(ignoredFuture -> continueFromNode(currentNode, controller));
-            });
-    }
+                    } else if (throwable != null) {
+                        finish(throwable);
+                    } else {
+                        afterNode(node);
+                    }
+                }));
+        }
 
-    private CompletableFuture<Void> scheduleNodeStartDelay() {
-        if (NODE_EXECUTION_DELAY_MS <= 0L) {
-            return CompletableFuture.completedFuture(null);
+        private void afterNode(Node node) {
+            if (isCancelled()) {
+                finish(null);
+                return;
+            }
+            if (node.getType() == NodeType.EVENT_CALL && beginEventCall(node)) {
+                return;
+            }
+            advance(node);
         }
 
-        return CompletableFuture.runAsync(() -> { },
-            CompletableFuture.delayedExecutor(NODE_EXECUTION_DELAY_MS, TimeUnit.MILLISECONDS));
-    }
+        private boolean beginEventCall(Node node) {
+            NodeParameter nameParam = node.getParameter("Name");
+            String eventName = ExecutionPlan.normalizeEventName(nameParam != null ? nameParam.getStringValue() : null);
+            if (eventName.isEmpty()) {
+                return false;
+            }
 
-    private CompletableFuture<Void> handleEventCallIfNeeded(Node node, ChainController controller) {
-        if (cancelRequested || controller.cancelRequested || node.getType() != NodeType.EVENT_CALL) {
-            return CompletableFuture.completedFuture(null);
-        }
+            if (activeEvents.contains(eventName)) {
+                System.out.println("ExecutionManager: Skipping recursive event call for " + eventName);
+                return false;
+            }
 
-        NodeParameter nameParam = node.getParameter("Name");
-        String eventName = normalizeEventName(nameParam != null ? nameParam.getStringValue() : null);
-        if (eventName.isEmpty()) {
-            return CompletableFuture.completedFuture(null);
-        }
+            List<Node> handlers = controller.plan.getEventHandlers(eventName);
+            if (handlers.isEmpty()) {
+                return false;
+            }
 
-        if (executingEvents.contains(eventName)) {
-            System.out.println("ExecutionManager: Skipping recursive event call for " + eventName);
-            return CompletableFuture.completedFuture(null);
+            activeEvents.add(eventName);
+            frames.push(new EventCallFrame(node, eventName, handlers));
+            runNextHandler((EventCallFrame) frames.peek());
+            return true;
         }
 
-        List<Node> handlers = new ArrayList<>();
-        for (Node candidate : activeNodes) {
-            if (candidate.getType() == NodeType.EVENT_FUNCTION) {
-                NodeParameter candidateParam = candidate.getParameter("Name");
-                String candidateName = normalizeEventName(candidateParam != null ? candidateParam.getStringValue() : null);
-                if (!candidateName.isEmpty() && candidateName.equals(eventName)) {
-                    handlers.add(candidate);
-                }
+        private void runNextHandler(EventCallFrame frame) {
+            if (frame.currentHandler != null) {
+                setEventFunctionActive(frame.currentHandler, false);
+                frame.currentHandler = null;
             }
-        }
 
-        if (handlers.isEmpty()) {
-            return CompletableFuture.completedFuture(null);
-        }
+            if (isCancelled()) {
+                finish(null);
+                return;
+            }
 
-        executingEvents.add(eventName);
-        CompletableFuture<Void> chain = CompletableFuture.completedFuture(null);
-        for (Node handler : handlers) {
-            if (cancelRequested || controller.cancelRequested) {
-                break;
+            if (frame.nextHandlerIndex < frame.handlers.size()) {
+                Node handler = frame.handlers.get(frame.nextHandlerIndex++);
+                frame.currentHandler = handler;
+                setEventFunctionActive(handler, true);
+                schedule(handler);
+                return;
             }
-            chain = chain.thenCompose(ignored -> runEventHandler(handler, controller));
-        }
-        return chain.whenComplete((ignored, throwable) -> executingEvents.remove(eventName));
-    }
 
-    private CompletableFuture<Void> continueFromNode(Node currentNode, ChainController controller) {
-        if (cancelRequested || controller == null || controller.cancelRequested) {
-            return CompletableFuture.completedFuture(null);
+            frames.pop();
+            activeEvents.remove(frame.eventName);
+            advance(frame.callNode);
         }
 
-        int nextSocket = currentNode.consumeNextOutputSocket();
+        private void advance(Node currentNode) {
+            int nextSocket = stateFor(currentNode).consumeNextOutputSocket();
 
-        if (currentNode.hasAttachedActionNode()) {
-            Node attachedAction = currentNode.getAttachedActionNode();
-            NodeType type = currentNode.getType();
+            if (currentNode.hasAttachedActionNode()) {
+                Node attachedAction = currentNode.getAttachedActionNode();
+                NodeType type = currentNode.getType();
 
-            if (attachedAction != null) {
-                if (type == NodeType.CONTROL_FOREVER && nextSocket != Node.NO_OUTPUT) {
-                    return runChain(attachedAction, controller)
-                        .thenCompose(ignored -> {
-                            if (cancelRequested || controller.cancelRequested) {
-                                return CompletableFuture.completedFuture(null);
-                            }
-                            return runChain(currentNode, controller);
-                        });
+                if (attachedAction != null) {
+                    boolean loopsForever = type == NodeType.CONTROL_FOREVER && nextSocket != Node.NO_OUTPUT;
+                    boolean repeats = (type == NodeType.CONTROL_REPEAT || type == NodeType.CONTROL_REPEAT_UNTIL) && nextSocket == 0;
+                    if (loopsForever || repeats) {
+                        frames.push(new LoopFrame(currentNode));
+                        schedule(attachedAction);
+                        return;
+                    }
                 }
+            }
 
-                if ((type == NodeType.CONTROL_REPEAT || type == NodeType.CONTROL_REPEAT_UNTIL) && nextSocket == 0) {
-                    return runChain(attachedAction, controller)
-                        .thenCompose(ignored -> {
-                            if (cancelRequested || controller.cancelRequested) {
-                                return CompletableFuture.completedFuture(null);
-                            }
-                            return runChain(currentNode, controller);
-                        });
-                }
+            if (nextSocket == Node.NO_OUTPUT) {
+                unwind();
+                return;
+            }
+
+            Node nextNode = controller.plan.getSuccessor(currentNode, nextSocket);
+            if (nextNode == null && nextSocket > 0) {
+                nextNode = controller.plan.getSuccessor(currentNode, 0);
+            }
+            if (nextNode != null) {
+                schedule(nextNode);
+            } else {
+                unwind();
             }
         }
 
-        if (nextSocket == Node.NO_OUTPUT) {
-            return CompletableFuture.completedFuture(null);
+        /**
+         * The current body reached its end; resume whatever is waiting on it.
+         */
+        private void unwind() {
+            Frame frame = frames.peek();
+            if (frame == null) {
+                finish(null);
+                return;
+            }
+
+            if (frame instanceof LoopFrame loopFrame) {
+                frames.pop();
+                // Re-run the loop node so it can decide whether to iterate again
+                schedule(loopFrame.loopNode);
+            } else if (frame instanceof EventCallFrame eventFrame) {
+                runNextHandler(eventFrame);
+            }
         }
 
-        Node nextNode = getNextConnectedNode(currentNode, activeConnections, nextSocket);
-        if (nextNode == null && nextSocket > 0) {
-            nextNode = getNextConnectedNode(currentNode, activeConnections, 0);
+        private void finish(Throwable throwable) {
+            if (completion.isDone()) {
+                return;
+            }
+
+            while (!frames.isEmpty()) {
+                Frame frame = frames.pop();
+                if (frame instanceof EventCallFrame eventFrame) {
+                    if (eventFrame.currentHandler != null) {
+                        setEventFunctionActive(eventFrame.currentHandler, false);
+                    }
+                    activeEvents.remove(eventFrame.eventName);
+                }
+            }
+
+            if (throwable != null) {
+                completion.completeExceptionally(throwable);
+            } else {
+                completion.complete(null);
+            }
         }
-        if (nextNode != null) {
-            return runChain(nextNode, controller);
+    }
+
+    private static boolean isPreemption(Throwable throwable) {
+        Throwable cause = throwable;
+        while (cause instanceof CompletionException && cause.getCause() != null) {
+            cause = cause.getCause();
         }
-        return CompletableFuture.completedFuture(null);
+        return cause instanceof ChainPreemptedException;
+    }
+
+    private interface Frame {
     }
 
-    private CompletableFuture<Void> runEventHandler(Node handler, ChainController controller) {
-        if (handler == null) {
-            return CompletableFuture.completedFuture(null);
+    private static final class LoopFrame implements Frame {
+        final Node loopNode;
+
+        LoopFrame(Node loopNode) {
+            this.loopNode = loopNode;
         }
+    }
 
-        setEventFunctionActive(handler, true);
-        return runChain(handler, controller).whenComplete((ignored, throwable) -> setEventFunctionActive(handler, false));
+    private static final class EventCallFrame implements Frame {
+        final Node callNode;
+        final String eventName;
+        final List<Node> handlers;
+        int nextHandlerIndex;
+        Node currentHandler;
+
+        EventCallFrame(Node callNode, String eventName, List<Node> handlers) {
+            this.callNode = callNode;
+            this.eventName = eventName;
+            this.handlers = handlers;
+            this.nextHandlerIndex = 0;
+            this.currentHandler = null;
+        }
     }
 
     private void handleChainCompletion(ChainController controller, Throwable throwable) {
@@ -598,16 +1017,19 @@ public class ExecutionManager {
             throwable.printStackTrace();
         }
 
-        activeChains.remove(controller.startNode);
+        if (!activeChains.remove(controller.startNode, controller)) {
+            // Already replaced by a newer chain for the same START node, or dropped by a global stop
+            return;
+        }
+        if (!isPlanRunning(controller.plan)) {
+            cancelTriggerSubscriptions(controller.plan);
+        }
 
         if (activeChains.isEmpty() && isExecuting) {
             stopExecution();
-            activeNodes.clear();
-            activeConnections.clear();
-            activeConnectionLookup.clear();
-            executingEvents.clear();
-            eventConnectionOwners.clear();
+            activePlan = ExecutionPlan.EMPTY;
             activeEventFunctionNodes.clear();
+            cancelTriggerSubscriptions();
         }
     }
 
@@ -616,132 +1038,49 @@ public class ExecutionManager {
             return false;
         }
 
-        Map<String, Node> nodeMap = new HashMap<>();
-        List<Node> nodes = new ArrayList<>();
-
-        for (NodeGraphData.NodeData nodeData : graphData.getNodes()) {
-            Node node = new Node(nodeData.getType(), nodeData.getX(), nodeData.getY());
-
-            try {
-                java.lang.reflect.Field idField = Node.class.getDeclaredField("id");
-                idField.setAccessible(true);
-                idField.set(node, nodeData.getId());
-            } catch (Exception e) {
-                System.err.println("ExecutionManager: Failed to set node ID during replay - " + e.getMessage());
-            }
-
-            if (nodeData.getMode() != null) {
-                node.setMode(nodeData.getMode());
-            }
-
-            node.getParameters().clear();
-            if (nodeData.getParameters() != null) {
-                for (NodeGraphData.ParameterData paramData : nodeData.getParameters()) {
-                    ParameterType paramType = ParameterType.valueOf(paramData.getType());
-                    NodeParameter param = new NodeParameter(paramData.getName(), paramType, paramData.getValue());
-                    node.getParameters().add(param);
-                }
-            }
-            node.recalculateDimensions();
-
-            nodes.add(node);
-            nodeMap.put(nodeData.getId(), node);
-        }
-
-        for (NodeGraphData.NodeData nodeData : graphData.getNodes()) {
-            if (nodeData.getAttachedSensorId() != null) {
-                Node control = nodeMap.get(nodeData.getId());
-                Node sensor = nodeMap.get(nodeData.getAttachedSensorId());
-                if (control != null && sensor != null) {
-                    control.attachSensor(sensor);
-                }
+        // Runtime state lives in per-chain frames, so a snapshot only needs to be materialized once
+        ExecutionPlan cachedPlan = materializedPlans.get(graphData);
+        if (cachedPlan != null) {
+            if (cachedPlan.size() == 0) {
+                return false;
             }
+            startPlan(cachedPlan, graphData, markGlobalSnapshot);
+            return true;
         }
 
-        for (NodeGraphData.NodeData nodeData : graphData.getNodes()) {
-            if (nodeData.getParentControlId() != null) {
-                Node sensor = nodeMap.get(nodeData.getId());
-                Node control = nodeMap.get(nodeData.getParentControlId());
-                if (sensor != null && control != null && sensor.isSensorNode()) {
-                    control.attachSensor(sensor);
-                }
-            }
-        }
+        NodeGraphMaterializer.Result materialized = NodeGraphMaterializer.materialize(graphData);
+        List<Node> nodes = materialized.nodes();
+        List<NodeConnection> connections = materialized.connections();
 
-        for (NodeGraphData.NodeData nodeData : graphData.getNodes()) {
-            if (nodeData.getAttachedActionId() != null) {
-                Node control = nodeMap.get(nodeData.getId());
-                Node child = nodeMap.get(nodeData.getAttachedActionId());
-                if (control != null && child != null) {
-                    control.attachActionNode(child);
-                }
-            }
+        if (nodes.isEmpty()) {
+            return false;
         }
 
-        for (NodeGraphData.NodeData nodeData : graphData.getNodes()) {
-            if (nodeData.getParentActionControlId() != null) {
-                Node child = nodeMap.get(nodeData.getId());
-                Node control = nodeMap.get(nodeData.getParentActionControlId());
-                if (child != null && control != null && control.canAcceptActionNode(child)) {
-                    control.attachActionNode(child);
-                }
-            }
-        }
+        ExecutionPlan plan = ExecutionPlan.compile(nodes, filterConnections(connections));
+        materializedPlans.put(graphData, plan);
+        startPlan(plan, graphData, markGlobalSnapshot);
+        return true;
+    }
 
-        for (NodeGraphData.NodeData nodeData : graphData.getNodes()) {
-            List<NodeGraphData.ParameterAttachmentData> attachments = nodeData.getParameterAttachments();
-            if (attachments != null && !attachments.isEmpty()) {
-                Node host = nodeMap.get(nodeData.getId());
-                if (host != null) {
-                    attachments.sort(java.util.Comparator.comparingInt(NodeGraphData.ParameterAttachmentData::getSlotIndex));
-                    for (NodeGraphData.ParameterAttachmentData attachment : attachments) {
-                        Node parameter = nodeMap.get(attachment.getParameterNodeId());
-                        if (parameter != null) {
-                            host.attachParameter(parameter, attachment.getSlotIndex());
-                        }
-                    }
-                }
-            } else if (nodeData.getAttachedParameterId() != null) {
-                Node host = nodeMap.get(nodeData.getId());
-                Node parameter = nodeMap.get(nodeData.getAttachedParameterId());
-                if (host != null && parameter != null) {
-                    host.attachParameter(parameter);
-                }
-            }
+    /**
+     * Called by the editor after a node's parameters were edited. Renaming an EVENT_FUNCTION
+     * while the graph runs refreshes the handler index of every plan that contains it.
+     */
+    public void onNodeParametersChanged(Node node) {
+        if (node == null || node.getType() != NodeType.EVENT_FUNCTION) {
+            return;
         }
 
-        for (NodeGraphData.NodeData nodeData : graphData.getNodes()) {
-            List<NodeGraphData.ParameterAttachmentData> attachments = nodeData.getParameterAttachments();
-            if (attachments != null && !attachments.isEmpty()) {
-                continue;
-            }
-            if (nodeData.getParentParameterHostId() != null) {
-                Node parameter = nodeMap.get(nodeData.getId());
-                Node host = nodeMap.get(nodeData.getParentParameterHostId());
-                if (parameter != null && host != null && parameter.isParameterNode()) {
-                    host.attachParameter(parameter);
-                }
-            }
+        Set<ExecutionPlan> plans = Collections.newSetFromMap(new IdentityHashMap<>());
+        plans.add(activePlan);
+        for (ChainController controller : activeChains.values()) {
+            plans.add(controller.plan);
         }
-
-        List<NodeConnection> connections = new ArrayList<>();
-        for (NodeGraphData.ConnectionData connData : graphData.getConnections()) {
-            Node outputNode = nodeMap.get(connData.getOutputNodeId());
-            Node inputNode = nodeMap.get(connData.getInputNodeId());
-            if (outputNode != null && inputNode != null) {
-                if (outputNode.isSensorNode() || inputNode.isSensorNode()) {
-                    continue;
-                }
-                connections.add(new NodeConnection(outputNode, inputNode, connData.getOutputSocket(), connData.getInputSocket()));
+        for (ExecutionPlan plan : plans) {
+            if (plan.containsEventFunction(node)) {
+                plan.refreshEventHandlers();
             }
         }
-
-        if (nodes.isEmpty()) {
-            return false;
-        }
-
-        executeGraphInternal(nodes, connections, markGlobalSnapshot);
-        return true;
     }
 
     public boolean shouldAnimateConnection(NodeConnection connection) {
@@ -749,89 +1088,18 @@ public class ExecutionManager {
             return false;
         }
 
-        ConnectionKey key = toKey(connection);
+        ExecutionPlan.ConnectionKey key = ExecutionPlan.ConnectionKey.of(connection);
         if (key == null) {
             return false;
         }
 
-        Node owner = eventConnectionOwners.get(key);
+        ExecutionPlan plan = activePlan;
+        Node owner = plan.getEventConnectionOwner(key);
         if (owner != null) {
             return activeEventFunctionNodes.contains(owner);
         }
 
-        return activeConnectionLookup.contains(key);
-    }
-
-    private String normalizeEventName(String value) {
-        if (value == null) {
-            return "";
-        }
-        String trimmed = value.trim();
-        if (trimmed.isEmpty()) {
-            return "";
-        }
-        return trimmed.toLowerCase(Locale.ROOT);
-    }
-
-    private Node getNextConnectedNode(Node currentNode, List<NodeConnection> connections, int outputSocket) {
-        for (NodeConnection connection : connections) {
-            if (connection.getOutputNode() == currentNode) {
-                if (connection.getOutputSocket() == outputSocket) {
-                    return connection.getInputNode();
-                }
-            }
-        }
-        return null;
-    }
-
-    private List<Node> findStartNodes(List<Node> nodes) {
-        List<Node> startNodes = new ArrayList<>();
-        if (nodes == null) {
-            return startNodes;
-        }
-
-        for (Node node : nodes) {
-            if (node.getType() == NodeType.START) {
-                startNodes.add(node);
-            }
-        }
-
-        return startNodes;
-    }
-
-    private Set<Node> collectBranchNodes(Node startNode, List<NodeConnection> connections) {
-        LinkedHashSet<Node> visited = new LinkedHashSet<>();
-        if (startNode == null) {
-            return visited;
-        }
-
-        ArrayDeque<Node> stack = new ArrayDeque<>();
-        stack.push(startNode);
-
-        while (!stack.isEmpty()) {
-            Node current = stack.pop();
-            if (!visited.add(current)) {
-                continue;
-            }
-
-            Node attachedSensor = current.getAttachedSensor();
-            if (attachedSensor != null) {
-                stack.push(attachedSensor);
-            }
-
-            Node attachedAction = current.getAttachedActionNode();
-            if (attachedAction != null) {
-                stack.push(attachedAction);
-            }
-
-            for (NodeConnection connection : connections) {
-                if (connection.getOutputNode() == current) {
-                    stack.push(connection.getInputNode());
-                }
-            }
-        }
-
-        return visited;
+        return plan.containsConnection(key);
     }
 
     private NodeGraphData createGraphSnapshot(List<Node> nodes, List<NodeConnection> connections) {
@@ -902,45 +1170,6 @@ public class ExecutionManager {
         return filtered;
     }
 
-    private void rebuildConnectionState(List<Node> nodes, List<NodeConnection> connections) {
-        activeConnectionLookup.clear();
-        eventConnectionOwners.clear();
-        activeEventFunctionNodes.clear();
-
-        if (connections != null) {
-            for (NodeConnection connection : connections) {
-                ConnectionKey key = toKey(connection);
-                if (key != null) {
-                    activeConnectionLookup.add(key);
-                }
-            }
-        }
-
-        if (nodes == null || connections == null) {
-            return;
-        }
-
-        for (Node node : nodes) {
-            if (node.getType() != NodeType.EVENT_FUNCTION) {
-                continue;
-            }
-
-            Set<Node> scopeNodes = collectBranchNodes(node, connections);
-            if (scopeNodes.isEmpty()) {
-                continue;
-            }
-
-            for (NodeConnection connection : connections) {
-                if (scopeNodes.contains(connection.getOutputNode()) && scopeNodes.contains(connection.getInputNode())) {
-                    ConnectionKey key = toKey(connection);
-                    if (key != null) {
-                        eventConnectionOwners.put(key, node);
-                    }
-                }
-            }
-        }
-    }
-
     private void setEventFunctionActive(Node handler, boolean active) {
         if (handler == null || handler.getType() != NodeType.EVENT_FUNCTION) {
             return;
@@ -952,18 +1181,4 @@ public class ExecutionManager {
             activeEventFunctionNodes.remove(handler);
         }
     }
-
-    private ConnectionKey toKey(NodeConnection connection) {
-        if (connection == null) {
-            return null;
-        }
-
-        Node output = connection.getOutputNode();
-        Node input = connection.getInputNode();
-        if (output == null || input == null) {
-            return null;
-        }
-
-        return new ConnectionKey(output.getId(), connection.getOutputSocket(), input.getId(), connection.getInputSocket());
-    }
 }
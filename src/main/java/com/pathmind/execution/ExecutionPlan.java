@@ -0,0 +1,385 @@
+package com.pathmind.execution;
+
+import com.pathmind.nodes.Node;
+import com.pathmind.nodes.NodeConnection;
+import com.pathmind.nodes.NodeParameter;
+import com.pathmind.nodes.NodeRuntimeState;
+import com.pathmind.nodes.NodeType;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * Index-based view of a node graph compiled once when execution starts.
+ * Nodes are addressed by int index, each node keeps a per-socket successor array and
+ * the connection scopes of every EVENT_FUNCTION are resolved up front, so the runtime
+ * never has to scan the connection list while walking a chain.
+ * EVENT_FUNCTION handlers are indexed by their normalized name; that index is the one
+ * mutable part of a plan and is rebuilt through {@link #refreshEventHandlers()} when a
+ * handler is renamed while the graph is running.
+ */
+final class ExecutionPlan {
+    static final int NO_NODE = -1;
+    static final ExecutionPlan EMPTY = compile(Collections.emptyList(), Collections.emptyList());
+
+    private final Node[] nodes;
+    private final Map<Node, Integer> indexByNode;
+    private final int[][] successors;
+    private final int[][] reachable;
+    private final List<NodeConnection> connections;
+    private final Set<ConnectionKey> connectionKeys;
+    private final Map<ConnectionKey, Node> eventConnectionOwners;
+    private final List<Node> startNodes;
+    private final List<Node> eventFunctionNodes;
+    private final List<Node> triggerNodes;
+    private volatile Map<String, List<Node>> eventHandlersByName;
+
+    static final class ConnectionKey {
+        private final String outputNodeId;
+        private final int outputSocket;
+        private final String inputNodeId;
+        private final int inputSocket;
+
+        ConnectionKey(String outputNodeId, int outputSocket, String inputNodeId, int inputSocket) {
+            this.outputNodeId = outputNodeId;
+            this.outputSocket = outputSocket;
+            this.inputNodeId = inputNodeId;
+            this.inputSocket = inputSocket;
+        }
+
+        static ConnectionKey of(NodeConnection connection) {
+            if (connection == null) {
+                return null;
+            }
+            Node output = connection.getOutputNode();
+            Node input = connection.getInputNode();
+            if (output == null || input == null) {
+                return null;
+            }
+            return new ConnectionKey(output.getId(), connection.getOutputSocket(), input.getId(), connection.getInputSocket());
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj) {
+                return true;
+            }
+            if (!(obj instanceof ConnectionKey)) {
+                return false;
+            }
+            ConnectionKey other = (ConnectionKey) obj;
+            return outputSocket == other.outputSocket
+                    && inputSocket == other.inputSocket
+                    && Objects.equals(outputNodeId, other.outputNodeId)
+                    && Objects.equals(inputNodeId, other.inputNodeId);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(outputNodeId, outputSocket, inputNodeId, inputSocket);
+        }
+    }
+
+    private ExecutionPlan(Node[] nodes, Map<Node, Integer> indexByNode, int[][] successors, int[][] reachable,
+                          List<NodeConnection> connections, Set<ConnectionKey> connectionKeys,
+                          Map<ConnectionKey, Node> eventConnectionOwners, List<Node> startNodes,
+                          List<Node> eventFunctionNodes, List<Node> triggerNodes) {
+        this.nodes = nodes;
+        this.indexByNode = indexByNode;
+        this.successors = successors;
+        this.reachable = reachable;
+        this.connections = connections;
+        this.connectionKeys = connectionKeys;
+        this.eventConnectionOwners = eventConnectionOwners;
+        this.startNodes = startNodes;
+        this.eventFunctionNodes = eventFunctionNodes;
+        this.triggerNodes = triggerNodes;
+        this.eventHandlersByName = indexEventHandlers(eventFunctionNodes);
+    }
+
+    /**
+     * Compile the given graph. Connections are expected to be pre-filtered (no sensor sockets,
+     * valid output socket indices); when several connections leave the same socket the first
+     * one in list order wins, matching the editor's ordering.
+     */
+    static ExecutionPlan compile(List<Node> graphNodes, List<NodeConnection> graphConnections) {
+        List<Node> ordered = new ArrayList<>(graphNodes.size());
+        Map<Node, Integer> indexByNode = new IdentityHashMap<>(graphNodes.size() * 2);
+        for (Node node : graphNodes) {
+            addNode(node, ordered, indexByNode);
+        }
+        // Attached sensors and actions run as part of their host even when the caller did not list them
+        for (int i = 0; i < ordered.size(); i++) {
+            Node node = ordered.get(i);
+            addNode(node.getAttachedSensor(), ordered, indexByNode);
+            addNode(node.getAttachedActionNode(), ordered, indexByNode);
+        }
+
+        int nodeCount = ordered.size();
+        Node[] nodes = ordered.toArray(new Node[0]);
+        int[][] successors = new int[nodeCount][];
+        for (int i = 0; i < nodeCount; i++) {
+            int[] sockets = new int[Math.max(0, nodes[i].getOutputSocketCount())];
+            Arrays.fill(sockets, NO_NODE);
+            successors[i] = sockets;
+        }
+
+        List<NodeConnection> connections = new ArrayList<>(graphConnections.size());
+        Set<ConnectionKey> connectionKeys = new HashSet<>(graphConnections.size() * 2);
+        int[] outgoingCounts = new int[nodeCount];
+        int[][] outgoingConnections = new int[nodeCount][];
+        List<int[]> edges = new ArrayList<>(graphConnections.size());
+
+        for (NodeConnection connection : graphConnections) {
+            Integer from = indexByNode.get(connection.getOutputNode());
+            Integer to = indexByNode.get(connection.getInputNode());
+            if (from == null || to == null) {
+                continue;
+            }
+            int connectionIndex = connections.size();
+            connections.add(connection);
+            ConnectionKey key = ConnectionKey.of(connection);
+            if (key != null) {
+                connectionKeys.add(key);
+            }
+            int socket = connection.getOutputSocket();
+            int[] sockets = successors[from];
+            if (socket >= 0 && socket < sockets.length && sockets[socket] == NO_NODE) {
+                sockets[socket] = to;
+            }
+            edges.add(new int[]{from, to, connectionIndex});
+            outgoingCounts[from]++;
+        }
+
+        for (int i = 0; i < nodeCount; i++) {
+            outgoingConnections[i] = new int[outgoingCounts[i]];
+            outgoingCounts[i] = 0;
+        }
+        for (int[] edge : edges) {
+            outgoingConnections[edge[0]][outgoingCounts[edge[0]]++] = edge[2];
+        }
+
+        int[][] reachable = new int[nodeCount][];
+        for (int i = 0; i < nodeCount; i++) {
+            Node node = nodes[i];
+            int[] outgoing = outgoingConnections[i];
+            int extra = (node.getAttachedSensor() != null ? 1 : 0) + (node.getAttachedActionNode() != null ? 1 : 0);
+            int[] targets = new int[outgoing.length + extra];
+            int cursor = 0;
+            if (node.getAttachedSensor() != null) {
+                targets[cursor++] = indexByNode.get(node.getAttachedSensor());
+            }
+            if (node.getAttachedActionNode() != null) {
+                targets[cursor++] = indexByNode.get(node.getAttachedActionNode());
+            }
+            for (int connectionIndex : outgoing) {
+                targets[cursor++] = indexByNode.get(connections.get(connectionIndex).getInputNode());
+            }
+            reachable[i] = targets;
+        }
+
+        List<Node> startNodes = new ArrayList<>();
+        List<Node> eventFunctionNodes = new ArrayList<>();
+        List<Node> triggerNodes = new ArrayList<>();
+        Map<ConnectionKey, Node> eventConnectionOwners = new HashMap<>();
+        for (int i = 0; i < nodeCount; i++) {
+            Node node = nodes[i];
+            if (node.getType() == NodeType.START) {
+                startNodes.add(node);
+            } else if (Node.isTriggerType(node.getType())) {
+                triggerNodes.add(node);
+            } else if (node.getType() == NodeType.EVENT_FUNCTION) {
+                eventFunctionNodes.add(node);
+                boolean[] scope = collectReachable(i, reachable, nodeCount);
+                for (int member = 0; member < nodeCount; member++) {
+                    if (!scope[member]) {
+                        continue;
+                    }
+                    for (int connectionIndex : outgoingConnections[member]) {
+                        NodeConnection connection = connections.get(connectionIndex);
+                        if (scope[indexByNode.get(connection.getInputNode())]) {
+                            ConnectionKey key = ConnectionKey.of(connection);
+                            if (key != null) {
+                                eventConnectionOwners.put(key, node);
+                            }
+                        }
+                    }
+                }
+            }
+        }
+
+        return new ExecutionPlan(nodes, indexByNode, successors, reachable,
+            Collections.unmodifiableList(connections), Collections.unmodifiableSet(connectionKeys),
+            Collections.unmodifiableMap(eventConnectionOwners), Collections.unmodifiableList(startNodes),
+            Collections.unmodifiableList(eventFunctionNodes), Collections.unmodifiableList(triggerNodes));
+    }
+
+    private static void addNode(Node node, List<Node> ordered, Map<Node, Integer> indexByNode) {
+        if (node == null || indexByNode.containsKey(node)) {
+            return;
+        }
+        indexByNode.put(node, ordered.size());
+        ordered.add(node);
+    }
+
+    private static Map<String, List<Node>> indexEventHandlers(List<Node> eventFunctionNodes) {
+        if (eventFunctionNodes.isEmpty()) {
+            return Collections.emptyMap();
+        }
+        Map<String, List<Node>> index = new HashMap<>();
+        for (Node handler : eventFunctionNodes) {
+            NodeParameter nameParam = handler.getParameter("Name");
+            String name = normalizeEventName(nameParam != null ? nameParam.getStringValue() : null);
+            if (!name.isEmpty()) {
+                index.computeIfAbsent(name, ignored -> new ArrayList<>(1)).add(handler);
+            }
+        }
+        for (Map.Entry<String, List<Node>> entry : index.entrySet()) {
+            entry.setValue(Collections.unmodifiableList(entry.getValue()));
+        }
+        return index;
+    }
+
+    static String normalizeEventName(String value) {
+        if (value == null) {
+            return "";
+        }
+        String trimmed = value.trim();
+        if (trimmed.isEmpty()) {
+            return "";
+        }
+        return trimmed.toLowerCase(Locale.ROOT);
+    }
+
+    private static boolean[] collectReachable(int startIndex, int[][] reachable, int nodeCount) {
+        boolean[] visited = new boolean[nodeCount];
+        int[] stack = new int[Math.max(1, nodeCount)];
+        int size = 0;
+        stack[size++] = startIndex;
+        visited[startIndex] = true;
+        while (size > 0) {
+            int current = stack[--size];
+            for (int next : reachable[current]) {
+                if (!visited[next]) {
+                    visited[next] = true;
+                    stack[size++] = next;
+                }
+            }
+        }
+        return visited;
+    }
+
+    int size() {
+        return nodes.length;
+    }
+
+    int indexOf(Node node) {
+        Integer index = node != null ? indexByNode.get(node) : null;
+        return index != null ? index : NO_NODE;
+    }
+
+    Node getNode(int index) {
+        return index >= 0 && index < nodes.length ? nodes[index] : null;
+    }
+
+    List<Node> getNodes() {
+        return Collections.unmodifiableList(Arrays.asList(nodes));
+    }
+
+    List<NodeConnection> getConnections() {
+        return connections;
+    }
+
+    List<Node> getStartNodes() {
+        return startNodes;
+    }
+
+    List<Node> getEventFunctionNodes() {
+        return eventFunctionNodes;
+    }
+
+    /**
+     * Nodes that call a function when something happens (see {@link Node#isTriggerType}), in graph order.
+     */
+    List<Node> getTriggerNodes() {
+        return triggerNodes;
+    }
+
+    /**
+     * Handlers registered for the given normalized event name, in graph order.
+     */
+    List<Node> getEventHandlers(String normalizedName) {
+        List<Node> handlers = eventHandlersByName.get(normalizedName);
+        return handlers != null ? handlers : Collections.emptyList();
+    }
+
+    boolean containsEventFunction(Node node) {
+        return node != null && node.getType() == NodeType.EVENT_FUNCTION && indexByNode.containsKey(node);
+    }
+
+    /**
+     * Re-read the handler names after an EVENT_FUNCTION in this plan was edited.
+     */
+    void refreshEventHandlers() {
+        this.eventHandlersByName = indexEventHandlers(eventFunctionNodes);
+    }
+
+    /**
+     * Allocate the runtime frame for one chain walking this plan: one state slot per node index,
+     * filled lazily, so the plan itself stays immutable and can be shared by any number of chains.
+     */
+    NodeRuntimeState[] newRuntimeFrame() {
+        return new NodeRuntimeState[nodes.length];
+    }
+
+    /**
+     * Resolve the node connected to the given output socket, or {@code null} when the socket is unconnected.
+     */
+    Node getSuccessor(Node node, int outputSocket) {
+        int index = indexOf(node);
+        if (index == NO_NODE) {
+            return null;
+        }
+        int[] sockets = successors[index];
+        if (outputSocket < 0 || outputSocket >= sockets.length) {
+            return null;
+        }
+        return getNode(sockets[outputSocket]);
+    }
+
+    /**
+     * Collect every node reachable from {@code start} through connections, attached sensors and attached actions.
+     */
+    Set<Node> collectReachable(Node start) {
+        LinkedHashSet<Node> result = new LinkedHashSet<>();
+        int startIndex = indexOf(start);
+        if (startIndex == NO_NODE) {
+            return result;
+        }
+        boolean[] visited = collectReachable(startIndex, reachable, nodes.length);
+        for (int i = 0; i < nodes.length; i++) {
+            if (visited[i]) {
+                result.add(nodes[i]);
+            }
+        }
+        return result;
+    }
+
+    boolean containsConnection(ConnectionKey key) {
+        return key != null && connectionKeys.contains(key);
+    }
+
+    Node getEventConnectionOwner(ConnectionKey key) {
+        return key != null ? eventConnectionOwners.get(key) : null;
+    }
+}
@@ -0,0 +1,125 @@
+package com.pathmind.execution;
+
+import java.util.PriorityQueue;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Tick-driven scheduler for node execution.
+ * Tasks are queued with a delay measured in client ticks and run on the client thread
+ * at the end of the tick in which they become due, so chains advance in lockstep with the game.
+ */
+public class ExecutionScheduler {
+    public static final int TICKS_PER_SECOND = 20;
+
+    private static ExecutionScheduler instance;
+
+    private final Queue<ScheduledTask> incomingTasks;
+    private final PriorityQueue<ScheduledTask> scheduledTasks;
+    private final AtomicLong sequence;
+    private volatile long currentTick;
+
+    private static final class ScheduledTask implements Comparable<ScheduledTask> {
+        private final long dueTick;
+        private final long sequence;
+        private final Runnable task;
+
+        ScheduledTask(long dueTick, long sequence, Runnable task) {
+            this.dueTick = dueTick;
+            this.sequence = sequence;
+            this.task = task;
+        }
+
+        @Override
+        public int compareTo(ScheduledTask other) {
+            int byTick = Long.compare(dueTick, other.dueTick);
+            return byTick != 0 ? byTick : Long.compare(sequence, other.sequence);
+        }
+    }
+
+    private ExecutionScheduler() {
+        this.incomingTasks = new ConcurrentLinkedQueue<>();
+        this.scheduledTasks = new PriorityQueue<>();
+        this.sequence = new AtomicLong();
+        this.currentTick = 0L;
+    }
+
+    public static ExecutionScheduler getInstance() {
+        if (instance == null) {
+            instance = new ExecutionScheduler();
+        }
+        return instance;
+    }
+
+    /**
+     * Advance the scheduler by one tick and run every task that is due.
+     * Must be called from the client thread, once per {@code END_CLIENT_TICK}.
+     */
+    public void tick() {
+        currentTick++;
+        drainIncomingTasks();
+
+        while (!scheduledTasks.isEmpty() && scheduledTasks.peek().dueTick <= currentTick) {
+            ScheduledTask next = scheduledTasks.poll();
+            try {
+                next.task.run();
+            } catch (Exception e) {
+                System.err.println("ExecutionScheduler: Scheduled task failed - " + e.getMessage());
+                e.printStackTrace();
+            }
+            // Zero-delay tasks queued by the task we just ran still belong to this tick
+            drainIncomingTasks();
+        }
+    }
+
+    /**
+     * Tasks queued and not run yet.
+     */
+    int getPendingTaskCount() {
+        return incomingTasks.size() + scheduledTasks.size();
+    }
+
+    /**
+     * Run a task on the client thread after the given number of ticks.
+     * A delay of zero runs the task during the current (or next, if called outside a tick) tick pass.
+     */
+    public void runAfterTicks(int ticks, Runnable task) {
+        if (task == null) {
+            return;
+        }
+        long dueTick = currentTick + Math.max(0, ticks);
+        incomingTasks.add(new ScheduledTask(dueTick, sequence.getAndIncrement(), task));
+    }
+
+    /**
+     * Returns a future that completes on the client thread after the given number of ticks.
+     */
+    public CompletableFuture<Void> delay(int ticks) {
+        CompletableFuture<Void> future = new CompletableFuture<>();
+        runAfterTicks(ticks, () -> future.complete(null));
+        return future;
+    }
+
+    public long getCurrentTick() {
+        return currentTick;
+    }
+
+    /**
+     * Convert a duration in seconds to whole client ticks, rounding to the nearest tick.
+     */
+    public static int secondsToTicks(double seconds) {
+        if (seconds <= 0.0) {
+            return 0;
+        }
+        return (int) Math.min(Integer.MAX_VALUE, Math.round(seconds * TICKS_PER_SECOND));
+    }
+
+    private void drainIncomingTasks() {
+        ScheduledTask task;
+        while ((task = incomingTasks.poll()) != null) {
+            scheduledTasks.add(task);
+        }
+    }
+}
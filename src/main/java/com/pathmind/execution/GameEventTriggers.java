@@ -0,0 +1,206 @@
+package com.pathmind.execution;
+
+import com.pathmind.nodes.Node;
+import com.pathmind.nodes.NodeParameter;
+import com.pathmind.nodes.NodeType;
+import net.fabricmc.fabric.api.client.event.lifecycle.v1.ClientWorldEvents;
+import net.fabricmc.fabric.api.client.message.v1.ClientReceiveMessageEvents;
+import net.fabricmc.fabric.api.client.networking.v1.ClientPlayConnectionEvents;
+import net.fabricmc.fabric.api.client.screen.v1.ScreenEvents;
+import net.fabricmc.fabric.api.event.client.player.ClientPlayerBlockBreakEvents;
+import net.minecraft.block.BlockState;
+import net.minecraft.client.gui.screen.Screen;
+import net.minecraft.client.world.ClientWorld;
+import net.minecraft.registry.Registries;
+import net.minecraft.registry.RegistryKey;
+import net.minecraft.text.Text;
+import net.minecraft.util.Identifier;
+import net.minecraft.world.World;
+
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
+
+/**
+ * Turns client game events into trigger-node calls.
+ * Fabric callbacks (and the damage / inventory mixins) report what happened; every matching
+ * trigger node of the running plan then starts its function through {@link ExecutionManager}.
+ * Nothing here polls: a graph that never uses a trigger node costs one empty lookup per event.
+ */
+public final class GameEventTriggers {
+    private static final int MAX_CACHED_PATTERNS = 128;
+
+    private static GameEventTriggers instance;
+
+    private final Map<String, Pattern> chatPatterns;
+    private RegistryKey<World> lastDimension;
+    private Screen lastScreen;
+    private boolean inventoryChangePending;
+
+    private GameEventTriggers() {
+        this.chatPatterns = new ConcurrentHashMap<>();
+        this.inventoryChangePending = false;
+    }
+
+    public static GameEventTriggers getInstance() {
+        if (instance == null) {
+            instance = new GameEventTriggers();
+        }
+        return instance;
+    }
+
+    /**
+     * Hook the Fabric callbacks. Damage and inventory updates are forwarded by mixins.
+     */
+    public static void register() {
+        GameEventTriggers triggers = getInstance();
+        ClientReceiveMessageEvents.GAME.register((message, overlay) -> {
+            if (!overlay) {
+                triggers.onChatMessage(message);
+            }
+        });
+        ClientReceiveMessageEvents.CHAT.register((message, signedMessage, sender, params, receptionTimestamp) ->
+            triggers.onChatMessage(message));
+        ClientPlayerBlockBreakEvents.AFTER.register((world, player, pos, state) -> triggers.onBlockBroken(state));
+        ClientWorldEvents.AFTER_CLIENT_WORLD_CHANGE.register((client, world) -> triggers.onWorldChanged(world));
+        ScreenEvents.AFTER_INIT.register((client, screen, scaledWidth, scaledHeight) -> triggers.onScreenInit(screen));
+        // Joining another server is not a dimension change
+        ClientPlayConnectionEvents.DISCONNECT.register((handler, client) -> triggers.lastDimension = null);
+    }
+
+    private void onChatMessage(Text message) {
+        if (message == null) {
+            return;
+        }
+        String text = message.getString();
+        ExecutionManager.getInstance().fireTriggers(NodeType.EVENT_ON_CHAT,
+            trigger -> matchesChatPattern(getString(trigger, "Pattern"), text));
+    }
+
+    /**
+     * Called when the server lowers the player's health.
+     */
+    public void onDamageTaken(float amount) {
+        if (amount <= 0.0F) {
+            return;
+        }
+        ExecutionManager.getInstance().fireTriggers(NodeType.EVENT_ON_DAMAGE, trigger -> true);
+    }
+
+    /**
+     * Called for every slot or inventory update packet; updates arriving in the same tick fire once.
+     */
+    public void onInventoryChanged() {
+        if (inventoryChangePending) {
+            return;
+        }
+        inventoryChangePending = true;
+        ExecutionScheduler.getInstance().runAfterTicks(0, () -> {
+            inventoryChangePending = false;
+            ExecutionManager.getInstance().fireTriggers(NodeType.EVENT_ON_INVENTORY_CHANGE, trigger -> true);
+        });
+    }
+
+    private void onBlockBroken(BlockState state) {
+        if (state == null) {
+            return;
+        }
+        Identifier blockId = Registries.BLOCK.getId(state.getBlock());
+        ExecutionManager.getInstance().fireTriggers(NodeType.EVENT_ON_BLOCK_BROKEN,
+            trigger -> matchesIdList(getString(trigger, "Block"), blockId));
+    }
+
+    private void onWorldChanged(ClientWorld world) {
+        if (world == null) {
+            return;
+        }
+        RegistryKey<World> dimension = world.getRegistryKey();
+        RegistryKey<World> previous = lastDimension;
+        lastDimension = dimension;
+        if (previous == null || previous.equals(dimension)) {
+            return;
+        }
+        ExecutionManager.getInstance().fireTriggers(NodeType.EVENT_ON_DIMENSION_CHANGE,
+            trigger -> matchesIdList(getString(trigger, "Dimension"), dimension.getValue()));
+    }
+
+    private void onScreenInit(Screen screen) {
+        // Resizing re-runs init on the same screen; only a newly opened one counts
+        if (screen == null || screen == lastScreen) {
+            return;
+        }
+        lastScreen = screen;
+        if (screen.getClass().getName().startsWith("com.pathmind.")) {
+            return;
+        }
+        String title = screen.getTitle() != null ? screen.getTitle().getString() : "";
+        String className = screen.getClass().getSimpleName();
+        ExecutionManager.getInstance().fireTriggers(NodeType.EVENT_ON_SCREEN_OPEN,
+            trigger -> matchesScreen(getString(trigger, "Screen"), title, className));
+    }
+
+    private static String getString(Node trigger, String name) {
+        NodeParameter parameter = trigger.getParameter(name);
+        String value = parameter != null ? parameter.getStringValue() : null;
+        return value != null ? value.trim() : "";
+    }
+
+    /**
+     * An empty pattern matches every message. Invalid regular expressions are matched as plain text.
+     */
+    private boolean matchesChatPattern(String pattern, String message) {
+        if (pattern.isEmpty()) {
+            return true;
+        }
+        Pattern compiled = chatPatterns.get(pattern);
+        if (compiled == null) {
+            try {
+                compiled = Pattern.compile(pattern, Pattern.CASE_INSENSITIVE);
+            } catch (PatternSyntaxException e) {
+                compiled = Pattern.compile(Pattern.quote(pattern), Pattern.CASE_INSENSITIVE);
+            }
+            if (chatPatterns.size() >= MAX_CACHED_PATTERNS) {
+                chatPatterns.clear();
+            }
+            chatPatterns.put(pattern, compiled);
+        }
+        return compiled.matcher(message).find();
+    }
+
+    /**
+     * Comma separated ids; an empty filter matches everything and a bare path means {@code minecraft:}.
+     */
+    private static boolean matchesIdList(String filter, Identifier id) {
+        if (filter.isEmpty()) {
+            return true;
+        }
+        if (id == null) {
+            return false;
+        }
+        String target = id.toString();
+        for (String entry : filter.split(",")) {
+            String candidate = entry.trim().toLowerCase(Locale.ROOT);
+            if (candidate.isEmpty()) {
+                continue;
+            }
+            if (!candidate.contains(":")) {
+                candidate = "minecraft:" + candidate;
+            }
+            if (candidate.equals(target)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean matchesScreen(String filter, String title, String className) {
+        if (filter.isEmpty()) {
+            return true;
+        }
+        String needle = filter.toLowerCase(Locale.ROOT);
+        return title.toLowerCase(Locale.ROOT).contains(needle)
+            || className.toLowerCase(Locale.ROOT).contains(needle);
+    }
+}
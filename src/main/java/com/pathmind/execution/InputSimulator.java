@@ -0,0 +1,202 @@
+package com.pathmind.execution;
+
+import net.minecraft.client.MinecraftClient;
+import net.minecraft.client.option.GameOptions;
+import net.minecraft.client.option.KeyBinding;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
+
+/**
+ * Tick-aligned key simulation for movement and interaction nodes.
+ * Nodes queue presses measured in ticks instead of sleeping between {@code setPressed} calls; the
+ * simulator applies the merged key state at the start of every client tick, before the player reads
+ * its input, so a press of N ticks is seen by exactly N ticks of movement. Presses from parallel
+ * chains on the same key simply overlap: the key stays down while any of them (or a latch) holds it.
+ * Client thread only.
+ */
+public final class InputSimulator {
+    private static InputSimulator instance;
+
+    public enum Input {
+        JUMP(options -> options.jumpKey),
+        SNEAK(options -> options.sneakKey),
+        SPRINT(options -> options.sprintKey),
+        USE(options -> options.useKey);
+
+        private final Function<GameOptions, KeyBinding> keyBinding;
+
+        Input(Function<GameOptions, KeyBinding> keyBinding) {
+            this.keyBinding = keyBinding;
+        }
+
+        KeyBinding resolve(GameOptions options) {
+            return options != null ? keyBinding.apply(options) : null;
+        }
+    }
+
+    /**
+     * A queued key press. Timed presses end on their own; open-ended ones last until {@link #release()}.
+     */
+    public static final class Press {
+        private final Input input;
+        private final int durationTicks;
+        private final CompletableFuture<Void> released;
+        private int appliedTicks;
+        private boolean releaseRequested;
+
+        private Press(Input input, int durationTicks) {
+            this.input = input;
+            this.durationTicks = durationTicks;
+            this.released = new CompletableFuture<>();
+            this.appliedTicks = 0;
+            this.releaseRequested = false;
+        }
+
+        public Input getInput() {
+            return input;
+        }
+
+        /**
+         * Completes on the client thread at the start of the first tick the press no longer holds the key.
+         */
+        public CompletableFuture<Void> released() {
+            return released;
+        }
+
+        /**
+         * Let go of the key from the next tick on. A press that was never applied still completes.
+         */
+        public void release() {
+            releaseRequested = true;
+        }
+
+        private boolean isFinished() {
+            return releaseRequested || (durationTicks > 0 && appliedTicks >= durationTicks);
+        }
+    }
+
+    private final List<Press> presses;
+    private final Map<Input, Boolean> latched;
+    private final Map<Input, Boolean> applied;
+
+    private InputSimulator() {
+        this.presses = new ArrayList<>();
+        this.latched = new EnumMap<>(Input.class);
+        this.applied = new EnumMap<>(Input.class);
+    }
+
+    public static InputSimulator getInstance() {
+        if (instance == null) {
+            instance = new InputSimulator();
+        }
+        return instance;
+    }
+
+    /**
+     * Hold {@code input} for exactly {@code ticks} client ticks, starting with the next one.
+     * A non-positive duration holds the key until the press is released.
+     */
+    public Press press(Input input, int ticks) {
+        if (input == null) {
+            throw new IllegalArgumentException("Input is required");
+        }
+        Press press = new Press(input, Math.max(0, ticks));
+        presses.add(press);
+        return press;
+    }
+
+    /**
+     * Keep {@code input} down (or stop keeping it down) until told otherwise, independently of timed presses.
+     */
+    public void setLatched(Input input, boolean held) {
+        if (input == null) {
+            return;
+        }
+        if (held) {
+            latched.put(input, Boolean.TRUE);
+        } else {
+            latched.remove(input);
+        }
+    }
+
+    public boolean isLatched(Input input) {
+        return latched.containsKey(input);
+    }
+
+    /**
+     * Drop every press and latch and let go of the keys we were holding.
+     */
+    public void releaseAll() {
+        for (Press press : presses) {
+            press.release();
+        }
+        latched.clear();
+    }
+
+    /**
+     * Apply the merged key state for this tick. Called from {@code START_CLIENT_TICK}.
+     */
+    public void tick(MinecraftClient client) {
+        if (presses.isEmpty() && latched.isEmpty() && applied.isEmpty()) {
+            return;
+        }
+        boolean playerAvailable = client != null && client.player != null && client.options != null;
+        if (!playerAvailable) {
+            releaseAll();
+        }
+
+        List<Press> finished = null;
+        for (int i = presses.size() - 1; i >= 0; i--) {
+            Press press = presses.get(i);
+            if (press.isFinished()) {
+                presses.remove(i);
+                if (finished == null) {
+                    finished = new ArrayList<>();
+                }
+                finished.add(press);
+            }
+        }
+
+        EnumMap<Input, Boolean> wanted = new EnumMap<>(Input.class);
+        for (Input input : latched.keySet()) {
+            wanted.put(input, Boolean.TRUE);
+        }
+        for (Press press : presses) {
+            wanted.put(press.input, Boolean.TRUE);
+            press.appliedTicks++;
+        }
+
+        if (playerAvailable) {
+            for (Input input : Input.values()) {
+                boolean down = wanted.containsKey(input);
+                if (!down && !applied.containsKey(input)) {
+                    // Never touched by us; leave the player's own key state alone
+                    continue;
+                }
+                KeyBinding key = input.resolve(client.options);
+                if (key != null) {
+                    key.setPressed(down);
+                }
+                if (down) {
+                    applied.put(input, Boolean.TRUE);
+                } else {
+                    applied.remove(input);
+                }
+            }
+        } else {
+            applied.clear();
+        }
+
+        if (finished != null) {
+            // Complete oldest first so follow-up presses queue in order
+            for (int i = finished.size() - 1; i >= 0; i--) {
+                finished.get(i).released.complete(null);
+            }
+        }
+    }
+}
@@ -6,29 +6,23 @@ import baritone.api.behavior.IPathingBehavior;
 import baritone.api.process.ICustomGoalProcess;
 import baritone.api.process.IGetToBlockProcess;
 import baritone.api.process.IMineProcess;
-import baritone.api.process.IExploreProcess;
-import baritone.api.process.IFarmProcess;
-import baritone.api.process.IBaritoneProcess;
-import baritone.api.pathing.goals.Goal;
 import java.util.concurrent.CompletableFuture;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.Timer;
-import java.util.TimerTask;
-import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * Tracks Baritone processes precisely by monitoring their actual state changes.
  * This provides exact completion detection instead of timeouts or approximations.
+ * Every tracked task gets its own handle, and all pending tasks are checked in a single
+ * pass at the end of each client tick, so several chains can wait on Baritone at once.
  */
 public class PreciseCompletionTracker {
-    
+
     private static PreciseCompletionTracker instance;
-    private final Map<String, CompletableFuture<Void>> pendingTasks = new ConcurrentHashMap<>();
-    private final Map<String, ProcessState> processStates = new ConcurrentHashMap<>();
-    private final Map<String, Long> taskStartTimes = new ConcurrentHashMap<>();
-    private Timer monitoringTimer;
-    
+    private final Map<Long, TrackedTask> pendingTasks = new ConcurrentHashMap<>();
+    private final AtomicLong nextHandle = new AtomicLong(1L);
+
     // Task types
     public static final String TASK_GOTO = "goto";
     public static final String TASK_PATH = "path";
@@ -36,135 +30,144 @@ public class PreciseCompletionTracker {
     public static final String TASK_COLLECT = "collect";
     public static final String TASK_EXPLORE = "explore";
     public static final String TASK_FARM = "farm";
-    
+
+    public static final long NO_TASK = 0L;
+
     // Maximum monitoring duration (in milliseconds) - safety fallback
     private static final long MAX_MONITORING_DURATION = 300000; // 5 minutes
-    
+
     private enum ProcessState {
         STARTING,
         ACTIVE,
-        COMPLETING,
-        COMPLETED,
-        FAILED
+        COMPLETING
+    }
+
+    private static final class TrackedTask {
+        final long handle;
+        final String taskType;
+        final CompletableFuture<Void> future;
+        final long startTime;
+        ProcessState state;
+
+        TrackedTask(long handle, String taskType, CompletableFuture<Void> future) {
+            this.handle = handle;
+            this.taskType = taskType;
+            this.future = future;
+            this.startTime = System.currentTimeMillis();
+            this.state = ProcessState.STARTING;
+        }
+
+        String describe() {
+            return taskType + "#" + handle;
+        }
     }
 
     private PreciseCompletionTracker() {
-        this.monitoringTimer = new Timer("PreciseCompletionTimer", true);
     }
-    
+
     public static PreciseCompletionTracker getInstance() {
         if (instance == null) {
             instance = new PreciseCompletionTracker();
         }
         return instance;
     }
-    
+
     /**
-     * Start tracking a task with precise completion detection
+     * Start tracking a task with precise completion detection.
+     *
+     * @param taskType one of the {@code TASK_*} constants
+     * @param future   future to resolve once the Baritone process finishes
+     * @return a unique handle for this task
      */
-    public void startTrackingTask(String taskId, CompletableFuture<Void> future) {
-        pendingTasks.put(taskId, future);
-        processStates.put(taskId, ProcessState.STARTING);
-        taskStartTimes.put(taskId, System.currentTimeMillis());
-
-        System.out.println("PreciseCompletionTracker: Started tracking task: " + taskId);
+    public long startTrackingTask(String taskType, CompletableFuture<Void> future) {
+        if (future == null) {
+            return NO_TASK;
+        }
+        long handle = nextHandle.getAndIncrement();
+        TrackedTask task = new TrackedTask(handle, taskType, future);
+        pendingTasks.put(handle, task);
+        // Drop the entry as soon as the future is resolved elsewhere (e.g. chain cancelled)
+        future.whenComplete((ignored, throwable) -> pendingTasks.remove(handle, task));
 
-        // Start monitoring this specific task
-        startMonitoringTask(taskId);
+        System.out.println("PreciseCompletionTracker: Started tracking task: " + task.describe());
+        return handle;
     }
 
     /**
-     * Start monitoring a specific task
+     * Check every pending task once. Called from the client thread at the end of each tick,
+     * which is also where Baritone state is safe to read.
      */
-    private void startMonitoringTask(String taskId) {
-        // Schedule monitoring every 100ms for precise detection
-        TimerTask monitoringTask = new TimerTask() {
-            @Override
-            public void run() {
-                if (!pendingTasks.containsKey(taskId)) {
-                    this.cancel();
-                    return;
-                }
-                
-                try {
-                    if (checkTaskCompletion(taskId)) {
-                        this.cancel();
-                    }
-                } catch (Exception e) {
-                    System.err.println("Error monitoring task " + taskId + ": " + e.getMessage());
-                    completeTaskWithError(taskId, "Monitoring error: " + e.getMessage());
-                    this.cancel();
-                }
+    public void tick() {
+        if (pendingTasks.isEmpty()) {
+            return;
+        }
+
+        IBaritone baritone = getBaritone();
+        long now = System.currentTimeMillis();
+        for (TrackedTask task : pendingTasks.values()) {
+            if (task.future.isDone()) {
+                pendingTasks.remove(task.handle, task);
+                continue;
+            }
+
+            try {
+                checkTaskCompletion(baritone, task, now);
+            } catch (Exception e) {
+                System.err.println("Error monitoring task " + task.describe() + ": " + e.getMessage());
+                completeTaskWithError(task, "Monitoring error: " + e.getMessage());
             }
-        };
-        
-        monitoringTimer.schedule(monitoringTask, 100, 100); // Start in 100ms, repeat every 100ms
+        }
     }
-    
+
     /**
      * Check if a specific task has completed
      */
-    private boolean checkTaskCompletion(String taskId) {
-        IBaritone baritone = getBaritone();
+    private void checkTaskCompletion(IBaritone baritone, TrackedTask task, long now) {
         if (baritone == null) {
-            completeTaskWithError(taskId, "Baritone not available");
-            return true;
+            completeTaskWithError(task, "Baritone not available");
+            return;
         }
-        
+
         // Check for timeout
-        Long startTime = taskStartTimes.get(taskId);
-        if (startTime != null && System.currentTimeMillis() - startTime > MAX_MONITORING_DURATION) {
-            completeTaskWithError(taskId, "Task timed out after " + (MAX_MONITORING_DURATION / 1000) + " seconds");
-            return true;
-        }
-        
-        ProcessState currentState = processStates.get(taskId);
-        if (currentState == ProcessState.COMPLETED || currentState == ProcessState.FAILED) {
-            return true; // Already handled
+        if (now - task.startTime > MAX_MONITORING_DURATION) {
+            completeTaskWithError(task, "Task timed out after " + (MAX_MONITORING_DURATION / 1000) + " seconds");
+            return;
         }
-        
-        boolean completed = false;
-        ProcessState newState = currentState;
-        
-        switch (taskId) {
+
+        switch (task.taskType) {
             case TASK_GOTO:
             case TASK_PATH:
-                completed = checkPathingCompletion(baritone, taskId);
+                checkPathingCompletion(baritone, task);
                 break;
-                
+
             case TASK_GOAL:
-                completed = checkGoalCompletion(baritone, taskId);
+                // Goal setting is immediate, so complete right away
+                completeTask(task);
                 break;
-                
+
             case TASK_COLLECT:
-                completed = checkCollectCompletion(baritone, taskId);
+                checkCollectCompletion(baritone, task);
                 break;
-                
+
             case TASK_EXPLORE:
-                completed = checkExplorationCompletion(baritone, taskId);
+                checkProcessCompletion(task, baritone.getExploreProcess() != null && baritone.getExploreProcess().isActive());
                 break;
-                
+
             case TASK_FARM:
-                completed = checkFarmingCompletion(baritone, taskId);
+                checkProcessCompletion(task, baritone.getFarmProcess() != null && baritone.getFarmProcess().isActive());
                 break;
-                
+
             default:
-                System.err.println("Unknown task type: " + taskId);
-                completed = true;
+                System.err.println("Unknown task type: " + task.taskType);
+                completeTask(task);
                 break;
         }
-        
-        if (completed) {
-            return true;
-        }
-        
-        return false;
     }
-    
+
     /**
      * Check if pathing tasks (goto/path) have completed
      */
-    private boolean checkPathingCompletion(IBaritone baritone, String taskId) {
+    private void checkPathingCompletion(IBaritone baritone, TrackedTask task) {
         IPathingBehavior pathingBehavior = baritone.getPathingBehavior();
         ICustomGoalProcess customGoalProcess = baritone.getCustomGoalProcess();
         IGetToBlockProcess getToBlockProcess = baritone.getGetToBlockProcess();
@@ -174,160 +177,102 @@ public class PreciseCompletionTracker {
         boolean isPathing = pathingBehavior.isPathing();
         boolean isActive = customGoalProcess.isActive();
         boolean getToBlockActive = getToBlockProcess != null && getToBlockProcess.isActive();
-        
-        // Get current state
-        ProcessState currentState = processStates.get(taskId);
-        
-        if (currentState == ProcessState.STARTING && (isActive || getToBlockActive)) {
+
+        if (task.state == ProcessState.STARTING && (isActive || getToBlockActive)) {
             // Task has started
-            processStates.put(taskId, ProcessState.ACTIVE);
-            System.out.println("PreciseCompletionTracker: " + taskId + " is now active");
-        } else if (currentState == ProcessState.ACTIVE && !isActive && !getToBlockActive && !hasPath && !isPathing) {
+            task.state = ProcessState.ACTIVE;
+            System.out.println("PreciseCompletionTracker: " + task.describe() + " is now active");
+        } else if (task.state == ProcessState.ACTIVE && !isActive && !getToBlockActive && !hasPath && !isPathing) {
             // Task has completed - no longer active and no pathing happening
-            System.out.println("PreciseCompletionTracker: " + taskId + " completed - no longer active");
-            completeTask(taskId);
-            return true;
-        } else if (currentState == ProcessState.ACTIVE && !isActive && !getToBlockActive && hasPath) {
+            System.out.println("PreciseCompletionTracker: " + task.describe() + " completed - no longer active");
+            completeTask(task);
+        } else if (task.state == ProcessState.ACTIVE && !isActive && !getToBlockActive && hasPath) {
             // Task is finishing - no longer active but still has a path (might be reaching goal)
-            processStates.put(taskId, ProcessState.COMPLETING);
-            System.out.println("PreciseCompletionTracker: " + taskId + " is completing");
-        } else if (currentState == ProcessState.COMPLETING && !hasPath && !isPathing && !getToBlockActive) {
+            task.state = ProcessState.COMPLETING;
+            System.out.println("PreciseCompletionTracker: " + task.describe() + " is completing");
+        } else if (task.state == ProcessState.COMPLETING && !hasPath && !isPathing && !getToBlockActive) {
             // Path finished - task completed
-            System.out.println("PreciseCompletionTracker: " + taskId + " completed - path finished");
-            completeTask(taskId);
-            return true;
+            System.out.println("PreciseCompletionTracker: " + task.describe() + " completed - path finished");
+            completeTask(task);
         }
-        
-        return false;
     }
-    
-    /**
-     * Check if goal setting has completed
-     */
-    private boolean checkGoalCompletion(IBaritone baritone, String taskId) {
-        // Goal setting is immediate, so complete right away
-        completeTask(taskId);
-        return true;
-    }
-    
+
     /**
      * Check if mining has completed
      */
-    private boolean checkCollectCompletion(IBaritone baritone, String taskId) {
+    private void checkCollectCompletion(IBaritone baritone, TrackedTask task) {
         IMineProcess mineProcess = baritone.getMineProcess();
         if (mineProcess == null) {
-            completeTaskWithError(taskId, "Collect process unavailable");
-            return true;
-        }
-
-        ProcessState currentState = processStates.get(taskId);
-
-        if (currentState == ProcessState.STARTING && mineProcess.isActive()) {
-            processStates.put(taskId, ProcessState.ACTIVE);
-            System.out.println("PreciseCompletionTracker: " + taskId + " is now active");
-        } else if (currentState == ProcessState.ACTIVE) {
-            if (!mineProcess.isActive()) {
-                System.out.println("PreciseCompletionTracker: " + taskId + " completed - no longer active");
-                completeTask(taskId);
-                return true;
-            }
+            completeTaskWithError(task, "Collect process unavailable");
+            return;
         }
 
-        return false;
+        checkProcessCompletion(task, mineProcess.isActive());
     }
 
     /**
-     * Check if exploration has completed
-     */
-    private boolean checkExplorationCompletion(IBaritone baritone, String taskId) {
-        IExploreProcess exploreProcess = baritone.getExploreProcess();
-        
-        ProcessState currentState = processStates.get(taskId);
-        
-        if (currentState == ProcessState.STARTING && exploreProcess.isActive()) {
-            // Exploration has started
-            processStates.put(taskId, ProcessState.ACTIVE);
-            System.out.println("PreciseCompletionTracker: " + taskId + " is now active");
-        } else if (currentState == ProcessState.ACTIVE && !exploreProcess.isActive()) {
-            // Exploration has completed
-            System.out.println("PreciseCompletionTracker: " + taskId + " completed - no longer active");
-            completeTask(taskId);
-            return true;
-        }
-        
-        return false;
-    }
-    
-    /**
-     * Check if farming has completed
+     * Shared start/finish detection for processes that simply toggle their active flag
+     * (collect, explore, farm).
      */
-    private boolean checkFarmingCompletion(IBaritone baritone, String taskId) {
-        IFarmProcess farmProcess = baritone.getFarmProcess();
-        
-        ProcessState currentState = processStates.get(taskId);
-        
-        if (currentState == ProcessState.STARTING && farmProcess.isActive()) {
-            // Farming has started
-            processStates.put(taskId, ProcessState.ACTIVE);
-            System.out.println("PreciseCompletionTracker: " + taskId + " is now active");
-        } else if (currentState == ProcessState.ACTIVE && !farmProcess.isActive()) {
-            // Farming has completed
-            System.out.println("PreciseCompletionTracker: " + taskId + " completed - no longer active");
-            completeTask(taskId);
-            return true;
+    private void checkProcessCompletion(TrackedTask task, boolean processActive) {
+        if (task.state == ProcessState.STARTING && processActive) {
+            task.state = ProcessState.ACTIVE;
+            System.out.println("PreciseCompletionTracker: " + task.describe() + " is now active");
+        } else if (task.state == ProcessState.ACTIVE && !processActive) {
+            System.out.println("PreciseCompletionTracker: " + task.describe() + " completed - no longer active");
+            completeTask(task);
         }
-        
-        return false;
     }
-    
+
     /**
      * Complete a task successfully
      */
-    private void completeTask(String taskId) {
-        CompletableFuture<Void> future = pendingTasks.remove(taskId);
-        processStates.remove(taskId);
-        Long startTime = taskStartTimes.remove(taskId);
-        
-        if (future != null && !future.isDone()) {
-            long duration = startTime != null ? System.currentTimeMillis() - startTime : 0;
-            System.out.println("PreciseCompletionTracker: Completing task " + taskId + " (duration: " + duration + "ms)");
-            processStates.put(taskId, ProcessState.COMPLETED);
-            future.complete(null);
+    private void completeTask(TrackedTask task) {
+        if (!pendingTasks.remove(task.handle, task)) {
+            return;
+        }
+
+        if (!task.future.isDone()) {
+            long duration = System.currentTimeMillis() - task.startTime;
+            System.out.println("PreciseCompletionTracker: Completing task " + task.describe() + " (duration: " + duration + "ms)");
+            task.future.complete(null);
         }
     }
-    
+
     /**
      * Complete a task with an error
      */
-    private void completeTaskWithError(String taskId, String reason) {
-        CompletableFuture<Void> future = pendingTasks.remove(taskId);
-        processStates.remove(taskId);
-        taskStartTimes.remove(taskId);
-
-        if (future != null && !future.isDone()) {
-            System.out.println("PreciseCompletionTracker: Completing task " + taskId + " with error: " + reason);
-            processStates.put(taskId, ProcessState.FAILED);
-            future.completeExceptionally(new RuntimeException(reason));
+    private void completeTaskWithError(TrackedTask task, String reason) {
+        if (!pendingTasks.remove(task.handle, task)) {
+            return;
+        }
+
+        if (!task.future.isDone()) {
+            System.out.println("PreciseCompletionTracker: Completing task " + task.describe() + " with error: " + reason);
+            task.future.completeExceptionally(new RuntimeException(reason));
         }
     }
 
     /**
-     * Mark a task as completed from an external event (e.g. amount monitors).
+     * Mark a single task as completed from an external event (e.g. amount monitors).
      */
-    public void markTaskCompleted(String taskId) {
-        CompletableFuture<Void> future = pendingTasks.remove(taskId);
-        if (future == null) {
+    public void markTaskCompleted(long handle) {
+        TrackedTask task = pendingTasks.get(handle);
+        if (task == null) {
             return;
         }
 
-        processStates.remove(taskId);
-        Long startTime = taskStartTimes.remove(taskId);
+        System.out.println("PreciseCompletionTracker: Completing task " + task.describe() + " from external signal");
+        completeTask(task);
+    }
 
-        if (!future.isDone()) {
-            long duration = startTime != null ? System.currentTimeMillis() - startTime : 0;
-            System.out.println("PreciseCompletionTracker: Completing task " + taskId + " from external signal (duration: " + duration + "ms)");
-            processStates.put(taskId, ProcessState.COMPLETED);
-            future.complete(null);
+    /**
+     * Cancel a single pending task, failing its future.
+     */
+    public void cancelTask(long handle) {
+        TrackedTask task = pendingTasks.get(handle);
+        if (task != null) {
+            completeTaskWithError(task, "Task cancelled");
         }
     }
 
@@ -337,18 +282,14 @@ public class PreciseCompletionTracker {
     public void cancelAllTasks() {
         System.out.println("PreciseCompletionTracker: Canceling all pending tasks (" + pendingTasks.size() + " tasks)");
 
-        for (String taskId : pendingTasks.keySet()) {
-            CompletableFuture<Void> future = pendingTasks.get(taskId);
-            if (future != null && !future.isDone()) {
-                future.completeExceptionally(new RuntimeException("All tasks cancelled"));
+        for (TrackedTask task : pendingTasks.values()) {
+            pendingTasks.remove(task.handle, task);
+            if (!task.future.isDone()) {
+                task.future.completeExceptionally(new RuntimeException("All tasks cancelled"));
             }
         }
-
-        pendingTasks.clear();
-        processStates.clear();
-        taskStartTimes.clear();
     }
-    
+
     /**
      * Get the Baritone instance
      */
@@ -360,18 +301,18 @@ public class PreciseCompletionTracker {
             return null;
         }
     }
-    
+
     /**
      * Get the number of pending tasks
      */
     public int getPendingTaskCount() {
         return pendingTasks.size();
     }
-    
+
     /**
      * Check if a task is still pending
      */
-    public boolean isTaskPending(String taskId) {
-        return pendingTasks.containsKey(taskId);
+    public boolean isTaskPending(long handle) {
+        return pendingTasks.containsKey(handle);
     }
 }
@@ -0,0 +1,126 @@
+package com.pathmind.execution;
+
+import com.pathmind.nodes.Node;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Central evaluator for sensor subscriptions.
+ * Every subscribed sensor is evaluated exactly once per client tick and its listener runs on the
+ * false-to-true edge, so reacting to a condition no longer needs a loop polling the sensor through
+ * the node scheduler. A subscription starts out as "false": a condition that already holds fires on
+ * the first tick. Client thread only.
+ */
+public final class SensorSubscriptions {
+    private static SensorSubscriptions instance;
+
+    private final List<Subscription> subscriptions;
+
+    private SensorSubscriptions() {
+        this.subscriptions = new ArrayList<>();
+    }
+
+    public static SensorSubscriptions getInstance() {
+        if (instance == null) {
+            instance = new SensorSubscriptions();
+        }
+        return instance;
+    }
+
+    public static final class Subscription {
+        private final Node sensor;
+        private final Runnable onRisingEdge;
+        private final boolean once;
+        private boolean lastResult;
+        private boolean cancelled;
+
+        private Subscription(Node sensor, Runnable onRisingEdge, boolean once) {
+            this.sensor = sensor;
+            this.onRisingEdge = onRisingEdge;
+            this.once = once;
+            this.lastResult = false;
+            this.cancelled = false;
+        }
+
+        public Node getSensor() {
+            return sensor;
+        }
+
+        public boolean isCancelled() {
+            return cancelled;
+        }
+
+        /**
+         * Stop evaluating this subscription. It is dropped from the evaluator on the next tick.
+         */
+        public void cancel() {
+            cancelled = true;
+        }
+    }
+
+    /**
+     * Call {@code onRisingEdge} each time the sensor turns true.
+     */
+    public Subscription subscribe(Node sensor, Runnable onRisingEdge) {
+        return add(sensor, onRisingEdge, false);
+    }
+
+    /**
+     * Future completed the first tick the sensor is true. Cancelling the future removes the subscription.
+     */
+    public CompletableFuture<Void> awaitTrue(Node sensor) {
+        CompletableFuture<Void> future = new CompletableFuture<>();
+        Subscription subscription = add(sensor, () -> future.complete(null), true);
+        future.whenComplete((ignored, throwable) -> subscription.cancel());
+        return future;
+    }
+
+    private Subscription add(Node sensor, Runnable onRisingEdge, boolean once) {
+        if (sensor == null || !sensor.isSensorNode() || onRisingEdge == null) {
+            throw new IllegalArgumentException("Sensor subscriptions need a sensor node and a listener");
+        }
+        Subscription subscription = new Subscription(sensor, onRisingEdge, once);
+        subscriptions.add(subscription);
+        return subscription;
+    }
+
+    /**
+     * Evaluate every live subscription once. Called from {@code END_CLIENT_TICK}.
+     */
+    public void tick() {
+        if (subscriptions.isEmpty()) {
+            return;
+        }
+        // Listeners may subscribe or cancel while we iterate; work on a copy
+        List<Subscription> current = new ArrayList<>(subscriptions);
+        for (Subscription subscription : current) {
+            if (subscription.cancelled) {
+                continue;
+            }
+            boolean result;
+            try {
+                result = subscription.sensor.evaluateSensor();
+            } catch (RuntimeException e) {
+                System.err.println("SensorSubscriptions: Failed to evaluate " + subscription.sensor.getType() + ": " + e.getMessage());
+                result = false;
+            }
+            boolean risingEdge = result && !subscription.lastResult;
+            subscription.lastResult = result;
+            if (!risingEdge) {
+                continue;
+            }
+            if (subscription.once) {
+                subscription.cancelled = true;
+            }
+            try {
+                subscription.onRisingEdge.run();
+            } catch (RuntimeException e) {
+                System.err.println("SensorSubscriptions: Listener for " + subscription.sensor.getType() + " failed: " + e.getMessage());
+                e.printStackTrace();
+            }
+        }
+        subscriptions.removeIf(subscription -> subscription.cancelled);
+    }
+}
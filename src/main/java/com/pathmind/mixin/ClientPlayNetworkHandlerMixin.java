@@ -0,0 +1,31 @@
+package com.pathmind.mixin;
+
+import com.pathmind.execution.GameEventTriggers;
+import net.minecraft.client.network.ClientPlayNetworkHandler;
+import net.minecraft.network.packet.s2c.play.InventoryS2CPacket;
+import net.minecraft.network.packet.s2c.play.ScreenHandlerSlotUpdateS2CPacket;
+import net.minecraft.network.packet.s2c.play.SetPlayerInventoryS2CPacket;
+import org.spongepowered.asm.mixin.Mixin;
+import org.spongepowered.asm.mixin.injection.At;
+import org.spongepowered.asm.mixin.injection.Inject;
+import org.spongepowered.asm.mixin.injection.callback.CallbackInfo;
+
+@Mixin(ClientPlayNetworkHandler.class)
+public abstract class ClientPlayNetworkHandlerMixin {
+    // The handlers hop to the client thread first, so TAIL only runs once the update is applied there
+
+    @Inject(method = "onInventory(Lnet/minecraft/network/packet/s2c/play/InventoryS2CPacket;)V", at = @At("TAIL"))
+    private void pathmind$onInventory(InventoryS2CPacket packet, CallbackInfo ci) {
+        GameEventTriggers.getInstance().onInventoryChanged();
+    }
+
+    @Inject(method = "onScreenHandlerSlotUpdate(Lnet/minecraft/network/packet/s2c/play/ScreenHandlerSlotUpdateS2CPacket;)V", at = @At("TAIL"))
+    private void pathmind$onScreenHandlerSlotUpdate(ScreenHandlerSlotUpdateS2CPacket packet, CallbackInfo ci) {
+        GameEventTriggers.getInstance().onInventoryChanged();
+    }
+
+    @Inject(method = "onSetPlayerInventory(Lnet/minecraft/network/packet/s2c/play/SetPlayerInventoryS2CPacket;)V", at = @At("TAIL"))
+    private void pathmind$onSetPlayerInventory(SetPlayerInventoryS2CPacket packet, CallbackInfo ci) {
+        GameEventTriggers.getInstance().onInventoryChanged();
+    }
+}
@@ -0,0 +1,19 @@
+package com.pathmind.mixin;
+
+import com.pathmind.execution.GameEventTriggers;
+import net.minecraft.client.network.ClientPlayerEntity;
+import org.spongepowered.asm.mixin.Mixin;
+import org.spongepowered.asm.mixin.injection.At;
+import org.spongepowered.asm.mixin.injection.Inject;
+import org.spongepowered.asm.mixin.injection.callback.CallbackInfo;
+
+@Mixin(ClientPlayerEntity.class)
+public abstract class ClientPlayerEntityMixin {
+    @Inject(method = "updateHealth(F)V", at = @At("HEAD"))
+    private void pathmind$onHealthUpdate(float health, CallbackInfo ci) {
+        float previous = ((ClientPlayerEntity) (Object) this).getHealth();
+        if (health < previous) {
+            GameEventTriggers.getInstance().onDamageTaken(previous - health);
+        }
+    }
+}
@@ -0,0 +1,21 @@
+package com.pathmind.mixin;
+
+import com.pathmind.world.EntityIndex;
+import net.minecraft.entity.Entity;
+import net.minecraft.world.World;
+import org.spongepowered.asm.mixin.Mixin;
+import org.spongepowered.asm.mixin.injection.At;
+import org.spongepowered.asm.mixin.injection.Inject;
+import org.spongepowered.asm.mixin.injection.callback.CallbackInfo;
+
+@Mixin(Entity.class)
+public abstract class EntityMixin {
+    @Inject(method = "setPos(DDD)V", at = @At("TAIL"))
+    private void pathmind$onPositionChanged(double x, double y, double z, CallbackInfo ci) {
+        Entity entity = (Entity) (Object) this;
+        World world = entity.getWorld();
+        if (world != null && world.isClient()) {
+            EntityIndex.getInstance().onEntityMoved(entity);
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package com.pathmind.mixin;
+
+import com.pathmind.world.InventoryIndex;
+import net.minecraft.entity.player.PlayerEntity;
+import net.minecraft.entity.player.PlayerInventory;
+import net.minecraft.item.ItemStack;
+import org.spongepowered.asm.mixin.Final;
+import org.spongepowered.asm.mixin.Mixin;
+import org.spongepowered.asm.mixin.Shadow;
+import org.spongepowered.asm.mixin.injection.At;
+import org.spongepowered.asm.mixin.injection.Inject;
+import org.spongepowered.asm.mixin.injection.callback.CallbackInfo;
+import org.spongepowered.asm.mixin.injection.callback.CallbackInfoReturnable;
+
+@Mixin(PlayerInventory.class)
+public abstract class PlayerInventoryMixin {
+    @Shadow
+    @Final
+    public PlayerEntity player;
+
+    @Inject(method = "setStack(ILnet/minecraft/item/ItemStack;)V", at = @At("TAIL"))
+    private void pathmind$onSetStack(int slot, ItemStack stack, CallbackInfo ci) {
+        pathmind$slotChanged(slot);
+    }
+
+    @Inject(method = "removeStack(II)Lnet/minecraft/item/ItemStack;", at = @At("TAIL"))
+    private void pathmind$onRemoveStack(int slot, int amount, CallbackInfoReturnable<ItemStack> cir) {
+        pathmind$slotChanged(slot);
+    }
+
+    @Inject(method = "removeStack(I)Lnet/minecraft/item/ItemStack;", at = @At("TAIL"))
+    private void pathmind$onRemoveWholeStack(int slot, CallbackInfoReturnable<ItemStack> cir) {
+        pathmind$slotChanged(slot);
+    }
+
+    @Inject(method = "clear()V", at = @At("TAIL"))
+    private void pathmind$onClear(CallbackInfo ci) {
+        pathmind$inventoryDirty();
+    }
+
+    @Inject(method = "markDirty()V", at = @At("TAIL"))
+    private void pathmind$onMarkDirty(CallbackInfo ci) {
+        pathmind$inventoryDirty();
+    }
+
+    private void pathmind$slotChanged(int slot) {
+        if (player != null && player.getWorld().isClient()) {
+            InventoryIndex.getInstance().onSlotChanged((PlayerInventory) (Object) this, slot);
+        }
+    }
+
+    private void pathmind$inventoryDirty() {
+        if (player != null && player.getWorld().isClient()) {
+            InventoryIndex.getInstance().onInventoryDirty((PlayerInventory) (Object) this);
+        }
+    }
+}
@@ -0,0 +1,22 @@
+package com.pathmind.mixin;
+
+import com.pathmind.world.WorldBlockIndex;
+import net.minecraft.block.BlockState;
+import net.minecraft.client.world.ClientWorld;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.world.World;
+import org.spongepowered.asm.mixin.Mixin;
+import org.spongepowered.asm.mixin.injection.At;
+import org.spongepowered.asm.mixin.injection.Inject;
+import org.spongepowered.asm.mixin.injection.callback.CallbackInfoReturnable;
+
+@Mixin(World.class)
+public abstract class WorldMixin {
+    @Inject(method = "setBlockState(Lnet/minecraft/util/math/BlockPos;Lnet/minecraft/block/BlockState;II)Z", at = @At("RETURN"))
+    private void pathmind$onBlockStateChanged(BlockPos pos, BlockState state, int flags, int maxUpdateDepth,
+                                              CallbackInfoReturnable<Boolean> cir) {
+        if (cir.getReturnValueZ() && (Object) this instanceof ClientWorld clientWorld) {
+            WorldBlockIndex.getInstance().onBlockChanged(clientWorld, pos, state);
+        }
+    }
+}
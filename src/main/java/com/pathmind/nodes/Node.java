@@ -20,7 +20,19 @@ import baritone.api.process.IGetToBlockProcess;
 import baritone.api.process.IFarmProcess;
 import baritone.api.pathing.goals.GoalBlock;
 import baritone.api.utils.BlockOptionalMeta;
+import com.pathmind.execution.ExecutionManager;
+import com.pathmind.execution.ExecutionScheduler;
+import com.pathmind.execution.InputSimulator;
 import com.pathmind.execution.PreciseCompletionTracker;
+import com.pathmind.execution.SensorSubscriptions;
+import com.pathmind.world.BlockScanService;
+import com.pathmind.world.EntityIndex;
+import com.pathmind.world.InventoryIndex;
+import com.pathmind.world.NearestBlockSearch;
+import com.pathmind.world.OpenBlockSearch;
+import com.pathmind.world.VisibilityEngine;
+import com.pathmind.world.WorldBlockIndex;
+import com.pathmind.world.WorldObservation;
 import net.minecraft.entity.EquipmentSlot;
 import net.minecraft.entity.player.PlayerInventory;
 import net.minecraft.item.BlockItem;
@@ -70,7 +82,6 @@ import net.minecraft.recipe.ServerRecipeManager;
 import net.minecraft.client.network.AbstractClientPlayerEntity;
 import it.unimi.dsi.fastutil.ints.IntList;
 import java.util.Collections;
-import java.util.Comparator;
 import java.lang.reflect.Field;
 import java.util.regex.Pattern;
 
@@ -131,10 +142,6 @@ public class Node {
     private static final Pattern UNSAFE_RESOURCE_ID_PATTERN = Pattern.compile("[^a-z0-9_:/.-]");
     private int width;
     private int height;
-    private int nextOutputSocket = 0;
-    private int repeatRemainingIterations = 0;
-    private boolean repeatActive = false;
-    private boolean lastSensorResult = false;
     private boolean selected = false;
     private boolean dragging = false;
     private int dragOffsetX, dragOffsetY;
@@ -147,15 +154,25 @@ public class Node {
     private Node parentParameterHost;
     private int parentParameterSlotIndex;
     private boolean socketsHidden;
-    private RuntimeParameterData runtimeParameterData;
+    private final NodeRuntimeState defaultRuntimeState;
+    private NodeRuntimeState runtimeState;
+    private boolean dispatchingCommand;
 
     public Node(NodeType type, int x, int y) {
-        this.id = java.util.UUID.randomUUID().toString();
+        this(java.util.UUID.randomUUID().toString(), type, null, x, y, null);
+    }
+
+    /**
+     * Rebuild a saved node with its original id. A {@code null} mode falls back to the type's default;
+     * {@code parameters} is used as-is (no defaults are built), or the defaults when it is {@code null}.
+     */
+    public Node(String id, NodeType type, NodeMode mode, int x, int y, List<NodeParameter> parameters) {
+        this.id = id != null ? id : java.util.UUID.randomUUID().toString();
         this.type = type;
-        this.mode = NodeMode.getDefaultModeForNodeType(type);
+        this.mode = mode != null ? mode : NodeMode.getDefaultModeForNodeType(type);
         this.x = x;
         this.y = y;
-        this.parameters = new ArrayList<>();
+        this.parameters = parameters != null ? parameters : new ArrayList<>();
         this.attachedSensor = null;
         this.parentControl = null;
         this.attachedActionNode = null;
@@ -164,12 +181,16 @@ public class Node {
         this.parentParameterHost = null;
         this.parentParameterSlotIndex = -1;
         this.socketsHidden = false;
-        initializeParameters();
+        this.defaultRuntimeState = new NodeRuntimeState();
+        this.runtimeState = defaultRuntimeState;
+        if (parameters == null) {
+            initializeParameters();
+        }
         recalculateDimensions();
         resetControlState();
     }
 
-    private static final class RuntimeParameterData {
+    static final class RuntimeParameterData {
         private BlockPos targetBlockPos;
         private Vec3d targetVector;
         private Entity targetEntity;
@@ -192,6 +213,21 @@ public class Node {
         private Float resolvedPitchOffset;
     }
 
+    /**
+     * Result of a nearest-block search that ran on the {@link BlockScanService} before the node command.
+     */
+    static final class PrefetchedBlockSearch {
+        private final List<Block> blocks;
+        private final int radius;
+        private final Optional<BlockPos> result;
+
+        PrefetchedBlockSearch(List<Block> blocks, int radius, Optional<BlockPos> result) {
+            this.blocks = blocks;
+            this.radius = radius;
+            this.result = result;
+        }
+    }
+
     private static final class PlacementFailure extends RuntimeException {
         PlacementFailure(String message) {
             super(message);
@@ -390,6 +426,27 @@ public class Node {
         }
     }
 
+    /**
+     * Nodes without sockets that call a named function when something happens.
+     */
+    public static boolean isTriggerType(NodeType nodeType) {
+        if (nodeType == null) {
+            return false;
+        }
+        switch (nodeType) {
+            case EVENT_WHEN:
+            case EVENT_ON_CHAT:
+            case EVENT_ON_DAMAGE:
+            case EVENT_ON_INVENTORY_CHANGE:
+            case EVENT_ON_BLOCK_BROKEN:
+            case EVENT_ON_DIMENSION_CHANGE:
+            case EVENT_ON_SCREEN_OPEN:
+                return true;
+            default:
+                return false;
+        }
+    }
+
     public static boolean isParameterType(NodeType nodeType) {
         return nodeType != null && nodeType.getCategory() == NodeCategory.PARAMETERS;
     }
@@ -399,6 +456,7 @@ public class Node {
             case CONTROL_IF:
             case CONTROL_IF_ELSE:
             case CONTROL_REPEAT_UNTIL:
+            case EVENT_WHEN:
                 return true;
             default:
                 return false;
@@ -417,6 +475,7 @@ public class Node {
             && type != NodeType.START
             && type != NodeType.EVENT_CALL
             && type != NodeType.EVENT_FUNCTION
+            && !isTriggerType(type)
             && type != NodeType.SWING
             && type.getCategory() != NodeCategory.LOGIC;
     }
@@ -571,14 +630,14 @@ public class Node {
     }
 
     public int getInputSocketCount() {
-        if (type == NodeType.START || type == NodeType.EVENT_FUNCTION || isSensorNode() || isParameterNode()) {
+        if (type == NodeType.START || type == NodeType.EVENT_FUNCTION || isTriggerType(type) || isSensorNode() || isParameterNode()) {
             return 0;
         }
         return 1;
     }
 
     public int getOutputSocketCount() {
-        if (isSensorNode() || isParameterNode()) {
+        if (isSensorNode() || isParameterNode() || isTriggerType(type)) {
             return 0;
         }
         if (type == NodeType.CONTROL_FOREVER) {
@@ -618,13 +677,15 @@ public class Node {
     }
     
     public void setNextOutputSocket(int socketIndex) {
-        this.nextOutputSocket = socketIndex < 0 ? NO_OUTPUT : Math.max(0, socketIndex);
+        runtimeState.setNextOutputSocket(socketIndex);
     }
 
+    /**
+     * Consume the output socket chosen by the last {@link #execute()} call that used this node's own state.
+     * Chains executing with their own {@link NodeRuntimeState} read it from that state instead.
+     */
     public int consumeNextOutputSocket() {
-        int value = this.nextOutputSocket;
-        this.nextOutputSocket = 0;
-        return value;
+        return defaultRuntimeState.consumeNextOutputSocket();
     }
     
     public boolean isSocketClicked(int mouseX, int mouseY, int socketIndex, boolean isInput) {
@@ -1100,6 +1161,14 @@ public class Node {
     }
 
     private boolean applyParameterValuesFromMap(Map<String, String> values) {
+        return applyParameterValuesFromMap(values, false);
+    }
+
+    /**
+     * Copy matching values onto this node's parameters, or with {@code resolvedOnly} into the running
+     * chain's resolved values instead.
+     */
+    private boolean applyParameterValuesFromMap(Map<String, String> values, boolean resolvedOnly) {
         if (values == null || values.isEmpty()) {
             return false;
         }
@@ -1144,7 +1213,11 @@ public class Node {
                 }
             }
             if (value != null) {
-                target.setStringValue(value);
+                if (resolvedOnly) {
+                    setResolvedParameterValue(key, value);
+                } else {
+                    target.setStringValue(value);
+                }
                 applied = true;
             }
         }
@@ -1516,6 +1589,35 @@ public class Node {
             case EVENT_CALL:
                 parameters.add(new NodeParameter("Name", ParameterType.STRING, "function"));
                 break;
+            case EVENT_WHEN:
+                parameters.add(new NodeParameter("Function", ParameterType.STRING, "function"));
+                parameters.add(new NodeParameter("Interrupt", ParameterType.BOOLEAN, "false"));
+                break;
+            case EVENT_ON_CHAT:
+                parameters.add(new NodeParameter("Function", ParameterType.STRING, "function"));
+                parameters.add(new NodeParameter("Pattern", ParameterType.STRING, ""));
+                parameters.add(new NodeParameter("Interrupt", ParameterType.BOOLEAN, "false"));
+                break;
+            case EVENT_ON_DAMAGE:
+            case EVENT_ON_INVENTORY_CHANGE:
+                parameters.add(new NodeParameter("Function", ParameterType.STRING, "function"));
+                parameters.add(new NodeParameter("Interrupt", ParameterType.BOOLEAN, "false"));
+                break;
+            case EVENT_ON_BLOCK_BROKEN:
+                parameters.add(new NodeParameter("Function", ParameterType.STRING, "function"));
+                parameters.add(new NodeParameter("Block", ParameterType.STRING, ""));
+                parameters.add(new NodeParameter("Interrupt", ParameterType.BOOLEAN, "false"));
+                break;
+            case EVENT_ON_DIMENSION_CHANGE:
+                parameters.add(new NodeParameter("Function", ParameterType.STRING, "function"));
+                parameters.add(new NodeParameter("Dimension", ParameterType.STRING, ""));
+                parameters.add(new NodeParameter("Interrupt", ParameterType.BOOLEAN, "false"));
+                break;
+            case EVENT_ON_SCREEN_OPEN:
+                parameters.add(new NodeParameter("Function", ParameterType.STRING, "function"));
+                parameters.add(new NodeParameter("Screen", ParameterType.STRING, ""));
+                parameters.add(new NodeParameter("Interrupt", ParameterType.BOOLEAN, "false"));
+                break;
             case SENSOR_TOUCHING_BLOCK:
             case SENSOR_TOUCHING_ENTITY:
             case SENSOR_AT_COORDINATES:
@@ -1628,9 +1730,20 @@ public class Node {
     }
 
     /**
-     * Get a specific parameter by name
+     * Get a specific parameter by name. While a command is running, values it resolved for its own
+     * chain (see {@link #setResolvedParameterValue}) take precedence over the graph's parameters.
      */
     public NodeParameter getParameter(String name) {
+        if (dispatchingCommand && runtimeState.resolvedParameters != null) {
+            NodeParameter resolved = runtimeState.resolvedParameters.get(name);
+            if (resolved != null) {
+                return resolved;
+            }
+        }
+        return getGraphParameter(name);
+    }
+
+    private NodeParameter getGraphParameter(String name) {
         for (NodeParameter param : parameters) {
             if (param.getName().equals(name)) {
                 return param;
@@ -2017,6 +2130,16 @@ public class Node {
      * Returns a CompletableFuture that completes when the node's command is finished.
      */
     public CompletableFuture<Void> execute() {
+        return execute(defaultRuntimeState);
+    }
+
+    /**
+     * Execute this node asynchronously against the given per-chain runtime state.
+     * The state is bound only while the node command is dispatched on the client thread;
+     * work that continues asynchronously captures what it needs before returning.
+     */
+    public CompletableFuture<Void> execute(NodeRuntimeState state) {
+        NodeRuntimeState executionState = state != null ? state : defaultRuntimeState;
         CompletableFuture<Void> future = new CompletableFuture<>();
 
         // Execute on the main Minecraft thread
@@ -2035,15 +2158,39 @@ public class Node {
         }
 
         if (client != null) {
-            client.execute(() -> {
+            Runnable command = () -> {
+                NodeRuntimeState previousState = runtimeState;
+                boolean previousDispatching = dispatchingCommand;
+                runtimeState = executionState;
+                dispatchingCommand = true;
+                executionState.resolvedParameters = null;
                 try {
                     executeNodeCommand(future);
                 } catch (Exception e) {
                     System.err.println("Error executing node " + type + ": " + e.getMessage());
                     e.printStackTrace();
                     future.completeExceptionally(e);
+                } finally {
+                    runtimeState = previousState;
+                    dispatchingCommand = previousDispatching;
                 }
-            });
+            };
+            CompletableFuture<PrefetchedBlockSearch> blockSearch = startBlockParameterSearch(client, executionState, future);
+            if (blockSearch != null) {
+                // Dispatch once the off-thread block search is back; a failed search falls back to the inline one
+                blockSearch.whenComplete((prefetched, throwable) -> ExecutionScheduler.getInstance().runAfterTicks(0, () -> {
+                    if (future.isDone()) {
+                        return;
+                    }
+                    executionState.prefetchedBlockSearch = prefetched;
+                    command.run();
+                }));
+            } else if (client.isOnThread()) {
+                // The execution scheduler already runs us on the client thread, so avoid another hop
+                command.run();
+            } else {
+                client.execute(command);
+            }
         } else {
             future.completeExceptionally(new RuntimeException("Minecraft client not available"));
         }
@@ -2051,6 +2198,79 @@ public class Node {
         return future;
     }
 
+    /**
+     * Start the nearest-block search for an attached PARAM_BLOCK/PARAM_BLOCK_LIST off the client thread
+     * when the command resolves it to a position and the block index cannot answer it, so the command
+     * does not scan the world inline. Returns {@code null} when no such search is needed.
+     */
+    private CompletableFuture<PrefetchedBlockSearch> startBlockParameterSearch(net.minecraft.client.MinecraftClient client,
+                                                                               NodeRuntimeState state,
+                                                                               CompletableFuture<Void> future) {
+        state.prefetchedBlockSearch = null;
+        if (client == null || client.player == null || client.world == null || !client.isOnThread()) {
+            return null;
+        }
+        Node parameterNode = canAcceptParameterAt(0) ? getAttachedParameter(0) : null;
+        if (parameterNode == null
+            || (parameterNode.getType() != NodeType.PARAM_BLOCK && parameterNode.getType() != NodeType.PARAM_BLOCK_LIST)
+            || !resolvesAttachedParameterAsPosition(parameterNode)) {
+            return null;
+        }
+        ResourceMatchers.BlockMatcher matcher = resolveBlocksFromParameter(parameterNode);
+        List<Block> blocks = matcher.getBlocks();
+        if (blocks.isEmpty() || WorldBlockIndex.getInstance().watch(client.world, blocks)) {
+            return null;
+        }
+        int radius = blockSearchRadius(parameterNode);
+        // Follow the player while the search runs so the answer matches where the command starts from
+        CompletableFuture<Optional<BlockPos>> search = BlockScanService.getInstance()
+            .findNearest(client.world, () -> client.player != null ? client.player.getBlockPos() : null, radius, matcher.getStateIds());
+        // Stop copying sections once the node is done (e.g. the chain was stopped)
+        future.whenComplete((ignored, throwable) -> search.cancel(false));
+        return search.thenApply(result -> new PrefetchedBlockSearch(blocks, radius, result));
+    }
+
+    /**
+     * Whether the command preprocesses its attached parameter with {@link ParameterUsage#POSITION}.
+     * Keep in sync with the {@code preprocessAttachedParameter} calls of the command methods.
+     */
+    private boolean resolvesAttachedParameterAsPosition(Node parameterNode) {
+        switch (type) {
+            case GOTO:
+            case GOAL:
+            case BUILD:
+            case EXPLORE:
+            case FOLLOW:
+            case PATH:
+            case LOOK:
+            case TURN:
+            case INTERACT:
+            case ATTACK:
+                return true;
+            case PLACE:
+                // Only when no coordinate parameter is attached does the block parameter supply the position
+                return getAttachedParameter(1) == null && parameterProvidesCoordinates(parameterNode);
+            default:
+                return false;
+        }
+    }
+
+    /**
+     * Track a Baritone task for the running chain; the handle stays in the chain's runtime state so the
+     * chain can complete or cancel its own task without touching tasks started by other chains.
+     */
+    private void trackBaritoneTask(String taskType, CompletableFuture<Void> future) {
+        runtimeState.trackedTaskHandle = PreciseCompletionTracker.getInstance().startTrackingTask(taskType, future);
+    }
+
+    private int blockSearchRadius(Node parameterNode) {
+        return blockSearchRadius(parseNodeDouble(parameterNode, "Range", PARAMETER_SEARCH_RADIUS));
+    }
+
+    private static int blockSearchRadius(double range) {
+        return Math.max(1, Math.min((int) Math.ceil(range), 64));
+    }
+
     private ParameterHandlingResult preprocessAttachedParameter(EnumSet<ParameterUsage> usages, CompletableFuture<Void> future) {
         return preprocessParameterSlot(0, usages, future, true);
     }
@@ -2060,7 +2280,7 @@ public class Node {
             return ParameterHandlingResult.CONTINUE;
         }
         if (resetRuntimeData) {
-            runtimeParameterData = null;
+            runtimeState.parameterData = null;
         }
         Node parameterNode = getAttachedParameter(slotIndex);
         return preprocessParameterNode(parameterNode, usages, future);
@@ -2070,22 +2290,22 @@ public class Node {
         if (parameterNode == null) {
             return ParameterHandlingResult.CONTINUE;
         }
-        if (runtimeParameterData == null) {
-            runtimeParameterData = new RuntimeParameterData();
+        if (runtimeState.parameterData == null) {
+            runtimeState.parameterData = new RuntimeParameterData();
         }
 
         boolean handled = false;
 
         Map<String, String> exported = parameterNode.exportParameterValues();
         if (!exported.isEmpty()) {
-            handled = applyParameterValuesFromMap(exported);
+            handled = applyParameterValuesFromMap(exported, true);
         }
 
         if (usages.contains(ParameterUsage.POSITION)) {
-            Optional<Vec3d> targetVec = resolvePositionTarget(parameterNode, runtimeParameterData, future);
+            Optional<Vec3d> targetVec = resolvePositionTarget(parameterNode, runtimeState.parameterData, future);
             if (targetVec.isPresent()) {
                 handled = true;
-                runtimeParameterData.targetVector = targetVec.get();
+                runtimeState.parameterData.targetVector = targetVec.get();
                 applyVectorToCoordinateParameters(targetVec.get());
             } else if (future != null && future.isDone()) {
                 return ParameterHandlingResult.COMPLETE;
@@ -2093,7 +2313,7 @@ public class Node {
         }
 
         if (usages.contains(ParameterUsage.LOOK_ORIENTATION)) {
-            boolean oriented = resolveLookOrientation(parameterNode, runtimeParameterData, future);
+            boolean oriented = resolveLookOrientation(parameterNode, runtimeState.parameterData, future);
             if (oriented) {
                 handled = true;
             } else if (future != null && future.isDone()) {
@@ -2102,7 +2322,7 @@ public class Node {
         }
 
         if (usages.contains(ParameterUsage.TURN_OFFSET)) {
-            boolean offsets = resolveTurnOffsets(parameterNode, runtimeParameterData, future);
+            boolean offsets = resolveTurnOffsets(parameterNode, runtimeState.parameterData, future);
             if (offsets) {
                 handled = true;
             } else if (future != null && future.isDone()) {
@@ -2171,12 +2391,11 @@ public class Node {
                     sendParameterSearchFailure("No item selected on parameter for " + type.getDisplayName() + ".", future);
                     return Optional.empty();
                 }
-                Identifier identifier = Identifier.tryParse(itemId);
-                if (identifier == null || !Registries.ITEM.containsId(identifier)) {
+                Item item = ResourceMatchers.item(itemId);
+                if (item == null) {
                     sendParameterSearchFailure("Unknown item \"" + itemId + "\" for " + type.getDisplayName() + ".", future);
                     return Optional.empty();
                 }
-                Item item = Registries.ITEM.get(identifier);
                 double range = parseNodeDouble(parameterNode, "Range", PARAMETER_SEARCH_RADIUS);
                 Optional<BlockPos> match = findNearestDroppedItem(client, item, range);
                 if (match.isEmpty()) {
@@ -2199,12 +2418,11 @@ public class Node {
                     sendParameterSearchFailure("No entity selected on parameter for " + type.getDisplayName() + ".", future);
                     return Optional.empty();
                 }
-                Identifier identifier = Identifier.tryParse(entityId);
-                if (identifier == null || !Registries.ENTITY_TYPE.containsId(identifier)) {
+                EntityType<?> entityType = ResourceMatchers.entityType(entityId);
+                if (entityType == null) {
                     sendParameterSearchFailure("Unknown entity \"" + entityId + "\" for " + type.getDisplayName() + ".", future);
                     return Optional.empty();
                 }
-                EntityType<?> entityType = Registries.ENTITY_TYPE.get(identifier);
                 double range = parseNodeDouble(parameterNode, "Range", PARAMETER_SEARCH_RADIUS);
                 Optional<Entity> entity = findNearestEntity(client, entityType, range);
                 if (entity.isEmpty()) {
@@ -2245,13 +2463,14 @@ public class Node {
                 if (client == null || client.player == null || client.world == null) {
                     return Optional.empty();
                 }
-                List<Block> blocks = resolveBlocksFromParameter(parameterNode);
+                ResourceMatchers.BlockMatcher matcher = resolveBlocksFromParameter(parameterNode);
+                List<Block> blocks = matcher.getBlocks();
                 if (blocks.isEmpty()) {
                     sendParameterSearchFailure("No blocks defined on parameter for " + type.getDisplayName() + ".", future);
                     return Optional.empty();
                 }
                 double range = parseNodeDouble(parameterNode, "Range", PARAMETER_SEARCH_RADIUS);
-                Optional<BlockPos> match = findNearestBlock(client, blocks, range);
+                Optional<BlockPos> match = findNearestBlock(client, matcher, range);
                 if (match.isEmpty()) {
                     sendParameterSearchFailure("No matching block from parameter found for " + type.getDisplayName() + ".", future);
                     return Optional.empty();
@@ -2317,12 +2536,12 @@ public class Node {
         int x = MathHelper.floor(targetVec.x);
         int y = MathHelper.floor(targetVec.y);
         int z = MathHelper.floor(targetVec.z);
-        if (runtimeParameterData != null) {
-            runtimeParameterData.targetBlockPos = new BlockPos(x, y, z);
+        if (runtimeState.parameterData != null) {
+            runtimeState.parameterData.targetBlockPos = new BlockPos(x, y, z);
         }
-        setParameterValueAndPropagate("X", Integer.toString(x));
-        setParameterValueAndPropagate("Y", Integer.toString(y));
-        setParameterValueAndPropagate("Z", Integer.toString(z));
+        setResolvedParameterValue("X", Integer.toString(x));
+        setResolvedParameterValue("Y", Integer.toString(y));
+        setResolvedParameterValue("Z", Integer.toString(z));
     }
 
     private boolean isPlayerAtCoordinates(Integer targetX, Integer targetY, Integer targetZ) {
@@ -2530,13 +2749,25 @@ public class Node {
     }
 
     private void setParameterIfPresent(String name, String value) {
+        setResolvedParameterValue(name, value);
+    }
+
+    /**
+     * Record a value resolved while executing for the running chain only. The graph's own parameter
+     * (shared by every chain and by replays of a cached plan) is left untouched.
+     */
+    private void setResolvedParameterValue(String name, String value) {
         if (name == null || value == null) {
             return;
         }
-        NodeParameter parameter = getParameter(name);
-        if (parameter != null) {
-            parameter.setStringValue(value);
+        NodeParameter parameter = getGraphParameter(name);
+        if (parameter == null) {
+            return;
+        }
+        if (runtimeState.resolvedParameters == null) {
+            runtimeState.resolvedParameters = new HashMap<>();
         }
+        runtimeState.resolvedParameters.put(name, new NodeParameter(name, parameter.getType(), value));
     }
 
     private static String formatFloat(float value) {
@@ -2579,58 +2810,29 @@ public class Node {
         }
     }
 
-    private List<Block> resolveBlocksFromParameter(Node parameterNode) {
-        List<Block> blocks = new ArrayList<>();
+    private ResourceMatchers.BlockMatcher resolveBlocksFromParameter(Node parameterNode) {
         String primary = getParameterString(parameterNode, "Block");
         String listValue = getParameterString(parameterNode, "Blocks");
-        if (listValue != null && !listValue.isEmpty()) {
-            for (String entry : listValue.split(",")) {
-                addBlockById(blocks, entry.trim());
-            }
-        }
-        if (primary != null && !primary.isEmpty()) {
-            addBlockById(blocks, primary.trim());
-        }
-        return blocks;
+        return ResourceMatchers.blocks(listValue).union(ResourceMatchers.blocks(primary));
     }
 
-    private void addBlockById(List<Block> blocks, String idString) {
-        if (idString == null || idString.isEmpty()) {
-            return;
-        }
-        Identifier identifier = Identifier.tryParse(idString);
-        if (identifier != null && Registries.BLOCK.containsId(identifier)) {
-            blocks.add(Registries.BLOCK.get(identifier));
-        }
-    }
-
-    private Optional<BlockPos> findNearestBlock(net.minecraft.client.MinecraftClient client, List<Block> blocks, double range) {
-        if (client == null || client.player == null || client.world == null || blocks == null || blocks.isEmpty()) {
+    private Optional<BlockPos> findNearestBlock(net.minecraft.client.MinecraftClient client, ResourceMatchers.BlockMatcher matcher, double range) {
+        if (client == null || client.player == null || client.world == null || matcher == null || matcher.isEmpty()) {
             return Optional.empty();
         }
-        int radius = Math.max(1, Math.min((int) Math.ceil(range), 64));
+        List<Block> blocks = matcher.getBlocks();
+        int radius = blockSearchRadius(range);
+        PrefetchedBlockSearch prefetched = runtimeState.prefetchedBlockSearch;
+        if (prefetched != null && prefetched.radius == radius && prefetched.blocks.equals(blocks)) {
+            runtimeState.prefetchedBlockSearch = null;
+            return prefetched.result;
+        }
         BlockPos playerPos = client.player.getBlockPos();
-        BlockPos.Mutable mutable = new BlockPos.Mutable();
-        BlockPos bestPos = null;
-        double bestDistance = Double.MAX_VALUE;
-
-        for (int dx = -radius; dx <= radius; dx++) {
-            for (int dy = -radius; dy <= radius; dy++) {
-                for (int dz = -radius; dz <= radius; dz++) {
-                    mutable.set(playerPos.getX() + dx, playerPos.getY() + dy, playerPos.getZ() + dz);
-                    BlockState state = client.world.getBlockState(mutable);
-                    if (blocks.contains(state.getBlock())) {
-                        double distance = mutable.getSquaredDistance(playerPos);
-                        if (distance < bestDistance) {
-                            bestDistance = distance;
-                            bestPos = mutable.toImmutable();
-                        }
-                    }
-                }
-            }
+        WorldBlockIndex index = WorldBlockIndex.getInstance();
+        if (index.watch(client.world, blocks)) {
+            return index.findNearest(playerPos, radius, blocks);
         }
-
-        return Optional.ofNullable(bestPos);
+        return NearestBlockSearch.findNearest(client.world, playerPos, radius, matcher.getStateIds());
     }
 
     private Optional<BlockPos> findNearestOpenBlock(net.minecraft.client.MinecraftClient client, int range, boolean requireSolidGround) {
@@ -2638,42 +2840,7 @@ public class Node {
             return Optional.empty();
         }
         int radius = Math.max(1, Math.min(range, 32));
-        BlockPos playerPos = client.player.getBlockPos();
-        BlockPos.Mutable mutable = new BlockPos.Mutable();
-        BlockPos bestPos = null;
-        double bestDistance = Double.MAX_VALUE;
-
-        for (int dx = -radius; dx <= radius; dx++) {
-            for (int dy = -radius; dy <= radius; dy++) {
-                for (int dz = -radius; dz <= radius; dz++) {
-                    mutable.set(playerPos.getX() + dx, playerPos.getY() + dy, playerPos.getZ() + dz);
-                    if (!client.world.getWorldBorder().contains(mutable)) {
-                        continue;
-                    }
-                    if (!isBlockReplaceable(client.world, mutable)) {
-                        continue;
-                    }
-                    if (requireSolidGround) {
-                        BlockPos below = mutable.down();
-                        BlockState belowState = client.world.getBlockState(below);
-                        if (!belowState.isSolidBlock(client.world, below)) {
-                            continue;
-                        }
-                    }
-                    Box blockBox = new Box(mutable.getX(), mutable.getY(), mutable.getZ(), mutable.getX() + 1, mutable.getY() + 1, mutable.getZ() + 1);
-                    if (!client.world.getOtherEntities(null, blockBox).isEmpty()) {
-                        continue;
-                    }
-                    double distance = mutable.getSquaredDistance(playerPos);
-                    if (distance < bestDistance) {
-                        bestDistance = distance;
-                        bestPos = mutable.toImmutable();
-                    }
-                }
-            }
-        }
-
-        return Optional.ofNullable(bestPos);
+        return OpenBlockSearch.getInstance().findNearest(client.world, client.player.getBlockPos(), radius, requireSolidGround);
     }
 
     /**
@@ -2695,6 +2862,16 @@ public class Node {
                 System.out.println("Call Function node - dispatching handlers");
                 future.complete(null);
                 break;
+            case EVENT_WHEN:
+            case EVENT_ON_CHAT:
+            case EVENT_ON_DAMAGE:
+            case EVENT_ON_INVENTORY_CHANGE:
+            case EVENT_ON_BLOCK_BROKEN:
+            case EVENT_ON_DIMENSION_CHANGE:
+            case EVENT_ON_SCREEN_OPEN:
+                // Triggers are driven by their subscription or game event, never by a chain
+                future.complete(null);
+                break;
 
             // Generalized nodes
             case GOTO:
@@ -2904,7 +3081,7 @@ public class Node {
                 }
 
                 System.out.println("Executing goto to: " + x + ", " + y + ", " + z);
-                PreciseCompletionTracker.getInstance().startTrackingTask(PreciseCompletionTracker.TASK_GOTO, future);
+                trackBaritoneTask(PreciseCompletionTracker.TASK_GOTO, future);
                 GoalBlock goal = new GoalBlock(x, y, z);
                 customGoalProcess.setGoalAndPath(goal);
                 break;
@@ -2923,7 +3100,7 @@ public class Node {
                 }
 
                 System.out.println("Executing goto to: " + x2 + ", " + z2);
-                PreciseCompletionTracker.getInstance().startTrackingTask(PreciseCompletionTracker.TASK_GOTO, future);
+                trackBaritoneTask(PreciseCompletionTracker.TASK_GOTO, future);
                 GoalBlock goal2 = new GoalBlock(x2, 0, z2); // Y will be determined by pathfinding
                 customGoalProcess.setGoalAndPath(goal2);
                 break;
@@ -2934,7 +3111,7 @@ public class Node {
                 if (yParam3 != null) y3 = yParam3.getIntValue();
                 
                 System.out.println("Executing goto to Y level: " + y3);
-                PreciseCompletionTracker.getInstance().startTrackingTask(PreciseCompletionTracker.TASK_GOTO, future);
+                trackBaritoneTask(PreciseCompletionTracker.TASK_GOTO, future);
                 // For Y-only movement, we need to get current X,Z and set goal there
                 net.minecraft.client.MinecraftClient client = net.minecraft.client.MinecraftClient.getInstance();
                 if (client != null && client.player != null) {
@@ -2963,7 +3140,7 @@ public class Node {
                     break;
                 }
 
-                PreciseCompletionTracker.getInstance().startTrackingTask(PreciseCompletionTracker.TASK_GOTO, future);
+                trackBaritoneTask(PreciseCompletionTracker.TASK_GOTO, future);
                 getToBlockProcess.getToBlock(new BlockOptionalMeta(block));
                 break;
                 
@@ -3029,7 +3206,7 @@ public class Node {
         }
 
         BlockPos pos = target.get();
-        PreciseCompletionTracker.getInstance().startTrackingTask(PreciseCompletionTracker.TASK_GOTO, future);
+        trackBaritoneTask(PreciseCompletionTracker.TASK_GOTO, future);
         customGoalProcess.setGoalAndPath(new GoalBlock(pos.getX(), pos.getY(), pos.getZ()));
         return true;
     }
@@ -3068,7 +3245,7 @@ public class Node {
         }
 
         BlockPos pos = target.get().getBlockPos();
-        PreciseCompletionTracker.getInstance().startTrackingTask(PreciseCompletionTracker.TASK_GOTO, future);
+        trackBaritoneTask(PreciseCompletionTracker.TASK_GOTO, future);
         customGoalProcess.setGoalAndPath(new GoalBlock(pos.getX(), pos.getY(), pos.getZ()));
         return true;
     }
@@ -3101,7 +3278,7 @@ public class Node {
         }
 
         BlockPos pos = match.get().getBlockPos();
-        PreciseCompletionTracker.getInstance().startTrackingTask(PreciseCompletionTracker.TASK_GOTO, future);
+        trackBaritoneTask(PreciseCompletionTracker.TASK_GOTO, future);
         customGoalProcess.setGoalAndPath(new GoalBlock(pos.getX(), pos.getY(), pos.getZ()));
         return true;
     }
@@ -3122,7 +3299,7 @@ public class Node {
             return true;
         }
 
-        PreciseCompletionTracker.getInstance().startTrackingTask(PreciseCompletionTracker.TASK_GOTO, future);
+        trackBaritoneTask(PreciseCompletionTracker.TASK_GOTO, future);
         getToBlockProcess.getToBlock(new BlockOptionalMeta(blockId));
         return true;
     }
@@ -3161,7 +3338,7 @@ public class Node {
             future.complete(null);
             return true;
         }
-        PreciseCompletionTracker.getInstance().startTrackingTask(PreciseCompletionTracker.TASK_GOTO, future);
+        trackBaritoneTask(PreciseCompletionTracker.TASK_GOTO, future);
         getToBlockProcess.getToBlock(new BlockOptionalMeta(blockId));
         return true;
     }
@@ -3265,7 +3442,7 @@ public class Node {
                     Thread.currentThread().interrupt();
                     throw new java.util.concurrent.CompletionException(e);
                 }
-            })
+            }, ExecutionManager.getInstance().getBlockingTaskExecutor())
             .whenComplete((summary, throwable) -> {
                 if (throwable != null) {
                     Throwable cause = throwable.getCause() != null ? throwable.getCause() : throwable;
@@ -3619,7 +3796,7 @@ public class Node {
                     return;
                 }
 
-                int sourceSlot = findIngredientSourceSlot(handler, ingredient.ingredient());
+                int sourceSlot = findIngredientSourceSlot(handler, client.player.getInventory(), ingredient.ingredient());
                 if (sourceSlot == -1) {
                     errorRef.set("Cannot craft " + itemDisplayName + ": missing required ingredients.");
                     return;
@@ -3741,34 +3918,11 @@ public class Node {
         }
     }
 
-    private int findIngredientSourceSlot(ScreenHandler handler, Ingredient ingredient) {
-        if (handler == null || ingredient == null || ingredient.isEmpty()) {
+    private int findIngredientSourceSlot(ScreenHandler handler, PlayerInventory inventory, Ingredient ingredient) {
+        if (handler == null || inventory == null || ingredient == null || ingredient.isEmpty()) {
             return -1;
         }
-
-        List<Slot> slots = handler.slots;
-        for (int slotIdx = 0; slotIdx < slots.size(); slotIdx++) {
-            Slot slot = slots.get(slotIdx);
-            if (!(slot.inventory instanceof PlayerInventory)) {
-                continue;
-            }
-
-            int inventoryIndex = slot.getIndex();
-            if (inventoryIndex < 0 || inventoryIndex >= PlayerInventory.MAIN_SIZE) {
-                continue;
-            }
-
-            ItemStack stack = slot.getStack();
-            if (stack.isEmpty()) {
-                continue;
-            }
-
-            if (ingredient.test(stack)) {
-                return slotIdx;
-            }
-        }
-
-        return -1;
+        return InventoryIndex.getInstance().findIngredientHandlerSlot(handler, inventory, ingredient);
     }
 
     private int[] mapGridSlotsForHandler(ScreenHandler handler, NodeMode craftMode, int[] logicalSlots) {
@@ -4011,7 +4165,7 @@ public class Node {
                 return;
             }
         } else {
-            runtimeParameterData = null;
+            runtimeState.parameterData = null;
         }
 
         if (coordinateParameterNode != null) {
@@ -4039,11 +4193,11 @@ public class Node {
         if (yParam != null) y = yParam.getIntValue();
         if (zParam != null) z = zParam.getIntValue();
 
-        RuntimeParameterData parameterData = runtimeParameterData;
+        RuntimeParameterData parameterData = runtimeState.parameterData;
         if (parameterData != null) {
             if (parameterData.targetBlockId != null && !parameterData.targetBlockId.isEmpty()) {
                 block = parameterData.targetBlockId;
-                setParameterValueAndPropagate("Block", block);
+                setResolvedParameterValue("Block", block);
             }
             if (inheritPlacementCoordinates && parameterData.targetBlockPos != null) {
                 BlockPos resolved = parameterData.targetBlockPos;
@@ -4062,7 +4216,7 @@ public class Node {
         String originalBlockId = block;
         block = normalizeResourceId(block, "minecraft");
         if (!Objects.equals(originalBlockId, block)) {
-            setParameterValueAndPropagate("Block", block);
+            setResolvedParameterValue("Block", block);
         }
 
         if (block == null || block.isEmpty()) {
@@ -4095,7 +4249,7 @@ public class Node {
         final Hand resolvedHand = hand;
         final double resolvedReachSquared = reachSquared;
 
-        new Thread(() -> {
+        ExecutionManager.getInstance().getBlockingTaskExecutor().execute(() -> {
             try {
                 BlockHitResult placementHitResult = supplyFromClient(client, () ->
                     preparePlacementHitResult(client, placementPos, resolvedBlockId, resolvedHand, resolvedReachSquared)
@@ -4131,7 +4285,7 @@ public class Node {
                 sendNodeErrorMessage(client, "Failed to place block \"" + resolvedBlockId + "\": " + e.getMessage());
                 future.complete(null);
             }
-        }, "Pathmind-Place").start();
+        });
     }
 
     private boolean shouldInheritPlacementCoordinates() {
@@ -4232,7 +4386,7 @@ public class Node {
         }
         
         IExploreProcess exploreProcess = baritone.getExploreProcess();
-        PreciseCompletionTracker.getInstance().startTrackingTask(PreciseCompletionTracker.TASK_EXPLORE, future);
+        trackBaritoneTask(PreciseCompletionTracker.TASK_EXPLORE, future);
         
         switch (mode) {
             case EXPLORE_CURRENT:
@@ -4340,15 +4494,7 @@ public class Node {
         final double waitSeconds = effectiveDuration;
         System.out.println("Waiting for " + waitSeconds + " seconds (configured duration=" + baseDuration + ")");
 
-        new Thread(() -> {
-            try {
-                Thread.sleep((long) (waitSeconds * 1000));
-                future.complete(null);
-            } catch (InterruptedException e) {
-                Thread.currentThread().interrupt();
-                future.completeExceptionally(e);
-            }
-        }, "Pathmind-Wait").start();
+        ExecutionScheduler.getInstance().runAfterTicks(ExecutionScheduler.secondsToTicks(waitSeconds), () -> future.complete(null));
     }
     
     private void executeControlRepeat(CompletableFuture<Void> future) {
@@ -4356,16 +4502,16 @@ public class Node {
             return;
         }
         int count = Math.max(0, getIntParameter("Count", 1));
-        if (!repeatActive) {
-            repeatRemainingIterations = count;
-            repeatActive = true;
+        if (!runtimeState.repeatActive) {
+            runtimeState.repeatRemainingIterations = count;
+            runtimeState.repeatActive = true;
         }
-        if (repeatRemainingIterations > 0) {
-            repeatRemainingIterations--;
+        if (runtimeState.repeatRemainingIterations > 0) {
+            runtimeState.repeatRemainingIterations--;
             setNextOutputSocket(0);
         } else {
-            repeatRemainingIterations = 0;
-            repeatActive = false;
+            runtimeState.repeatRemainingIterations = 0;
+            runtimeState.repeatActive = false;
             setNextOutputSocket(1);
         }
         future.complete(null);
@@ -4377,11 +4523,11 @@ public class Node {
         }
         boolean conditionMet = evaluateConditionFromParameters();
         if (conditionMet) {
-            repeatRemainingIterations = 0;
-            repeatActive = false;
+            runtimeState.repeatRemainingIterations = 0;
+            runtimeState.repeatActive = false;
             setNextOutputSocket(1);
         } else {
-            repeatActive = true;
+            runtimeState.repeatActive = true;
             setNextOutputSocket(0);
         }
         future.complete(null);
@@ -4391,7 +4537,7 @@ public class Node {
         if (preprocessAttachedParameter(EnumSet.noneOf(ParameterUsage.class), future) == ParameterHandlingResult.COMPLETE) {
             return;
         }
-        repeatActive = true;
+        runtimeState.repeatActive = true;
         setNextOutputSocket(0);
         future.complete(null);
     }
@@ -4532,12 +4678,12 @@ public class Node {
         IBaritone baritone = getBaritone();
         if (baritone != null) {
             // Start precise tracking of this task
-            PreciseCompletionTracker.getInstance().startTrackingTask(PreciseCompletionTracker.TASK_PATH, future);
+            trackBaritoneTask(PreciseCompletionTracker.TASK_PATH, future);
 
             // Start the Baritone pathing task
             ICustomGoalProcess customGoalProcess = baritone.getCustomGoalProcess();
-            if (runtimeParameterData != null && runtimeParameterData.targetBlockPos != null) {
-                BlockPos target = runtimeParameterData.targetBlockPos;
+            if (runtimeState.parameterData != null && runtimeState.parameterData.targetBlockPos != null) {
+                BlockPos target = runtimeState.parameterData.targetBlockPos;
                 customGoalProcess.setGoal(new GoalBlock(target.getX(), target.getY(), target.getZ()));
             }
             customGoalProcess.path();
@@ -4660,7 +4806,7 @@ public class Node {
         }
         
         IFarmProcess farmProcess = baritone.getFarmProcess();
-        PreciseCompletionTracker.getInstance().startTrackingTask(PreciseCompletionTracker.TASK_FARM, future);
+        trackBaritoneTask(PreciseCompletionTracker.TASK_FARM, future);
         
         switch (mode) {
             case FARM_RANGE:
@@ -4736,7 +4882,7 @@ public class Node {
         final int dropIterations = count;
         final boolean dropEntireStack = dropAll;
 
-        new Thread(() -> {
+        ExecutionManager.getInstance().getBlockingTaskExecutor().execute(() -> {
             try {
                 for (int i = 0; i < dropIterations; i++) {
                     runOnClientThread(client, () -> {
@@ -4754,7 +4900,7 @@ public class Node {
                 Thread.currentThread().interrupt();
                 future.completeExceptionally(e);
             }
-        }, "Pathmind-DropItem").start();
+        });
     }
     
     private void executeDropSlotCommand(CompletableFuture<Void> future) {
@@ -4942,100 +5088,107 @@ public class Node {
         }
 
         final int maxIterations = configuredCount == 0 ? Integer.MAX_VALUE : configuredCount;
+        UseSettings settings = new UseSettings(hand, maxIterations, useUntilEmpty, stopIfUnavailable,
+            ExecutionScheduler.secondsToTicks(durationSeconds), ExecutionScheduler.secondsToTicks(intervalSeconds),
+            allowBlock, allowEntity, swingAfterUse, sneakWhileUsing, restoreSneak);
+        runUseIteration(client, settings, 0, future);
+    }
 
-        new Thread(() -> {
-            try {
-                boolean previousSneak = false;
-
-                if (sneakWhileUsing) {
-                    previousSneak = supplyFromClient(client, () -> client.player.isSneaking());
-                }
-
-                int iteration = 0;
-                while (iteration < maxIterations) {
-                    ItemStack stack = supplyFromClient(client, () -> client.player.getStackInHand(hand).copy());
-                    if ((stack == null || stack.isEmpty()) && stopIfUnavailable) {
-                        break;
-                    }
-
-                    if (sneakWhileUsing) {
-                        runOnClientThread(client, () -> {
-                            client.player.setSneaking(true);
-                            if (client.options != null && client.options.sneakKey != null) {
-                                client.options.sneakKey.setPressed(true);
-                            }
-                        });
-                    }
-
-                    runOnClientThread(client, () -> {
-                        boolean performed = false;
-                        HitResult target = client.crosshairTarget;
-                        if (allowEntity && target instanceof EntityHitResult entityHit) {
-                            ActionResult entityResult = client.interactionManager.interactEntity(client.player, entityHit.getEntity(), hand);
-                            performed = entityResult.isAccepted();
-                        }
-                        if (!performed && allowBlock && target instanceof BlockHitResult blockHit) {
-                            ActionResult blockResult = client.interactionManager.interactBlock(client.player, hand, blockHit);
-                            performed = blockResult.isAccepted();
-                        }
-                        if (!performed) {
-                            client.interactionManager.interactItem(client.player, hand);
-                        }
-
-                        if (durationSeconds > 0.0 && client.options != null && client.options.useKey != null) {
-                            client.options.useKey.setPressed(true);
-                        }
-
-                        if (swingAfterUse) {
-                            client.player.swingHand(hand);
-                            if (client.player.networkHandler != null) {
-                                client.player.networkHandler.sendPacket(new HandSwingC2SPacket(hand));
-                            }
-                        }
-                    });
-
-                    if (durationSeconds > 0.0) {
-                        Thread.sleep((long) (durationSeconds * 1000));
-                        runOnClientThread(client, () -> {
-                            if (client.options != null && client.options.useKey != null) {
-                                client.options.useKey.setPressed(false);
-                            }
-                        });
-                    }
+    private record UseSettings(Hand hand, int maxIterations, boolean useUntilEmpty, boolean stopIfUnavailable,
+                               int durationTicks, int intervalTicks, boolean allowBlock, boolean allowEntity,
+                               boolean swingAfterUse, boolean sneakWhileUsing, boolean restoreSneak) {
+    }
 
-                    if (sneakWhileUsing && restoreSneak) {
-                        boolean sneakState = previousSneak;
-                        runOnClientThread(client, () -> {
-                            client.player.setSneaking(sneakState);
-                            if (client.options != null && client.options.sneakKey != null) {
-                                client.options.sneakKey.setPressed(sneakState);
-                            }
-                        });
-                    }
+    /**
+     * One USE iteration on the client thread; holds are queued on the input simulator and the next
+     * iteration is scheduled once they are released, so no thread waits between presses.
+     */
+    private void runUseIteration(net.minecraft.client.MinecraftClient client, UseSettings settings, int iteration,
+                                 CompletableFuture<Void> future) {
+        if (future.isDone()) {
+            return;
+        }
+        try {
+            net.minecraft.client.network.ClientPlayerEntity player = requireClientPlayer(client);
+            if (client.interactionManager == null) {
+                throw new IllegalStateException("Minecraft client not available");
+            }
+            if (player.getStackInHand(settings.hand()).isEmpty() && settings.stopIfUnavailable()) {
+                future.complete(null);
+                return;
+            }
 
-                    if (useUntilEmpty) {
-                        ItemStack afterUse = supplyFromClient(client, () -> client.player.getStackInHand(hand).copy());
-                        if (afterUse == null || afterUse.isEmpty()) {
-                            break;
-                        }
-                    }
+            InputSimulator input = InputSimulator.getInstance();
+            InputSimulator.Press sneakPress = null;
+            if (settings.sneakWhileUsing()) {
+                player.setSneaking(true);
+                sneakPress = input.press(InputSimulator.Input.SNEAK, 0);
+            }
 
-                    iteration++;
-                    if (iteration >= maxIterations) {
-                        break;
-                    }
+            boolean performed = false;
+            HitResult target = client.crosshairTarget;
+            if (settings.allowEntity() && target instanceof EntityHitResult entityHit) {
+                ActionResult entityResult = client.interactionManager.interactEntity(player, entityHit.getEntity(), settings.hand());
+                performed = entityResult.isAccepted();
+            }
+            if (!performed && settings.allowBlock() && target instanceof BlockHitResult blockHit) {
+                ActionResult blockResult = client.interactionManager.interactBlock(player, settings.hand(), blockHit);
+                performed = blockResult.isAccepted();
+            }
+            if (!performed) {
+                client.interactionManager.interactItem(player, settings.hand());
+            }
+            if (settings.swingAfterUse()) {
+                player.swingHand(settings.hand());
+                if (player.networkHandler != null) {
+                    player.networkHandler.sendPacket(new HandSwingC2SPacket(settings.hand()));
+                }
+            }
 
-                    if (intervalSeconds > 0.0) {
-                        Thread.sleep((long) (intervalSeconds * 1000));
+            CompletableFuture<Void> held = CompletableFuture.completedFuture(null);
+            if (settings.durationTicks() > 0) {
+                InputSimulator.Press usePress = input.press(InputSimulator.Input.USE, settings.durationTicks());
+                future.whenComplete((ignored, throwable) -> usePress.release());
+                held = usePress.released();
+            }
+            InputSimulator.Press activeSneak = sneakPress;
+            if (activeSneak != null) {
+                future.whenComplete((ignored, throwable) -> activeSneak.release());
+            }
+            held.whenComplete((ignored, throwable) -> {
+                if (activeSneak != null) {
+                    // Releasing the press restores whatever held sneak before; otherwise keep sneaking
+                    activeSneak.release();
+                    if (!settings.restoreSneak()) {
+                        input.setLatched(InputSimulator.Input.SNEAK, true);
                     }
                 }
+                continueUse(client, settings, iteration + 1, future);
+            });
+        } catch (RuntimeException e) {
+            future.completeExceptionally(e);
+        }
+    }
 
+    private void continueUse(net.minecraft.client.MinecraftClient client, UseSettings settings, int nextIteration,
+                             CompletableFuture<Void> future) {
+        if (future.isDone()) {
+            return;
+        }
+        try {
+            if (settings.useUntilEmpty() && requireClientPlayer(client).getStackInHand(settings.hand()).isEmpty()) {
                 future.complete(null);
-            } catch (InterruptedException e) {
-                Thread.currentThread().interrupt();
-                future.completeExceptionally(e);
+                return;
             }
-        }, "Pathmind-Use").start();
+            if (nextIteration >= settings.maxIterations()) {
+                future.complete(null);
+                return;
+            }
+            ExecutionScheduler.getInstance().runAfterTicks(settings.intervalTicks(),
+                () -> runUseIteration(client, settings, nextIteration, future));
+        } catch (RuntimeException e) {
+            future.completeExceptionally(e);
+        }
     }
 
     private void executePlaceHandCommand(CompletableFuture<Void> future) {
@@ -5056,10 +5209,7 @@ public class Node {
 
         boolean previousSneak = client.player.isSneaking();
         if (sneakWhilePlacing) {
-            client.player.setSneaking(true);
-            if (client.options != null && client.options.sneakKey != null) {
-                client.options.sneakKey.setPressed(true);
-            }
+            holdSneakUntilDone(client, future, restoreSneak);
         }
 
         boolean placed = false;
@@ -5085,9 +5235,6 @@ public class Node {
 
         if (sneakWhilePlacing && restoreSneak) {
             client.player.setSneaking(previousSneak);
-            if (client.options != null && client.options.sneakKey != null) {
-                client.options.sneakKey.setPressed(previousSneak);
-            }
         }
 
         future.complete(null);
@@ -5112,7 +5259,7 @@ public class Node {
         PlayerInventory inventory = client.player.getInventory();
         int slot = findHotbarSlotWithItem(inventory, targetItem);
         if (slot == -1) {
-            boolean elsewhere = inventory.contains(new ItemStack(targetItem));
+            boolean elsewhere = InventoryIndex.getInstance().contains(inventory, targetItem);
             if (elsewhere) {
                 throw new PlacementFailure("Cannot place block \"" + blockId + "\": move it to your hotbar first.");
             }
@@ -5160,14 +5307,7 @@ public class Node {
     }
 
     private int findHotbarSlotWithItem(PlayerInventory inventory, Item targetItem) {
-        int hotbarSize = PlayerInventory.getHotbarSize();
-        for (int slot = 0; slot < hotbarSize; slot++) {
-            ItemStack stack = inventory.getStack(slot);
-            if (!stack.isEmpty() && stack.isOf(targetItem)) {
-                return slot;
-            }
-        }
-        return -1;
+        return InventoryIndex.getInstance().findSlot(inventory, targetItem, 0, PlayerInventory.getHotbarSize());
     }
 
     private BlockHitResult preparePlacementHitResult(net.minecraft.client.MinecraftClient client, BlockPos targetPos, String blockId, Hand hand, double reachSquared) {
@@ -5425,20 +5565,44 @@ public class Node {
         int count = Math.max(1, getIntParameter("Count", 1));
         double intervalSeconds = Math.max(0.0, getDoubleParameter("IntervalSeconds", 0.0));
 
-        new Thread(() -> {
-            try {
-                for (int i = 0; i < count; i++) {
-                    runOnClientThread(client, () -> client.player.jump());
-                    if (intervalSeconds > 0.0 && i < count - 1) {
-                        Thread.sleep((long) (intervalSeconds * 1000));
-                    }
-                }
+        runInputPresses(InputSimulator.Input.JUMP, count, 1, ExecutionScheduler.secondsToTicks(intervalSeconds), future);
+    }
+
+    /**
+     * Press {@code input} {@code count} times for {@code holdTicks} each, waiting {@code intervalTicks}
+     * after each release. Completes once the last press has been let go.
+     */
+    private void runInputPresses(InputSimulator.Input input, int count, int holdTicks, int intervalTicks, CompletableFuture<Void> future) {
+        if (future.isDone()) {
+            return;
+        }
+        InputSimulator.Press press = InputSimulator.getInstance().press(input, holdTicks);
+        future.whenComplete((ignored, throwable) -> press.release());
+        press.released().thenRun(() -> {
+            if (count <= 1) {
                 future.complete(null);
-            } catch (InterruptedException e) {
-                Thread.currentThread().interrupt();
-                future.completeExceptionally(e);
+                return;
             }
-        }, "Pathmind-Jump").start();
+            ExecutionScheduler.getInstance().runAfterTicks(intervalTicks,
+                () -> runInputPresses(input, count - 1, holdTicks, intervalTicks, future));
+        });
+    }
+
+    /**
+     * Sneak for the rest of this node through the input simulator, so other chains' sneak presses and
+     * latches are merged rather than overwritten. Without {@code restoreSneak} the key stays latched
+     * once the node completes normally.
+     */
+    private void holdSneakUntilDone(net.minecraft.client.MinecraftClient client, CompletableFuture<Void> future, boolean restoreSneak) {
+        client.player.setSneaking(true);
+        InputSimulator input = InputSimulator.getInstance();
+        InputSimulator.Press sneakPress = input.press(InputSimulator.Input.SNEAK, 0);
+        future.whenComplete((ignored, throwable) -> {
+            sneakPress.release();
+            if (!restoreSneak && throwable == null) {
+                input.setLatched(InputSimulator.Input.SNEAK, true);
+            }
+        });
     }
     
     private void executeCrouchCommand(CompletableFuture<Void> future) {
@@ -5454,14 +5618,12 @@ public class Node {
         boolean active = getBooleanParameter("Active", true);
         boolean toggleKey = getBooleanParameter("ToggleKey", false);
         client.player.setSneaking(active);
-        if (client.options != null && client.options.sneakKey != null) {
-            if (toggleKey) {
-                client.options.sneakKey.setPressed(true);
-                client.options.sneakKey.setPressed(false);
-            } else {
-                client.options.sneakKey.setPressed(active);
-            }
+        if (toggleKey) {
+            // A one tick tap, for servers and mods that treat sneak as a toggle
+            InputSimulator.getInstance().press(InputSimulator.Input.SNEAK, 1).released().thenRun(() -> future.complete(null));
+            return;
         }
+        InputSimulator.getInstance().setLatched(InputSimulator.Input.SNEAK, active);
         future.complete(null);
     }
 
@@ -5483,6 +5645,8 @@ public class Node {
             return;
         }
 
+        // Keep the key down too, so sprint resumes after vanilla cancels it (hunger, collisions)
+        InputSimulator.getInstance().setLatched(InputSimulator.Input.SPRINT, active);
         boolean previous = client.player.isSprinting();
         client.player.setSprinting(active);
         if (client.player.networkHandler != null && previous != active) {
@@ -5512,22 +5676,16 @@ public class Node {
 
         boolean previousSneak = client.player.isSneaking();
         if (sneakWhileInteracting) {
-            client.player.setSneaking(true);
-            if (client.options != null && client.options.sneakKey != null) {
-                client.options.sneakKey.setPressed(true);
-            }
+            holdSneakUntilDone(client, future, restoreSneak);
         }
 
         Runnable restoreSneakState = () -> {
             if (sneakWhileInteracting && restoreSneak) {
                 client.player.setSneaking(previousSneak);
-                if (client.options != null && client.options.sneakKey != null) {
-                    client.options.sneakKey.setPressed(previousSneak);
-                }
             }
         };
 
-        RuntimeParameterData parameterData = runtimeParameterData;
+        RuntimeParameterData parameterData = runtimeState.parameterData;
         BlockPos parameterTargetPos = parameterData != null ? parameterData.targetBlockPos : null;
 
         NodeParameter blockParameter = getParameter("Block");
@@ -5565,7 +5723,7 @@ public class Node {
             }
             targetBlock = Registries.BLOCK.get(identifier);
             configuredBlockId = identifier.toString();
-            setParameterValueAndPropagate("Block", configuredBlockId);
+            setResolvedParameterValue("Block", configuredBlockId);
         }
 
         HitResult target = client.crosshairTarget;
@@ -5575,7 +5733,7 @@ public class Node {
         if (targetBlock != null || parameterTargetPos != null) {
             BlockPos targetPos = parameterTargetPos;
             if (targetPos == null && targetBlock != null) {
-                Optional<BlockPos> nearest = findNearestBlock(client, Collections.singletonList(targetBlock), PARAMETER_SEARCH_RADIUS);
+                Optional<BlockPos> nearest = findNearestBlock(client, ResourceMatchers.blocks(configuredBlockId), PARAMETER_SEARCH_RADIUS);
                 if (nearest.isPresent()) {
                     targetPos = nearest.get();
                 }
@@ -5603,7 +5761,7 @@ public class Node {
                 targetBlock = state.getBlock();
                 Identifier stateId = Registries.BLOCK.getId(targetBlock);
                 if (stateId != null) {
-                    setParameterValueAndPropagate("Block", stateId.toString());
+                    setResolvedParameterValue("Block", stateId.toString());
                 }
             }
 
@@ -5684,7 +5842,7 @@ public class Node {
         boolean sneakWhileAttacking = getBooleanParameter("SneakWhileAttacking", false);
         boolean restoreSneak = getBooleanParameter("RestoreSneakState", true);
 
-        RuntimeParameterData parameterData = runtimeParameterData;
+        RuntimeParameterData parameterData = runtimeState.parameterData;
 
         orientPlayerTowardsRuntimeTarget(client, parameterData);
 
@@ -5697,73 +5855,54 @@ public class Node {
         final boolean finalAttackEntities = attackEntities;
         final boolean finalAttackBlocks = attackBlocks;
 
-        new Thread(() -> {
-            try {
-                if (sneakWhileAttacking) {
-                    runOnClientThread(client, () -> {
-                        client.player.setSneaking(true);
-                        if (client.options != null && client.options.sneakKey != null) {
-                            client.options.sneakKey.setPressed(true);
-                        }
-                    });
-                }
-
-                for (int i = 0; i < repeatCount; i++) {
-                    runOnClientThread(client, () -> {
-                        if (parameterData != null) {
-                            if (parameterData.targetEntity != null && !parameterData.targetEntity.isAlive()) {
-                                parameterData.targetEntity = null;
-                            }
-                            orientPlayerTowardsRuntimeTarget(client, parameterData);
-                        }
-
-                        boolean performedAttack = false;
-                        HitResult target = client.crosshairTarget;
-                        if (!finalSwingOnly && finalAttackEntities) {
-                            Entity directEntity = null;
-                            if (parameterData != null && parameterData.targetEntity != null && parameterData.targetEntity.isAlive()) {
-                                directEntity = parameterData.targetEntity;
-                            } else if (target instanceof EntityHitResult entityHit) {
-                                directEntity = entityHit.getEntity();
-                            }
-
-                            if (directEntity != null) {
-                                client.interactionManager.attackEntity(client.player, directEntity);
-                                performedAttack = true;
-                            }
-                        }
+        if (sneakWhileAttacking) {
+            holdSneakUntilDone(client, future, restoreSneak);
+        }
 
-                        if (!finalSwingOnly && !performedAttack && target instanceof BlockHitResult blockHit && finalAttackBlocks) {
-                            client.interactionManager.attackBlock(blockHit.getBlockPos(), blockHit.getSide());
-                            performedAttack = true;
-                        }
+        Runnable restoreSneakState = null;
+        if (sneakWhileAttacking && restoreSneak) {
+            restoreSneakState = () -> {
+                if (client.player != null) {
+                    client.player.setSneaking(previousSneak);
+                }
+            };
+        }
 
-                        client.player.swingHand(hand);
-                        if (client.player.networkHandler != null) {
-                            client.player.networkHandler.sendPacket(new HandSwingC2SPacket(hand));
-                        }
-                    });
+        runTickLoop(repeatCount, ExecutionScheduler.secondsToTicks(intervalSeconds), iteration -> {
+            requireClientPlayer(client);
+            if (parameterData != null) {
+                if (parameterData.targetEntity != null && !parameterData.targetEntity.isAlive()) {
+                    parameterData.targetEntity = null;
+                }
+                orientPlayerTowardsRuntimeTarget(client, parameterData);
+            }
 
-                    if (intervalSeconds > 0.0 && i < repeatCount - 1) {
-                        Thread.sleep((long) (intervalSeconds * 1000));
-                    }
+            boolean performedAttack = false;
+            HitResult target = client.crosshairTarget;
+            if (!finalSwingOnly && finalAttackEntities) {
+                Entity directEntity = null;
+                if (parameterData != null && parameterData.targetEntity != null && parameterData.targetEntity.isAlive()) {
+                    directEntity = parameterData.targetEntity;
+                } else if (target instanceof EntityHitResult entityHit) {
+                    directEntity = entityHit.getEntity();
                 }
 
-                if (sneakWhileAttacking && restoreSneak) {
-                    runOnClientThread(client, () -> {
-                        client.player.setSneaking(previousSneak);
-                        if (client.options != null && client.options.sneakKey != null) {
-                            client.options.sneakKey.setPressed(previousSneak);
-                        }
-                    });
+                if (directEntity != null) {
+                    client.interactionManager.attackEntity(client.player, directEntity);
+                    performedAttack = true;
                 }
+            }
 
-                future.complete(null);
-            } catch (InterruptedException e) {
-                Thread.currentThread().interrupt();
-                future.completeExceptionally(e);
+            if (!finalSwingOnly && !performedAttack && target instanceof BlockHitResult blockHit && finalAttackBlocks) {
+                client.interactionManager.attackBlock(blockHit.getBlockPos(), blockHit.getSide());
+                performedAttack = true;
+            }
+
+            client.player.swingHand(hand);
+            if (client.player.networkHandler != null) {
+                client.player.networkHandler.sendPacket(new HandSwingC2SPacket(hand));
             }
-        }, "Pathmind-Attack").start();
+        }, restoreSneakState, future);
     }
 
     private void executeSwingCommand(CompletableFuture<Void> future) {
@@ -5780,26 +5919,12 @@ public class Node {
         int count = Math.max(1, getIntParameter("Count", 1));
         double intervalSeconds = Math.max(0.0, getDoubleParameter("IntervalSeconds", 0.0));
 
-        new Thread(() -> {
-            try {
-                for (int i = 0; i < count; i++) {
-                    runOnClientThread(client, () -> {
-                        client.player.swingHand(hand);
-                        if (client.player.networkHandler != null) {
-                            client.player.networkHandler.sendPacket(new HandSwingC2SPacket(hand));
-                        }
-                    });
-
-                    if (intervalSeconds > 0.0 && i < count - 1) {
-                        Thread.sleep((long) (intervalSeconds * 1000));
-                    }
-                }
-                future.complete(null);
-            } catch (InterruptedException e) {
-                Thread.currentThread().interrupt();
-                future.completeExceptionally(e);
+        runTickLoop(count, ExecutionScheduler.secondsToTicks(intervalSeconds), iteration -> {
+            requireClientPlayer(client).swingHand(hand);
+            if (client.player.networkHandler != null) {
+                client.player.networkHandler.sendPacket(new HandSwingC2SPacket(hand));
             }
-        }, "Pathmind-Swing").start();
+        }, null, future);
     }
     
     private void executeSwapHandsCommand(CompletableFuture<Void> future) {
@@ -5967,6 +6092,54 @@ public class Node {
         future.complete(null);
     }
 
+    /**
+     * Run {@code body} {@code iterations} times on the client thread, spacing iterations by
+     * {@code intervalTicks} using the execution scheduler instead of a sleeping thread.
+     * {@code onFinish} runs once after the last iteration, before the future completes.
+     */
+    private void runTickLoop(int iterations, int intervalTicks, java.util.function.IntConsumer body, Runnable onFinish, CompletableFuture<Void> future) {
+        runTickLoopFrom(0, iterations, intervalTicks, body, onFinish, future);
+    }
+
+    private void runTickLoopFrom(int startIteration, int iterations, int intervalTicks, java.util.function.IntConsumer body, Runnable onFinish, CompletableFuture<Void> future) {
+        if (future.isDone()) {
+            return;
+        }
+        try {
+            int iteration = startIteration;
+            while (iteration < iterations) {
+                body.accept(iteration);
+                iteration++;
+                if (iteration < iterations && intervalTicks > 0) {
+                    int nextIteration = iteration;
+                    ExecutionScheduler.getInstance().runAfterTicks(intervalTicks,
+                        () -> runTickLoopFrom(nextIteration, iterations, intervalTicks, body, onFinish, future));
+                    return;
+                }
+            }
+            if (onFinish != null) {
+                onFinish.run();
+            }
+            future.complete(null);
+        } catch (RuntimeException e) {
+            if (onFinish != null) {
+                try {
+                    onFinish.run();
+                } catch (RuntimeException ignored) {
+                    // The original failure is more useful to report
+                }
+            }
+            future.completeExceptionally(e);
+        }
+    }
+
+    private net.minecraft.client.network.ClientPlayerEntity requireClientPlayer(net.minecraft.client.MinecraftClient client) {
+        if (client == null || client.player == null) {
+            throw new IllegalStateException("Minecraft client not available");
+        }
+        return client.player;
+    }
+
     private void runOnClientThread(net.minecraft.client.MinecraftClient client, Runnable task) throws InterruptedException {
         if (client == null || client.isOnThread()) {
             task.run();
@@ -6133,13 +6306,10 @@ public class Node {
         }
         double searchRadius = Math.max(1.0, range);
         Box searchBox = client.player.getBoundingBox().expand(searchRadius);
-        List<ItemEntity> entities = client.world.getEntitiesByClass(ItemEntity.class, searchBox,
-            entity -> entity != null && !entity.isRemoved() && !entity.getStack().isEmpty() && entity.getStack().isOf(item));
-        if (entities.isEmpty()) {
-            return Optional.empty();
-        }
-        ItemEntity nearest = Collections.min(entities, Comparator.comparingDouble(entity -> entity.squaredDistanceTo(client.player)));
-        return Optional.of(nearest.getBlockPos());
+        return EntityIndex.getInstance().findNearest(client.world, EntityType.ITEM, client.player.getPos(), searchBox,
+                entity -> entity instanceof ItemEntity itemEntity && !itemEntity.isRemoved()
+                    && !itemEntity.getStack().isEmpty() && itemEntity.getStack().isOf(item))
+            .map(Entity::getBlockPos);
     }
 
     private Optional<Entity> findNearestEntity(net.minecraft.client.MinecraftClient client, EntityType<?> entityType, double range) {
@@ -6148,12 +6318,8 @@ public class Node {
         }
         double searchRadius = Math.max(1.0, range);
         Box searchBox = client.player.getBoundingBox().expand(searchRadius);
-        List<Entity> matches = client.world.getOtherEntities(client.player, searchBox, entity -> entity.getType() == entityType);
-        if (matches.isEmpty()) {
-            return Optional.empty();
-        }
-        Entity nearest = Collections.min(matches, Comparator.comparingDouble(entity -> entity.squaredDistanceTo(client.player)));
-        return Optional.of(nearest);
+        return EntityIndex.getInstance().findNearest(client.world, entityType, client.player.getPos(), searchBox,
+            entity -> entity != client.player);
     }
     
     private Hand resolveHand(NodeParameter parameter, Hand defaultHand) {
@@ -6168,10 +6334,7 @@ public class Node {
     }
 
     private void resetControlState() {
-        this.repeatRemainingIterations = 0;
-        this.repeatActive = false;
-        this.lastSensorResult = false;
-        this.nextOutputSocket = 0;
+        defaultRuntimeState.reset();
     }
     
     private enum SensorConditionType {
@@ -6427,14 +6590,29 @@ public class Node {
                 break;
         }
 
-        this.lastSensorResult = result;
+        runtimeState.lastSensorResult = result;
         return result;
     }
 
+    /**
+     * Have the central evaluator watch this sensor instead of polling it in a loop.
+     * {@code onRisingEdge} runs on the client thread each time the condition turns true.
+     */
+    public SensorSubscriptions.Subscription subscribe(Runnable onRisingEdge) {
+        return SensorSubscriptions.getInstance().subscribe(this, onRisingEdge);
+    }
+
+    /**
+     * Future completed on the first tick this sensor evaluates to true.
+     */
+    public CompletableFuture<Void> awaitTrue() {
+        return SensorSubscriptions.getInstance().awaitTrue(this);
+    }
+
     private boolean evaluateConditionFromParameters() {
         if (attachedSensor != null) {
             boolean result = attachedSensor.evaluateSensor();
-            this.lastSensorResult = result;
+            runtimeState.lastSensorResult = result;
             return result;
         }
 
@@ -6446,7 +6624,7 @@ public class Node {
         int y = getIntParameter("Y", 64);
         int z = getIntParameter("Z", 0);
         boolean result = evaluateSensorCondition(SensorConditionType.fromLabel(condition), blockId, entityId, x, y, z);
-        this.lastSensorResult = result;
+        runtimeState.lastSensorResult = result;
         return result;
     }
     
@@ -6471,11 +6649,10 @@ public class Node {
         if (client == null || client.player == null || blockId == null || blockId.isEmpty()) {
             return false;
         }
-        Identifier identifier = Identifier.tryParse(blockId);
-        if (identifier == null || !Registries.BLOCK.containsId(identifier)) {
+        Block block = ResourceMatchers.block(blockId);
+        if (block == null) {
             return false;
         }
-        Block block = Registries.BLOCK.get(identifier);
         Box box = client.player.getBoundingBox().expand(0.05);
         int minX = MathHelper.floor(box.minX);
         int maxX = MathHelper.floor(box.maxX);
@@ -6502,17 +6679,13 @@ public class Node {
         if (client == null || client.player == null || entityId == null || entityId.isEmpty()) {
             return false;
         }
-        Identifier identifier = Identifier.tryParse(entityId);
-        if (identifier == null || !Registries.ENTITY_TYPE.containsId(identifier)) {
+        EntityType<?> entityType = ResourceMatchers.entityType(entityId);
+        if (entityType == null) {
             return false;
         }
-        EntityType<?> entityType = Registries.ENTITY_TYPE.get(identifier);
-        List<Entity> entities = client.player.getWorld().getOtherEntities(
-            client.player,
-            client.player.getBoundingBox().expand(0.15),
-            entity -> entity.getType() == entityType
-        );
-        return !entities.isEmpty();
+        WorldObservation observation = WorldObservation.current(client);
+        return observation != null
+            && observation.hasEntity(entityType, observation.getPlayerBox().expand(0.15), null);
     }
     
     private boolean isAtCoordinates(int x, int y, int z) {
@@ -6529,11 +6702,10 @@ public class Node {
         if (client == null || client.player == null || blockId == null || blockId.isEmpty()) {
             return false;
         }
-        Identifier identifier = Identifier.tryParse(blockId);
-        if (identifier == null || !Registries.BLOCK.containsId(identifier)) {
+        Block block = ResourceMatchers.block(blockId);
+        if (block == null) {
             return false;
         }
-        Block block = Registries.BLOCK.get(identifier);
         Direction facing = client.player.getHorizontalFacing();
         BlockPos targetPos = client.player.getBlockPos().offset(facing);
         return client.player.getWorld().getBlockState(targetPos).isOf(block);
@@ -6544,11 +6716,10 @@ public class Node {
         if (client == null || client.player == null || blockId == null || blockId.isEmpty()) {
             return false;
         }
-        Identifier identifier = Identifier.tryParse(blockId);
-        if (identifier == null || !Registries.BLOCK.containsId(identifier)) {
+        Block block = ResourceMatchers.block(blockId);
+        if (block == null) {
             return false;
         }
-        Block block = Registries.BLOCK.get(identifier);
         BlockPos below = client.player.getBlockPos().down();
         return client.player.getWorld().getBlockState(below).isOf(block);
     }
@@ -6600,18 +6771,13 @@ public class Node {
         if (client == null || client.player == null || entityId == null || entityId.isEmpty()) {
             return false;
         }
-        Identifier identifier = Identifier.tryParse(entityId);
-        if (identifier == null || !Registries.ENTITY_TYPE.containsId(identifier)) {
+        EntityType<?> entityType = ResourceMatchers.entityType(entityId);
+        if (entityType == null) {
             return false;
         }
-        EntityType<?> entityType = Registries.ENTITY_TYPE.get(identifier);
-        Box searchBox = client.player.getBoundingBox().expand(range);
-        List<Entity> entities = client.player.getWorld().getOtherEntities(
-            client.player,
-            searchBox,
-            entity -> entity.getType() == entityType
-        );
-        return !entities.isEmpty();
+        WorldObservation observation = WorldObservation.current(client);
+        return observation != null
+            && observation.hasEntity(entityType, observation.getPlayerBox().expand(range), null);
     }
 
     private boolean hasItemInInventory(String itemId) {
@@ -6619,12 +6785,11 @@ public class Node {
         if (client == null || client.player == null || itemId == null || itemId.isEmpty()) {
             return false;
         }
-        Identifier identifier = Identifier.tryParse(itemId);
-        if (identifier == null || !Registries.ITEM.containsId(identifier)) {
+        Item item = ResourceMatchers.item(itemId);
+        if (item == null) {
             return false;
         }
-        net.minecraft.item.Item item = Registries.ITEM.get(identifier);
-        return client.player.getInventory().count(item) > 0;
+        return InventoryIndex.getInstance().contains(client.player.getInventory(), item);
     }
 
     private boolean isResourceRendered(String resourceId) {
@@ -6632,45 +6797,25 @@ public class Node {
         if (client == null || client.player == null || client.world == null || resourceId == null || resourceId.isEmpty()) {
             return false;
         }
-        String trimmed = resourceId.trim();
-        if (trimmed.isEmpty()) {
-            return false;
-        }
-        if (trimmed.indexOf(',') >= 0) {
-            String[] parts = trimmed.split(",");
-            for (String part : parts) {
-                if (part != null && !part.trim().isEmpty() && isResourceRendered(part.trim())) {
-                    return true;
-                }
+        for (ResourceMatchers.ResourceRef resource : ResourceMatchers.resources(resourceId)) {
+            if (isSingleResourceRendered(client, resource)) {
+                return true;
             }
-            return false;
         }
-        return isSingleResourceRendered(client, trimmed);
+        return false;
     }
 
-    private boolean isSingleResourceRendered(net.minecraft.client.MinecraftClient client, String resourceId) {
-        if (client == null || client.player == null || client.world == null || resourceId == null || resourceId.isEmpty()) {
-            return false;
-        }
-        String normalized = resourceId.contains(":")
-            ? resourceId.toLowerCase(Locale.ROOT)
-            : resourceId;
-        Identifier identifier = Identifier.tryParse(normalized);
-        if (identifier != null) {
-            if (Registries.BLOCK.containsId(identifier)) {
-                Block block = Registries.BLOCK.get(identifier);
-                return isBlockRendered(client, block);
-            }
-            if (Registries.ITEM.containsId(identifier)) {
-                Item item = Registries.ITEM.get(identifier);
-                return isItemRendered(client, item);
-            }
-            if (Registries.ENTITY_TYPE.containsId(identifier)) {
-                EntityType<?> entityType = Registries.ENTITY_TYPE.get(identifier);
-                return isEntityRendered(client, entityType);
-            }
+    private boolean isSingleResourceRendered(net.minecraft.client.MinecraftClient client, ResourceMatchers.ResourceRef resource) {
+        switch (resource.kind) {
+            case BLOCK:
+                return isBlockRendered(client, resource.block);
+            case ITEM:
+                return isItemRendered(client, resource.item);
+            case ENTITY:
+                return isEntityRendered(client, resource.entityType);
+            default:
+                return isPlayerRendered(client, resource.playerName);
         }
-        return isPlayerRendered(client, resourceId);
     }
 
     private boolean isBlockRendered(net.minecraft.client.MinecraftClient client, Block block) {
@@ -6678,7 +6823,7 @@ public class Node {
             return false;
         }
 
-        HitResult hitResult = client.crosshairTarget;
+        HitResult hitResult = WorldObservation.current(client).getCrosshairTarget();
         if (hitResult instanceof BlockHitResult blockHit) {
             BlockPos hitPos = blockHit.getBlockPos();
             if (client.world.getBlockState(hitPos).isOf(block)) {
@@ -6690,43 +6835,7 @@ public class Node {
         int viewDistance = client.options.getViewDistance().getValue();
         int horizontalRadius = MathHelper.clamp(viewDistance * 4, 8, 48);
         int verticalRadius = MathHelper.clamp(viewDistance * 2, 6, 32);
-        BlockPos.Mutable mutable = new BlockPos.Mutable();
-
-        for (int dx = -horizontalRadius; dx <= horizontalRadius; dx++) {
-            for (int dy = -verticalRadius; dy <= verticalRadius; dy++) {
-                for (int dz = -horizontalRadius; dz <= horizontalRadius; dz++) {
-                    mutable.set(playerPos.getX() + dx, playerPos.getY() + dy, playerPos.getZ() + dz);
-                    BlockState state = client.world.getBlockState(mutable);
-                    if (state.isOf(block) && isBlockVisible(client, mutable)) {
-                        return true;
-                    }
-                }
-            }
-        }
-        return false;
-    }
-
-    private boolean isBlockVisible(net.minecraft.client.MinecraftClient client, BlockPos pos) {
-        if (client == null || client.player == null || client.world == null) {
-            return false;
-        }
-        Vec3d cameraPos = client.gameRenderer.getCamera().getPos();
-        Vec3d target = Vec3d.ofCenter(pos);
-        RaycastContext context = new RaycastContext(
-            cameraPos,
-            target,
-            RaycastContext.ShapeType.COLLIDER,
-            RaycastContext.FluidHandling.NONE,
-            client.player
-        );
-        BlockHitResult hit = client.world.raycast(context);
-        if (hit == null) {
-            return false;
-        }
-        if (hit.getType() == HitResult.Type.MISS) {
-            return true;
-        }
-        return hit.getType() == HitResult.Type.BLOCK && hit.getBlockPos().equals(pos);
+        return VisibilityEngine.getInstance().isAnyBlockVisible(client, block, playerPos, horizontalRadius, verticalRadius);
     }
 
     private boolean isItemRendered(net.minecraft.client.MinecraftClient client, Item item) {
@@ -6738,7 +6847,7 @@ public class Node {
             return true;
         }
 
-        HitResult hitResult = client.crosshairTarget;
+        HitResult hitResult = WorldObservation.current(client).getCrosshairTarget();
         if (hitResult instanceof EntityHitResult entityHit) {
             Entity targetEntity = entityHit.getEntity();
             if (targetEntity instanceof ItemEntity itemEntity && !itemEntity.getStack().isEmpty() && itemEntity.getStack().isOf(item)) {
@@ -6746,15 +6855,12 @@ public class Node {
             }
         }
 
+        WorldObservation observation = WorldObservation.current(client);
         double renderDistance = Math.max(8.0, client.options.getViewDistance().getValue() * 4.0);
-        Box searchBox = client.player.getBoundingBox().expand(renderDistance);
-        List<ItemEntity> candidates = client.world.getEntitiesByClass(
-            ItemEntity.class,
-            searchBox,
-            entity -> entity != null && !entity.isRemoved() && !entity.getStack().isEmpty()
-                && entity.getStack().isOf(item) && client.player.canSee(entity)
-        );
-        return !candidates.isEmpty();
+        Box searchBox = observation.getPlayerBox().expand(renderDistance);
+        return observation.hasEntity(EntityType.ITEM, searchBox,
+            entity -> entity instanceof ItemEntity itemEntity && !itemEntity.isRemoved() && !itemEntity.getStack().isEmpty()
+                && itemEntity.getStack().isOf(item) && VisibilityEngine.getInstance().isEntityVisible(client, itemEntity));
     }
 
     private boolean isEntityRendered(net.minecraft.client.MinecraftClient client, EntityType<?> entityType) {
@@ -6762,19 +6868,16 @@ public class Node {
             return false;
         }
 
-        HitResult hitResult = client.crosshairTarget;
+        HitResult hitResult = WorldObservation.current(client).getCrosshairTarget();
         if (hitResult instanceof EntityHitResult entityHit && entityHit.getEntity() != null && entityHit.getEntity().getType() == entityType) {
             return true;
         }
 
+        WorldObservation observation = WorldObservation.current(client);
         double renderDistance = Math.max(8.0, client.options.getViewDistance().getValue() * 4.0);
-        Box searchBox = client.player.getBoundingBox().expand(renderDistance);
-        List<Entity> matches = client.world.getOtherEntities(
-            client.player,
-            searchBox,
-            entity -> entity != null && entity.isAlive() && entity.getType() == entityType && client.player.canSee(entity)
-        );
-        return !matches.isEmpty();
+        Box searchBox = observation.getPlayerBox().expand(renderDistance);
+        return observation.hasEntity(entityType, searchBox,
+            entity -> entity.isAlive() && VisibilityEngine.getInstance().isEntityVisible(client, entity));
     }
 
     private boolean isPlayerRendered(net.minecraft.client.MinecraftClient client, String playerName) {
@@ -6787,7 +6890,7 @@ public class Node {
             return false;
         }
 
-        HitResult hitResult = client.crosshairTarget;
+        HitResult hitResult = WorldObservation.current(client).getCrosshairTarget();
         if (hitResult instanceof EntityHitResult entityHit && entityHit.getEntity() instanceof AbstractClientPlayerEntity targetPlayer) {
             if (targetPlayer.getGameProfile().getName().equalsIgnoreCase(trimmed)) {
                 return true;
@@ -6805,7 +6908,7 @@ public class Node {
             if (playerEntity.squaredDistanceTo(client.player) > renderDistance * renderDistance) {
                 continue;
             }
-            if (client.player.canSee(playerEntity)) {
+            if (VisibilityEngine.getInstance().isEntityVisible(client, playerEntity)) {
                 return true;
             }
         }
@@ -0,0 +1,73 @@
+package com.pathmind.nodes;
+
+import com.pathmind.execution.PreciseCompletionTracker;
+
+import java.util.Map;
+
+/**
+ * Mutable execution state of a single node within one running chain.
+ * Keeping this outside of {@link Node} lets several chains (or replays) run the same
+ * graph at the same time without stepping on each other's loop counters, branch choices
+ * or resolved parameter values.
+ */
+public final class NodeRuntimeState {
+    int nextOutputSocket;
+    int repeatRemainingIterations;
+    boolean repeatActive;
+    boolean lastSensorResult;
+    Node.RuntimeParameterData parameterData;
+    Node.PrefetchedBlockSearch prefetchedBlockSearch;
+    long trackedTaskHandle;
+    // Parameter values resolved by the current execution (targets, block ids, look angles), by name
+    Map<String, NodeParameter> resolvedParameters;
+
+    public NodeRuntimeState() {
+        reset();
+    }
+
+    public void reset() {
+        this.nextOutputSocket = 0;
+        this.repeatRemainingIterations = 0;
+        this.repeatActive = false;
+        this.lastSensorResult = false;
+        this.parameterData = null;
+        this.prefetchedBlockSearch = null;
+        this.trackedTaskHandle = PreciseCompletionTracker.NO_TASK;
+        this.resolvedParameters = null;
+    }
+
+    void setNextOutputSocket(int socketIndex) {
+        this.nextOutputSocket = socketIndex < 0 ? Node.NO_OUTPUT : Math.max(0, socketIndex);
+    }
+
+    /**
+     * Returns the output socket chosen by the last execution and resets it to the default socket.
+     */
+    public int consumeNextOutputSocket() {
+        int value = this.nextOutputSocket;
+        this.nextOutputSocket = 0;
+        return value;
+    }
+
+    /**
+     * Whether the Baritone task started by this node's last execution is still being tracked.
+     */
+    public boolean hasPendingTrackedTask() {
+        return trackedTaskHandle != PreciseCompletionTracker.NO_TASK
+            && PreciseCompletionTracker.getInstance().isTaskPending(trackedTaskHandle);
+    }
+
+    /**
+     * Fail the Baritone task started by this node's last execution, leaving other chains' tasks alone.
+     */
+    public void cancelTrackedTask() {
+        if (trackedTaskHandle != PreciseCompletionTracker.NO_TASK) {
+            PreciseCompletionTracker.getInstance().cancelTask(trackedTaskHandle);
+            trackedTaskHandle = PreciseCompletionTracker.NO_TASK;
+        }
+    }
+
+    public boolean getLastSensorResult() {
+        return lastSensorResult;
+    }
+}
@@ -9,6 +9,13 @@ public enum NodeType {
     START("Start", 0xFF4CAF50, "Begins the automation sequence"),
     EVENT_FUNCTION("Function", 0xFFE91E63, "Runs a named function body when triggered"),
     EVENT_CALL("Call Function", 0xFFE91E63, "Triggers the execution of a named function"),
+    EVENT_WHEN("When", 0xFFE91E63, "Calls a function each time its sensor becomes true"),
+    EVENT_ON_CHAT("On Chat", 0xFFE91E63, "Calls a function when a chat message matches a pattern"),
+    EVENT_ON_DAMAGE("On Damage", 0xFFE91E63, "Calls a function when the player takes damage"),
+    EVENT_ON_INVENTORY_CHANGE("On Inventory Change", 0xFFE91E63, "Calls a function when the inventory changes"),
+    EVENT_ON_BLOCK_BROKEN("On Block Broken", 0xFFE91E63, "Calls a function when the player breaks a block"),
+    EVENT_ON_DIMENSION_CHANGE("On Dimension Change", 0xFFE91E63, "Calls a function when the player changes dimension"),
+    EVENT_ON_SCREEN_OPEN("On Screen Open", 0xFFE91E63, "Calls a function when a screen opens"),
     
     // Navigation Commands
     GOTO("Goto", 0xFF00BCD4, "Moves to specified coordinates"),
@@ -162,6 +169,13 @@ public enum NodeType {
             case START:
             case EVENT_FUNCTION:
             case EVENT_CALL:
+            case EVENT_WHEN:
+            case EVENT_ON_CHAT:
+            case EVENT_ON_DAMAGE:
+            case EVENT_ON_INVENTORY_CHANGE:
+            case EVENT_ON_BLOCK_BROKEN:
+            case EVENT_ON_DIMENSION_CHANGE:
+            case EVENT_ON_SCREEN_OPEN:
                 return NodeCategory.EVENTS;
             case CONTROL_REPEAT:
             case CONTROL_REPEAT_UNTIL:
@@ -267,6 +281,13 @@ public enum NodeType {
         switch (this) {
             case EVENT_FUNCTION:
             case EVENT_CALL:
+            case EVENT_WHEN:
+            case EVENT_ON_CHAT:
+            case EVENT_ON_DAMAGE:
+            case EVENT_ON_INVENTORY_CHANGE:
+            case EVENT_ON_BLOCK_BROKEN:
+            case EVENT_ON_DIMENSION_CHANGE:
+            case EVENT_ON_SCREEN_OPEN:
             case GOTO:
             case GOAL:
             case COLLECT:
@@ -0,0 +1,229 @@
+package com.pathmind.nodes;
+
+import com.pathmind.world.NearestBlockSearch;
+import net.minecraft.block.Block;
+import net.minecraft.entity.EntityType;
+import net.minecraft.item.Item;
+import net.minecraft.registry.Registries;
+import net.minecraft.registry.Registry;
+import net.minecraft.util.Identifier;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * Resolution cache for the block, item and entity ids typed into node parameters.
+ * Each distinct parameter string is parsed and looked up in the registries once; afterwards
+ * the compiled result is returned directly. Parameter values are held by their
+ * {@link NodeParameter}, so repeated checks hit the cache with the very same string instance
+ * and a sensor polled every tick does no parsing or registry lookups. Editing a parameter
+ * produces a new string and therefore a fresh entry.
+ */
+final class ResourceMatchers {
+    private static final int MAX_CACHED_VALUES = 512;
+
+    private static final Map<String, Optional<Block>> BLOCKS = new ConcurrentHashMap<>();
+    private static final Map<String, BlockMatcher> BLOCK_LISTS = new ConcurrentHashMap<>();
+    private static final Map<String, Optional<Item>> ITEMS = new ConcurrentHashMap<>();
+    private static final Map<String, Optional<EntityType<?>>> ENTITY_TYPES = new ConcurrentHashMap<>();
+    private static final Map<String, List<ResourceRef>> RESOURCE_LISTS = new ConcurrentHashMap<>();
+
+    private ResourceMatchers() {
+    }
+
+    enum ResourceKind {
+        BLOCK,
+        ITEM,
+        ENTITY,
+        PLAYER
+    }
+
+    /**
+     * One entry of an IS_RENDERED resource list: a registry object, or a player name when the id matched nothing.
+     */
+    static final class ResourceRef {
+        final ResourceKind kind;
+        final Block block;
+        final Item item;
+        final EntityType<?> entityType;
+        final String playerName;
+
+        private ResourceRef(ResourceKind kind, Block block, Item item, EntityType<?> entityType, String playerName) {
+            this.kind = kind;
+            this.block = block;
+            this.item = item;
+            this.entityType = entityType;
+            this.playerName = playerName;
+        }
+    }
+
+    /**
+     * Compiled block list, in parameter order, along with the raw state ids the block searches match on.
+     */
+    static final class BlockMatcher {
+        static final BlockMatcher EMPTY = new BlockMatcher(Collections.emptyList());
+
+        private final List<Block> blocks;
+        private volatile BitSet stateIds;
+        private volatile BlockMatcher lastUnionOther;
+        private volatile BlockMatcher lastUnion;
+
+        private BlockMatcher(List<Block> blocks) {
+            this.blocks = Collections.unmodifiableList(blocks);
+        }
+
+        List<Block> getBlocks() {
+            return blocks;
+        }
+
+        boolean isEmpty() {
+            return blocks.isEmpty();
+        }
+
+        /**
+         * Raw state ids of every state of the listed blocks, built on first use. Callers must not modify it.
+         */
+        BitSet getStateIds() {
+            BitSet ids = stateIds;
+            if (ids == null) {
+                ids = NearestBlockSearch.toStateIdSet(blocks);
+                stateIds = ids;
+            }
+            return ids;
+        }
+
+        /**
+         * This list followed by {@code other}; the last combination is memoized since callers keep
+         * pairing the same two parameter values.
+         */
+        BlockMatcher union(BlockMatcher other) {
+            if (other == null || other.isEmpty()) {
+                return this;
+            }
+            if (isEmpty()) {
+                return other;
+            }
+            BlockMatcher cached = lastUnion;
+            if (cached != null && lastUnionOther == other) {
+                return cached;
+            }
+            List<Block> combined = new ArrayList<>(blocks.size() + other.blocks.size());
+            combined.addAll(blocks);
+            combined.addAll(other.blocks);
+            BlockMatcher union = new BlockMatcher(combined);
+            lastUnion = union;
+            lastUnionOther = other;
+            return union;
+        }
+    }
+
+    /**
+     * Single block id, or {@code null} when it does not name a registered block.
+     */
+    static Block block(String id) {
+        if (id == null || id.isEmpty()) {
+            return null;
+        }
+        return cached(BLOCKS, id, value -> lookup(value, Registries.BLOCK)).orElse(null);
+    }
+
+    /**
+     * Comma separated block ids; unknown entries are skipped.
+     */
+    static BlockMatcher blocks(String value) {
+        if (value == null || value.isEmpty()) {
+            return BlockMatcher.EMPTY;
+        }
+        return cached(BLOCK_LISTS, value, raw -> {
+            List<Block> blocks = new ArrayList<>();
+            for (String entry : raw.split(",")) {
+                lookup(entry.trim(), Registries.BLOCK).ifPresent(blocks::add);
+            }
+            return blocks.isEmpty() ? BlockMatcher.EMPTY : new BlockMatcher(blocks);
+        });
+    }
+
+    static Item item(String id) {
+        if (id == null || id.isEmpty()) {
+            return null;
+        }
+        return cached(ITEMS, id, value -> lookup(value, Registries.ITEM)).orElse(null);
+    }
+
+    static EntityType<?> entityType(String id) {
+        if (id == null || id.isEmpty()) {
+            return null;
+        }
+        return cached(ENTITY_TYPES, id, value -> ResourceMatchers.<EntityType<?>>lookup(value, Registries.ENTITY_TYPE)).orElse(null);
+    }
+
+    /**
+     * Comma separated IS_RENDERED targets. Namespaced ids are matched case-insensitively against
+     * blocks, then items, then entity types; anything else is treated as a player name.
+     */
+    static List<ResourceRef> resources(String value) {
+        if (value == null) {
+            return Collections.emptyList();
+        }
+        return cached(RESOURCE_LISTS, value, raw -> {
+            List<ResourceRef> refs = new ArrayList<>();
+            for (String part : raw.split(",")) {
+                String trimmed = part.trim();
+                if (!trimmed.isEmpty()) {
+                    refs.add(compileResource(trimmed));
+                }
+            }
+            return Collections.unmodifiableList(refs);
+        });
+    }
+
+    private static ResourceRef compileResource(String resourceId) {
+        String normalized = resourceId.contains(":")
+            ? resourceId.toLowerCase(Locale.ROOT)
+            : resourceId;
+        Identifier identifier = Identifier.tryParse(normalized);
+        if (identifier != null) {
+            if (Registries.BLOCK.containsId(identifier)) {
+                return new ResourceRef(ResourceKind.BLOCK, Registries.BLOCK.get(identifier), null, null, null);
+            }
+            if (Registries.ITEM.containsId(identifier)) {
+                return new ResourceRef(ResourceKind.ITEM, null, Registries.ITEM.get(identifier), null, null);
+            }
+            if (Registries.ENTITY_TYPE.containsId(identifier)) {
+                return new ResourceRef(ResourceKind.ENTITY, null, null, Registries.ENTITY_TYPE.get(identifier), null);
+            }
+        }
+        return new ResourceRef(ResourceKind.PLAYER, null, null, null, resourceId);
+    }
+
+    private static <T> Optional<T> lookup(String id, Registry<T> registry) {
+        if (id == null || id.isEmpty()) {
+            return Optional.empty();
+        }
+        Identifier identifier = Identifier.tryParse(id);
+        if (identifier == null || !registry.containsId(identifier)) {
+            return Optional.empty();
+        }
+        return Optional.of(registry.get(identifier));
+    }
+
+    private static <V> V cached(Map<String, V> cache, String key, Function<String, V> compiler) {
+        V value = cache.get(key);
+        if (value != null) {
+            return value;
+        }
+        value = compiler.apply(key);
+        if (cache.size() >= MAX_CACHED_VALUES) {
+            cache.clear();
+        }
+        cache.put(key, value);
+        return value;
+    }
+}
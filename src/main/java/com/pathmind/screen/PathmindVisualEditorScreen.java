@@ -142,6 +142,7 @@ public class PathmindVisualEditorScreen extends Screen {
     @Override
     public void tick() {
         super.tick();
+        nodeGraph.tickAutosave();
     }
 
     @Override
@@ -510,6 +511,7 @@ public class PathmindVisualEditorScreen extends Screen {
                         this.width,
                         this.height,
                         TITLE_BAR_HEIGHT,
+                        () -> nodeGraph.notifyNodeParametersChanged(clickedNode),
                         () -> parameterOverlay = null // Clear reference on close
                     );
                     parameterOverlay.init();
@@ -1186,14 +1188,15 @@ public class PathmindVisualEditorScreen extends Screen {
 
         String selection;
         try (MemoryStack stack = MemoryStack.stackPush()) {
-            PointerBuffer filters = stack.mallocPointer(1);
+            PointerBuffer filters = stack.mallocPointer(2);
             filters.put(stack.UTF8("*.json"));
+            filters.put(stack.UTF8("*.pmg"));
             filters.flip();
             selection = TinyFileDialogs.tinyfd_openFileDialog(
                     "Import Workspace",
                     defaultPath,
                     filters,
-                    "JSON Files",
+                    "Pathmind Workspaces (JSON, PMG)",
                     false
             );
         }
@@ -1225,14 +1228,15 @@ public class PathmindVisualEditorScreen extends Screen {
 
         String selection;
         try (MemoryStack stack = MemoryStack.stackPush()) {
-            PointerBuffer filters = stack.mallocPointer(1);
+            PointerBuffer filters = stack.mallocPointer(2);
             filters.put(stack.UTF8("*.json"));
+            filters.put(stack.UTF8("*.pmg"));
             filters.flip();
             selection = TinyFileDialogs.tinyfd_saveFileDialog(
                     "Export Workspace",
                     defaultPathString,
                     filters,
-                    "JSON Files"
+                    "Pathmind Workspaces (JSON, PMG)"
             );
         }
 
@@ -1,6 +1,7 @@
 package com.pathmind.ui;
 
 import com.pathmind.data.NodeGraphData;
+import com.pathmind.data.NodeGraphMaterializer;
 import com.pathmind.data.NodeGraphPersistence;
 import com.pathmind.data.PresetManager;
 import com.pathmind.nodes.Node;
@@ -8,9 +9,9 @@ import com.pathmind.nodes.NodeCategory;
 import com.pathmind.nodes.NodeConnection;
 import com.pathmind.nodes.NodeParameter;
 import com.pathmind.nodes.NodeType;
-import com.pathmind.nodes.ParameterType;
 import com.pathmind.execution.ExecutionManager;
 import org.lwjgl.glfw.GLFW;
+import net.minecraft.client.MinecraftClient;
 import net.minecraft.client.gui.DrawContext;
 import net.minecraft.client.font.TextRenderer;
 import net.minecraft.text.Text;
@@ -86,6 +87,9 @@ public class NodeGraph {
     private final Set<Node> cascadeDeletionPreviewNodes;
 
     private static final long COORDINATE_CARET_BLINK_INTERVAL_MS = 500;
+    // Autosave once edits pause this long, but never hold a burst back longer than the cap
+    private static final long AUTOSAVE_DEBOUNCE_MS = 400;
+    private static final long AUTOSAVE_MAX_DELAY_MS = 2000;
     private static final String[] COORDINATE_AXES = {"X", "Y", "Z"};
 
     private Node coordinateEditingNode = null;
@@ -100,6 +104,10 @@ public class NodeGraph {
     private long amountCaretLastToggleTime = 0L;
     private boolean amountCaretVisible = true;
     private boolean workspaceDirty = false;
+    private boolean autosavePending = false;
+    private long autosaveFirstRequestTime = 0L;
+    private long autosaveLastRequestTime = 0L;
+    private int editGeneration = 0;
 
     public NodeGraph() {
         this.nodes = new ArrayList<>();
@@ -2196,6 +2204,7 @@ public class NodeGraph {
      * Save the current node graph to disk
      */
     public boolean save() {
+        autosavePending = false;
         boolean saved = NodeGraphPersistence.saveNodeGraphForPreset(activePreset, nodes, connections);
         if (saved) {
             workspaceDirty = false;
@@ -2255,7 +2264,43 @@ public class NodeGraph {
             return;
         }
         markWorkspaceDirty();
-        save();
+        ExecutionManager.getInstance().onNodeParametersChanged(node);
+        requestAutosave();
+    }
+
+    /**
+     * Queue a background save. Bursts of edits (typing into a field) are coalesced into one write.
+     */
+    public void requestAutosave() {
+        long now = System.currentTimeMillis();
+        if (!autosavePending) {
+            autosavePending = true;
+            autosaveFirstRequestTime = now;
+        }
+        autosaveLastRequestTime = now;
+        editGeneration++;
+    }
+
+    /**
+     * Start a pending autosave once it is due. Called every client tick by the editor screen.
+     */
+    public void tickAutosave() {
+        if (!autosavePending) {
+            return;
+        }
+        long now = System.currentTimeMillis();
+        if (now - autosaveLastRequestTime < AUTOSAVE_DEBOUNCE_MS && now - autosaveFirstRequestTime < AUTOSAVE_MAX_DELAY_MS) {
+            return;
+        }
+        autosavePending = false;
+        int savedGeneration = editGeneration;
+        NodeGraphPersistence.saveNodeGraphForPresetAsync(activePreset, nodes, connections)
+            .thenAccept(saved -> MinecraftClient.getInstance().execute(() -> {
+                // Edits made while the write was running keep the workspace dirty
+                if (saved && savedGeneration == editGeneration && !autosavePending) {
+                    workspaceDirty = false;
+                }
+            }));
     }
 
     public void clearWorkspace() {
@@ -2319,137 +2364,9 @@ public class NodeGraph {
         selectedNode = null;
         draggingNode = null;
 
-        // Load nodes and create node map for connections
-        java.util.Map<String, Node> nodeMap = new java.util.HashMap<>();
-        for (NodeGraphData.NodeData nodeData : data.getNodes()) {
-            Node node = new Node(nodeData.getType(), nodeData.getX(), nodeData.getY());
-
-            // Set the same ID using reflection
-            try {
-                java.lang.reflect.Field idField = Node.class.getDeclaredField("id");
-                idField.setAccessible(true);
-                idField.set(node, nodeData.getId());
-            } catch (Exception e) {
-                System.err.println("Failed to set node ID: " + e.getMessage());
-            }
-
-            // Set the mode if it exists (this will reinitialize parameters)
-            if (nodeData.getMode() != null) {
-                node.setMode(nodeData.getMode());
-            }
-
-            // Restore parameters (overwrite the default parameters with saved ones)
-            node.getParameters().clear();
-            if (nodeData.getParameters() != null) {
-                for (NodeGraphData.ParameterData paramData : nodeData.getParameters()) {
-                    ParameterType paramType = ParameterType.valueOf(paramData.getType());
-                    NodeParameter param = new NodeParameter(paramData.getName(), paramType, paramData.getValue());
-                    node.getParameters().add(param);
-                }
-            }
-            node.recalculateDimensions();
-
-            nodes.add(node);
-            nodeMap.put(nodeData.getId(), node);
-        }
-
-        // Restore sensor attachments
-        for (NodeGraphData.NodeData nodeData : data.getNodes()) {
-            if (nodeData.getAttachedSensorId() != null) {
-                Node control = nodeMap.get(nodeData.getId());
-                Node sensor = nodeMap.get(nodeData.getAttachedSensorId());
-                if (control != null && sensor != null) {
-                    control.attachSensor(sensor);
-                }
-            }
-        }
-
-        for (NodeGraphData.NodeData nodeData : data.getNodes()) {
-            if (nodeData.getParentControlId() != null) {
-                Node sensor = nodeMap.get(nodeData.getId());
-                Node control = nodeMap.get(nodeData.getParentControlId());
-                if (sensor != null && control != null && sensor.isSensorNode()) {
-                    control.attachSensor(sensor);
-                }
-            }
-        }
-
-        for (NodeGraphData.NodeData nodeData : data.getNodes()) {
-            if (nodeData.getAttachedActionId() != null) {
-                Node control = nodeMap.get(nodeData.getId());
-                Node child = nodeMap.get(nodeData.getAttachedActionId());
-                if (control != null && child != null) {
-                    control.attachActionNode(child);
-                }
-            }
-        }
-
-        for (NodeGraphData.NodeData nodeData : data.getNodes()) {
-            if (nodeData.getParentActionControlId() != null) {
-                Node child = nodeMap.get(nodeData.getId());
-                Node control = nodeMap.get(nodeData.getParentActionControlId());
-                if (child != null && control != null && control.canAcceptActionNode(child)) {
-                    control.attachActionNode(child);
-                }
-            }
-        }
-
-        for (NodeGraphData.NodeData nodeData : data.getNodes()) {
-            List<NodeGraphData.ParameterAttachmentData> attachments = nodeData.getParameterAttachments();
-            if (attachments != null && !attachments.isEmpty()) {
-                Node host = nodeMap.get(nodeData.getId());
-                if (host != null) {
-                    attachments.sort(java.util.Comparator.comparingInt(NodeGraphData.ParameterAttachmentData::getSlotIndex));
-                    for (NodeGraphData.ParameterAttachmentData attachment : attachments) {
-                        Node parameter = nodeMap.get(attachment.getParameterNodeId());
-                        if (parameter != null) {
-                            host.attachParameter(parameter, attachment.getSlotIndex());
-                        }
-                    }
-                }
-            } else if (nodeData.getAttachedParameterId() != null) {
-                Node host = nodeMap.get(nodeData.getId());
-                Node parameter = nodeMap.get(nodeData.getAttachedParameterId());
-                if (host != null && parameter != null) {
-                    host.attachParameter(parameter);
-                }
-            }
-        }
-
-        for (NodeGraphData.NodeData nodeData : data.getNodes()) {
-            List<NodeGraphData.ParameterAttachmentData> attachments = nodeData.getParameterAttachments();
-            if (attachments != null && !attachments.isEmpty()) {
-                continue;
-            }
-            if (nodeData.getParentParameterHostId() != null) {
-                Node parameter = nodeMap.get(nodeData.getId());
-                Node host = nodeMap.get(nodeData.getParentParameterHostId());
-                if (parameter != null && host != null && parameter.isParameterNode()) {
-                    host.attachParameter(parameter);
-                }
-            }
-        }
-
-        // Load connections
-        for (NodeGraphData.ConnectionData connData : data.getConnections()) {
-            Node outputNode = nodeMap.get(connData.getOutputNodeId());
-            Node inputNode = nodeMap.get(connData.getInputNodeId());
-
-            if (outputNode != null && inputNode != null) {
-                if (outputNode.isSensorNode() || inputNode.isSensorNode()) {
-                    continue;
-                }
-                NodeConnection connection = new NodeConnection(
-                    outputNode,
-                    inputNode,
-                    connData.getOutputSocket(),
-                    connData.getInputSocket()
-                );
-                connections.add(connection);
-            } else {
-                System.err.println("Failed to restore connection: missing node(s)");
-            }
-        }
+        NodeGraphMaterializer.Result materialized = NodeGraphMaterializer.materialize(data);
+        nodes.addAll(materialized.nodes());
+        connections.addAll(materialized.connections());
 
         sensorDropTarget = null;
         actionDropTarget = null;
@@ -46,6 +46,7 @@ public class NodeParameterOverlay {
     private int scrollOffset;
     private ButtonWidget saveButton;
     private ButtonWidget cancelButton;
+    private final Runnable onSave;
     private final Runnable onClose;
     private boolean visible = false;
     private int focusedFieldIndex = -1;
@@ -56,8 +57,9 @@ public class NodeParameterOverlay {
     private boolean modeDropdownOpen = false;
     private int modeDropdownHoverIndex = -1;
 
-    public NodeParameterOverlay(Node node, int screenWidth, int screenHeight, int topBarHeight, Runnable onClose) {
+    public NodeParameterOverlay(Node node, int screenWidth, int screenHeight, int topBarHeight, Runnable onSave, Runnable onClose) {
         this.node = node;
+        this.onSave = onSave;
         this.onClose = onClose;
         this.parameterValues = new ArrayList<>();
         this.fieldFocused = new ArrayList<>();
@@ -507,6 +509,9 @@ public class NodeParameterOverlay {
         }
 
         node.recalculateDimensions();
+        if (onSave != null) {
+            onSave.run();
+        }
 
         close();
     }
@@ -0,0 +1,253 @@
+package com.pathmind.world;
+
+import com.pathmind.execution.ExecutionScheduler;
+import net.minecraft.block.Block;
+import net.minecraft.block.BlockState;
+import net.minecraft.client.MinecraftClient;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.util.math.ChunkSectionPos;
+import net.minecraft.world.World;
+import net.minecraft.world.chunk.ChunkSection;
+import net.minecraft.world.chunk.PalettedContainer;
+import net.minecraft.world.chunk.WorldChunk;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Supplier;
+
+/**
+ * Runs large nearest-block searches without stalling the client thread.
+ * The search goes outward one shell of sections at a time: the client thread checks the shell's
+ * section palettes and copies the block-state containers that may hold a target, a bounded number
+ * per tick, then a worker searches those copies. The job stops at the first shell past which no
+ * closer match can exist and the result is handed back as a future.
+ */
+public final class BlockScanService {
+    private static final int PALETTE_CHECK_BUDGET_PER_TICK = 512;
+    private static final int SECTION_COPY_BUDGET_PER_TICK = 24;
+
+    private static BlockScanService instance;
+
+    private final ExecutorService workers;
+
+    private BlockScanService() {
+        int threads = Math.max(1, Math.min(4, Runtime.getRuntime().availableProcessors() / 2));
+        this.workers = Executors.newFixedThreadPool(threads,
+            Thread.ofPlatform().name("Pathmind-BlockScan-", 0).daemon().factory());
+    }
+
+    public static BlockScanService getInstance() {
+        if (instance == null) {
+            instance = new BlockScanService();
+        }
+        return instance;
+    }
+
+    /**
+     * Find the block closest to {@code origin} within a cube of the given radius.
+     * The returned future completes on a worker thread; cancelling it stops any remaining copy work.
+     */
+    public CompletableFuture<Optional<BlockPos>> findNearest(World world, BlockPos origin, int radius, Collection<Block> blocks) {
+        return findNearest(world, () -> origin, radius, blocks);
+    }
+
+    /**
+     * Find the block closest to a moving origin, such as the player. The origin is read again before
+     * each shell, so the answer is relative to where it is when the search finishes rather than where
+     * it was when the search started.
+     */
+    public CompletableFuture<Optional<BlockPos>> findNearest(World world, Supplier<BlockPos> origin, int radius, Collection<Block> blocks) {
+        return findNearest(world, origin, radius, NearestBlockSearch.toStateIdSet(blocks));
+    }
+
+    /**
+     * Same as above for callers that keep the state ids of their block list, see
+     * {@link NearestBlockSearch#toStateIdSet}. The set is only read.
+     */
+    public CompletableFuture<Optional<BlockPos>> findNearest(World world, Supplier<BlockPos> origin, int radius, BitSet stateIds) {
+        BlockPos start = origin != null ? origin.get() : null;
+        NearestBlockSearch.SearchState search = NearestBlockSearch.SearchState.create(world, start, radius, stateIds);
+        if (search == null) {
+            return CompletableFuture.completedFuture(Optional.empty());
+        }
+
+        ScanJob job = new ScanJob(world, origin, start, radius, stateIds, search);
+        MinecraftClient client = MinecraftClient.getInstance();
+        if (client != null && client.isOnThread()) {
+            job.copyStep();
+        } else {
+            ExecutionScheduler.getInstance().runAfterTicks(0, job::copyStep);
+        }
+        return job.result;
+    }
+
+    private static final class SectionSnapshot {
+        final int sectionX;
+        final int sectionY;
+        final int sectionZ;
+        final PalettedContainer<BlockState> states;
+
+        SectionSnapshot(int sectionX, int sectionY, int sectionZ, PalettedContainer<BlockState> states) {
+            this.sectionX = sectionX;
+            this.sectionY = sectionY;
+            this.sectionZ = sectionZ;
+            this.states = states;
+        }
+    }
+
+    /**
+     * The client thread and the worker take turns: the worker only runs once a shell is fully copied,
+     * and copying resumes only after the worker is done with it, so the job needs no locking.
+     */
+    private final class ScanJob {
+        private final World world;
+        private final Supplier<BlockPos> originSupplier;
+        private final int radius;
+        private final BitSet stateIds;
+        private final List<int[]> pendingSections;
+        private final List<SectionSnapshot> snapshots;
+        private final CompletableFuture<Optional<BlockPos>> result;
+        private NearestBlockSearch.SearchState search;
+        private BlockPos origin;
+        private int shell;
+        private int cursor;
+        private int searchedSnapshots;
+
+        ScanJob(World world, Supplier<BlockPos> originSupplier, BlockPos origin, int radius, BitSet stateIds,
+                NearestBlockSearch.SearchState search) {
+            this.world = world;
+            this.originSupplier = originSupplier;
+            this.origin = origin;
+            this.radius = radius;
+            this.stateIds = stateIds;
+            this.search = search;
+            this.pendingSections = new ArrayList<>();
+            this.snapshots = new ArrayList<>();
+            this.result = new CompletableFuture<>();
+            this.shell = -1;
+            this.cursor = 0;
+            this.searchedSnapshots = 0;
+        }
+
+        /**
+         * Client-thread phase: check palettes and copy candidate sections of the current shell until this
+         * tick's budget is spent. Shells without candidates are skipped right away.
+         */
+        void copyStep() {
+            if (result.isDone()) {
+                return;
+            }
+
+            int checks = 0;
+            int copies = 0;
+            while (checks < PALETTE_CHECK_BUDGET_PER_TICK && copies < SECTION_COPY_BUDGET_PER_TICK) {
+                if (cursor >= pendingSections.size()) {
+                    if (searchedSnapshots < snapshots.size()) {
+                        searchShellAsync();
+                        return;
+                    }
+                    if (isSettled()) {
+                        result.complete(Optional.ofNullable(search.bestPos));
+                        return;
+                    }
+                    nextShell();
+                    continue;
+                }
+                int[] section = pendingSections.get(cursor++);
+                checks++;
+                PalettedContainer<BlockState> container = getContainer(section[0], section[1], section[2]);
+                if (container != null && container.hasAny(search::matches)) {
+                    snapshots.add(new SectionSnapshot(section[0], section[1], section[2], container.copy()));
+                    copies++;
+                }
+            }
+            ExecutionScheduler.getInstance().runAfterTicks(1, this::copyStep);
+        }
+
+        /**
+         * Whether the search is over: either every shell was visited, or no section of the next shell can
+         * hold a block closer than the best match.
+         */
+        private boolean isSettled() {
+            if (shell >= search.maxShell) {
+                return true;
+            }
+            return search.bestPos != null && NearestBlockSearch.shellLowerBound(shell + 1) > search.bestDistance;
+        }
+
+        private void nextShell() {
+            followOrigin();
+            shell++;
+            pendingSections.clear();
+            cursor = 0;
+            search.forEachSectionInShell(shell, (sx, sy, sz) -> pendingSections.add(new int[]{sx, sy, sz}));
+        }
+
+        /**
+         * Re-read the origin before a new shell. Within the same section the shells stay valid and only the
+         * copies made so far are searched again from the new position; moving to another section starts over.
+         */
+        private void followOrigin() {
+            BlockPos current = originSupplier != null ? originSupplier.get() : null;
+            if (current == null || current.equals(origin)) {
+                return;
+            }
+            NearestBlockSearch.SearchState moved = NearestBlockSearch.SearchState.create(world, current, radius, stateIds);
+            if (moved == null) {
+                return;
+            }
+            if (ChunkSectionPos.from(current).asLong() != ChunkSectionPos.from(origin).asLong()) {
+                snapshots.clear();
+                shell = -1;
+            }
+            search = moved;
+            origin = current;
+            searchedSnapshots = 0;
+        }
+
+        private void searchShellAsync() {
+            CompletableFuture.runAsync(this::searchSnapshots, workers).whenComplete((ignored, throwable) -> {
+                if (throwable != null) {
+                    result.completeExceptionally(throwable);
+                } else if (isSettled()) {
+                    result.complete(Optional.ofNullable(search.bestPos));
+                } else {
+                    ExecutionScheduler.getInstance().runAfterTicks(0, this::copyStep);
+                }
+            });
+        }
+
+        private PalettedContainer<BlockState> getContainer(int sectionX, int sectionY, int sectionZ) {
+            WorldChunk chunk = world.getChunkManager().getWorldChunk(sectionX, sectionZ);
+            if (chunk == null) {
+                return null;
+            }
+            ChunkSection[] sections = chunk.getSectionArray();
+            int index = world.sectionCoordToIndex(sectionY);
+            if (index < 0 || index >= sections.length || sections[index] == null) {
+                return null;
+            }
+            return sections[index].getBlockStateContainer();
+        }
+
+        /**
+         * Worker phase: search the copies that have not been searched from the current origin yet.
+         */
+        private void searchSnapshots() {
+            for (int i = searchedSnapshots; i < snapshots.size(); i++) {
+                if (result.isDone()) {
+                    return;
+                }
+                SectionSnapshot snapshot = snapshots.get(i);
+                search.scanContainer(snapshot.states, snapshot.sectionX, snapshot.sectionY, snapshot.sectionZ, false);
+            }
+            searchedSnapshots = snapshots.size();
+        }
+    }
+}
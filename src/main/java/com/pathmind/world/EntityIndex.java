@@ -0,0 +1,291 @@
+package com.pathmind.world;
+
+import it.unimi.dsi.fastutil.ints.Int2ObjectMap;
+import it.unimi.dsi.fastutil.ints.Int2ObjectOpenHashMap;
+import it.unimi.dsi.fastutil.longs.Long2ObjectMap;
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import net.fabricmc.fabric.api.client.event.lifecycle.v1.ClientEntityEvents;
+import net.fabricmc.fabric.api.client.networking.v1.ClientPlayConnectionEvents;
+import net.minecraft.client.world.ClientWorld;
+import net.minecraft.entity.Entity;
+import net.minecraft.entity.EntityType;
+import net.minecraft.util.math.Box;
+import net.minecraft.util.math.ChunkSectionPos;
+import net.minecraft.util.math.MathHelper;
+import net.minecraft.util.math.Vec3d;
+import net.minecraft.world.World;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Predicate;
+
+/**
+ * Spatial hash of the client world's entities, bucketed by entity type and then by 16x16x16 cell.
+ * Entities enter and leave the index with the client entity lifecycle and change cells as they move
+ * (forwarded by {@code EntityMixin}), so nearest-target lookups only look at the cells around the
+ * origin instead of filtering every entity in range. Client thread only.
+ */
+public final class EntityIndex {
+    private static final int CELL_SIZE = 16;
+    // Positions are indexed, bounding boxes are matched: look this far past the query box for wide entities
+    private static final double MAX_ENTITY_HALF_EXTENT = 8.0;
+
+    private static EntityIndex instance;
+
+    private final Map<EntityType<?>, Long2ObjectMap<List<Entity>>> cellsByType;
+    private final Int2ObjectMap<Tracked> tracked;
+    private World world;
+
+    private EntityIndex() {
+        this.cellsByType = new HashMap<>();
+        this.tracked = new Int2ObjectOpenHashMap<>();
+    }
+
+    public static EntityIndex getInstance() {
+        if (instance == null) {
+            instance = new EntityIndex();
+        }
+        return instance;
+    }
+
+    /**
+     * Hook the index into the client entity lifecycle. Movement is forwarded by {@code EntityMixin}.
+     */
+    public static void register() {
+        EntityIndex index = getInstance();
+        ClientEntityEvents.ENTITY_LOAD.register(index::onEntityLoad);
+        ClientEntityEvents.ENTITY_UNLOAD.register(index::onEntityUnload);
+        ClientPlayConnectionEvents.DISCONNECT.register((handler, client) -> index.reset(null));
+    }
+
+    private static final class Tracked {
+        final Entity entity;
+        long cellKey;
+
+        Tracked(Entity entity, long cellKey) {
+            this.entity = entity;
+            this.cellKey = cellKey;
+        }
+    }
+
+    private void reset(World newWorld) {
+        this.world = newWorld;
+        cellsByType.clear();
+        tracked.clear();
+    }
+
+    private void onEntityLoad(Entity entity, ClientWorld clientWorld) {
+        if (entity == null || clientWorld == null) {
+            return;
+        }
+        if (clientWorld != world) {
+            reset(clientWorld);
+        }
+        Tracked previous = tracked.get(entity.getId());
+        if (previous != null) {
+            removeFromCell(previous.entity, previous.cellKey);
+        }
+        long cellKey = cellKey(entity.getX(), entity.getY(), entity.getZ());
+        tracked.put(entity.getId(), new Tracked(entity, cellKey));
+        addToCell(entity, cellKey);
+    }
+
+    private void onEntityUnload(Entity entity, ClientWorld clientWorld) {
+        if (entity == null || clientWorld != world) {
+            return;
+        }
+        Tracked entry = tracked.get(entity.getId());
+        if (entry == null || entry.entity != entity) {
+            return;
+        }
+        tracked.remove(entity.getId());
+        removeFromCell(entity, entry.cellKey);
+    }
+
+    /**
+     * Called after a client-side entity's position changed.
+     */
+    public void onEntityMoved(Entity entity) {
+        Tracked entry = tracked.get(entity.getId());
+        if (entry == null || entry.entity != entity) {
+            return;
+        }
+        long cellKey = cellKey(entity.getX(), entity.getY(), entity.getZ());
+        if (cellKey == entry.cellKey) {
+            return;
+        }
+        removeFromCell(entity, entry.cellKey);
+        addToCell(entity, cellKey);
+        entry.cellKey = cellKey;
+    }
+
+    private void addToCell(Entity entity, long cellKey) {
+        cellsByType.computeIfAbsent(entity.getType(), type -> new Long2ObjectOpenHashMap<>())
+            .computeIfAbsent(cellKey, key -> new ArrayList<>(4))
+            .add(entity);
+    }
+
+    private void removeFromCell(Entity entity, long cellKey) {
+        Long2ObjectMap<List<Entity>> cells = cellsByType.get(entity.getType());
+        if (cells == null) {
+            return;
+        }
+        List<Entity> cell = cells.get(cellKey);
+        if (cell == null) {
+            return;
+        }
+        cell.remove(entity);
+        if (cell.isEmpty()) {
+            cells.remove(cellKey);
+        }
+    }
+
+    private static long cellKey(double x, double y, double z) {
+        return ChunkSectionPos.asLong(
+            MathHelper.floor(x) >> 4,
+            MathHelper.floor(y) >> 4,
+            MathHelper.floor(z) >> 4);
+    }
+
+    /**
+     * Entity of the given type nearest to {@code from} whose bounding box intersects {@code searchBox}.
+     */
+    public Optional<Entity> findNearest(World targetWorld, EntityType<?> type, Vec3d from, Box searchBox,
+                                        Predicate<? super Entity> filter) {
+        List<Entity> nearest = findNearest(targetWorld, type, from, searchBox, 1, filter);
+        return nearest.isEmpty() ? Optional.empty() : Optional.of(nearest.get(0));
+    }
+
+    /**
+     * Up to {@code k} entities of the given type whose bounding box intersects {@code searchBox}, nearest
+     * to {@code from} first. Cells are visited in rings around {@code from} and the walk stops once no
+     * farther ring can beat the k-th match.
+     */
+    public List<Entity> findNearest(World targetWorld, EntityType<?> type, Vec3d from, Box searchBox, int k,
+                                    Predicate<? super Entity> filter) {
+        if (targetWorld != world || type == null || from == null || searchBox == null || k <= 0) {
+            return Collections.emptyList();
+        }
+        Long2ObjectMap<List<Entity>> cells = cellsByType.get(type);
+        if (cells == null || cells.isEmpty()) {
+            return Collections.emptyList();
+        }
+
+        Box cellBounds = searchBox.expand(MAX_ENTITY_HALF_EXTENT);
+        int minCellX = MathHelper.floor(cellBounds.minX) >> 4;
+        int maxCellX = MathHelper.floor(cellBounds.maxX) >> 4;
+        int minCellY = MathHelper.floor(cellBounds.minY) >> 4;
+        int maxCellY = MathHelper.floor(cellBounds.maxY) >> 4;
+        int minCellZ = MathHelper.floor(cellBounds.minZ) >> 4;
+        int maxCellZ = MathHelper.floor(cellBounds.maxZ) >> 4;
+        int originCellX = MathHelper.floor(from.x) >> 4;
+        int originCellY = MathHelper.floor(from.y) >> 4;
+        int originCellZ = MathHelper.floor(from.z) >> 4;
+        int maxRing = Math.max(
+            Math.max(Math.abs(originCellX - minCellX), Math.abs(maxCellX - originCellX)),
+            Math.max(Math.max(Math.abs(originCellY - minCellY), Math.abs(maxCellY - originCellY)),
+                Math.max(Math.abs(originCellZ - minCellZ), Math.abs(maxCellZ - originCellZ))));
+
+        List<Entity> best = new ArrayList<>(Math.min(k, 16));
+        List<Double> bestDistances = new ArrayList<>(Math.min(k, 16));
+        for (int ring = 0; ring <= maxRing; ring++) {
+            if (best.size() == k && ringLowerBound(ring) > bestDistances.get(k - 1)) {
+                break;
+            }
+            for (int cx = originCellX - ring; cx <= originCellX + ring; cx++) {
+                if (cx < minCellX || cx > maxCellX) {
+                    continue;
+                }
+                for (int cz = originCellZ - ring; cz <= originCellZ + ring; cz++) {
+                    if (cz < minCellZ || cz > maxCellZ) {
+                        continue;
+                    }
+                    boolean onXZEdge = Math.abs(cx - originCellX) == ring || Math.abs(cz - originCellZ) == ring;
+                    for (int cy = originCellY - ring; cy <= originCellY + ring; cy++) {
+                        // Inner cells of this column belong to earlier rings
+                        if (!onXZEdge && Math.abs(cy - originCellY) != ring) {
+                            continue;
+                        }
+                        if (cy < minCellY || cy > maxCellY) {
+                            continue;
+                        }
+                        List<Entity> cell = cells.get(ChunkSectionPos.asLong(cx, cy, cz));
+                        if (cell == null) {
+                            continue;
+                        }
+                        for (Entity entity : cell) {
+                            if (!entity.getBoundingBox().intersects(searchBox) || (filter != null && !filter.test(entity))) {
+                                continue;
+                            }
+                            insertByDistance(best, bestDistances, entity, entity.squaredDistanceTo(from), k);
+                        }
+                    }
+                }
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Entities of the given type whose position lies within {@code radius} of {@code center}.
+     */
+    public List<Entity> getWithinRadius(World targetWorld, EntityType<?> type, Vec3d center, double radius,
+                                        Predicate<? super Entity> filter) {
+        if (targetWorld != world || type == null || center == null || radius < 0) {
+            return Collections.emptyList();
+        }
+        Long2ObjectMap<List<Entity>> cells = cellsByType.get(type);
+        if (cells == null || cells.isEmpty()) {
+            return Collections.emptyList();
+        }
+        double radiusSquared = radius * radius;
+        List<Entity> matches = new ArrayList<>();
+        for (int cx = MathHelper.floor(center.x - radius) >> 4; cx <= MathHelper.floor(center.x + radius) >> 4; cx++) {
+            for (int cy = MathHelper.floor(center.y - radius) >> 4; cy <= MathHelper.floor(center.y + radius) >> 4; cy++) {
+                for (int cz = MathHelper.floor(center.z - radius) >> 4; cz <= MathHelper.floor(center.z + radius) >> 4; cz++) {
+                    List<Entity> cell = cells.get(ChunkSectionPos.asLong(cx, cy, cz));
+                    if (cell == null) {
+                        continue;
+                    }
+                    for (Entity entity : cell) {
+                        if (entity.squaredDistanceTo(center) <= radiusSquared && (filter == null || filter.test(entity))) {
+                            matches.add(entity);
+                        }
+                    }
+                }
+            }
+        }
+        return matches;
+    }
+
+    /**
+     * Smallest squared distance from a point to anything indexed in a cell {@code ring} steps away.
+     */
+    private static double ringLowerBound(int ring) {
+        if (ring <= 1) {
+            return 0.0;
+        }
+        double axis = (double) CELL_SIZE * (ring - 1);
+        return axis * axis;
+    }
+
+    private static void insertByDistance(List<Entity> best, List<Double> distances, Entity entity, double distance, int k) {
+        int index = distances.size();
+        while (index > 0 && distances.get(index - 1) > distance) {
+            index--;
+        }
+        if (index >= k) {
+            return;
+        }
+        best.add(index, entity);
+        distances.add(index, distance);
+        if (best.size() > k) {
+            best.remove(k);
+            distances.remove(k);
+        }
+    }
+}
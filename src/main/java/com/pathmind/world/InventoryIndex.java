@@ -0,0 +1,262 @@
+package com.pathmind.world;
+
+import it.unimi.dsi.fastutil.ints.IntRBTreeSet;
+import it.unimi.dsi.fastutil.ints.IntSortedSet;
+import it.unimi.dsi.fastutil.ints.IntSortedSets;
+import it.unimi.dsi.fastutil.objects.Object2IntOpenHashMap;
+import net.minecraft.entity.player.PlayerInventory;
+import net.minecraft.item.Item;
+import net.minecraft.item.ItemStack;
+import net.minecraft.recipe.Ingredient;
+import net.minecraft.screen.ScreenHandler;
+import net.minecraft.screen.slot.Slot;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Per-item counts and slot sets for the local player's inventory.
+ * Every client-side write to a player inventory slot (slot update and inventory packets, screen
+ * handler content syncs, local clicks) goes through {@code PlayerInventory} and is forwarded by
+ * {@code PlayerInventoryMixin}; the touched slots are re-read on the next query. Item sensors,
+ * ingredient lookup and hotbar selection then read the index instead of scanning every slot.
+ * Placing, eating and using items shrink the held stack in place until the server's slot update
+ * arrives, so the selected hotbar slot and the offhand are re-read on every query, and slots
+ * handed out by {@link #findSlot} are checked against the live stack first.
+ * Client thread only.
+ */
+public final class InventoryIndex {
+    private static InventoryIndex instance;
+
+    private final Object2IntOpenHashMap<Item> counts;
+    private final Map<Item, IntSortedSet> slotsByItem;
+    private final BitSet dirtySlots;
+    private PlayerInventory inventory;
+    private Item[] slotItems;
+    private int[] slotCounts;
+
+    // Inventory index -> handler slot, for the last screen handler asked about
+    private ScreenHandler mappedHandler;
+    private int mappedSlotCount;
+    private int[] handlerSlotByInventoryIndex;
+
+    private InventoryIndex() {
+        this.counts = new Object2IntOpenHashMap<>();
+        this.slotsByItem = new IdentityHashMap<>();
+        this.dirtySlots = new BitSet();
+        this.slotItems = new Item[0];
+        this.slotCounts = new int[0];
+        this.handlerSlotByInventoryIndex = new int[0];
+    }
+
+    public static InventoryIndex getInstance() {
+        if (instance == null) {
+            instance = new InventoryIndex();
+        }
+        return instance;
+    }
+
+    /**
+     * Called after a slot of a client-side player inventory changed.
+     */
+    public void onSlotChanged(PlayerInventory changed, int slot) {
+        if (changed != inventory) {
+            return;
+        }
+        if (slot >= 0 && slot < slotItems.length) {
+            dirtySlots.set(slot);
+        }
+    }
+
+    /**
+     * Called when a client-side player inventory changed without saying which slot (clears, merges
+     * that only mark the inventory dirty). Every slot is re-read on the next query.
+     */
+    public void onInventoryDirty(PlayerInventory changed) {
+        if (changed == inventory) {
+            dirtySlots.set(0, slotItems.length);
+        }
+    }
+
+    /**
+     * Total number of {@code item} held anywhere in the inventory, like {@link PlayerInventory#count(Item)}.
+     */
+    public int count(PlayerInventory target, Item item) {
+        if (target == null || item == null) {
+            return 0;
+        }
+        sync(target);
+        return counts.getInt(item);
+    }
+
+    public boolean contains(PlayerInventory target, Item item) {
+        return count(target, item) > 0;
+    }
+
+    /**
+     * Inventory indices holding {@code item}, lowest first. The returned set must not be modified.
+     */
+    public IntSortedSet getSlots(PlayerInventory target, Item item) {
+        if (target == null || item == null) {
+            return IntSortedSets.EMPTY_SET;
+        }
+        sync(target);
+        IntSortedSet slots = slotsByItem.get(item);
+        return slots != null ? IntSortedSets.unmodifiable(slots) : IntSortedSets.EMPTY_SET;
+    }
+
+    /**
+     * Lowest inventory index in {@code [fromInclusive, toExclusive)} holding {@code item}, or -1.
+     */
+    public int findSlot(PlayerInventory target, Item item, int fromInclusive, int toExclusive) {
+        if (target == null || item == null || fromInclusive >= toExclusive) {
+            return -1;
+        }
+        sync(target);
+        IntSortedSet slots = slotsByItem.get(item);
+        if (slots == null) {
+            return -1;
+        }
+        IntSortedSet tail = slots.tailSet(fromInclusive);
+        while (!tail.isEmpty()) {
+            int slot = tail.firstInt();
+            if (slot >= toExclusive) {
+                return -1;
+            }
+            if (isCurrent(slot)) {
+                return slot;
+            }
+            // Changed in place behind our back; once re-read the slot drops out of this item's set
+            refreshSlot(slot);
+            slots = slotsByItem.get(item);
+            if (slots == null) {
+                return -1;
+            }
+            tail = slots.tailSet(fromInclusive);
+        }
+        return -1;
+    }
+
+    private boolean isCurrent(int slot) {
+        ItemStack stack = inventory.getStack(slot);
+        Item item = stack.isEmpty() ? null : stack.getItem();
+        int count = stack.isEmpty() ? 0 : stack.getCount();
+        return slotItems[slot] == item && slotCounts[slot] == count;
+    }
+
+    /**
+     * Handler slot of the lowest-numbered main inventory stack matching {@code ingredient}, or -1.
+     * Only the items actually present are tested against the ingredient.
+     */
+    public int findIngredientHandlerSlot(ScreenHandler handler, PlayerInventory target, Ingredient ingredient) {
+        if (handler == null || target == null || ingredient == null || ingredient.isEmpty()) {
+            return -1;
+        }
+        sync(target);
+        int[] handlerSlots = mapHandlerSlots(handler, target);
+        int best = -1;
+        for (Map.Entry<Item, IntSortedSet> entry : slotsByItem.entrySet()) {
+            if (!ingredient.test(entry.getKey().getDefaultStack())) {
+                continue;
+            }
+            for (int inventoryIndex : entry.getValue()) {
+                if (inventoryIndex >= PlayerInventory.MAIN_SIZE) {
+                    break;
+                }
+                int handlerSlot = handlerSlots[inventoryIndex];
+                if (handlerSlot >= 0 && (best == -1 || handlerSlot < best)) {
+                    best = handlerSlot;
+                }
+            }
+        }
+        return best;
+    }
+
+    private int[] mapHandlerSlots(ScreenHandler handler, PlayerInventory target) {
+        List<Slot> slots = handler.slots;
+        if (handler == mappedHandler && slots.size() == mappedSlotCount) {
+            return handlerSlotByInventoryIndex;
+        }
+        int[] mapping = new int[PlayerInventory.MAIN_SIZE];
+        Arrays.fill(mapping, -1);
+        for (int slotIdx = 0; slotIdx < slots.size(); slotIdx++) {
+            Slot slot = slots.get(slotIdx);
+            if (slot.inventory != target) {
+                continue;
+            }
+            int inventoryIndex = slot.getIndex();
+            if (inventoryIndex >= 0 && inventoryIndex < mapping.length && mapping[inventoryIndex] == -1) {
+                mapping[inventoryIndex] = slotIdx;
+            }
+        }
+        mappedHandler = handler;
+        mappedSlotCount = slots.size();
+        handlerSlotByInventoryIndex = mapping;
+        return mapping;
+    }
+
+    private void sync(PlayerInventory target) {
+        if (target != inventory || target.size() != slotItems.length) {
+            rebuild(target);
+            return;
+        }
+        for (int slot = dirtySlots.nextSetBit(0); slot >= 0; slot = dirtySlots.nextSetBit(slot + 1)) {
+            refreshSlot(slot);
+        }
+        dirtySlots.clear();
+        // The hands are where the client predicts interactions without writing the slot
+        int selected = target.getSelectedSlot();
+        if (selected >= 0 && selected < slotItems.length) {
+            refreshSlot(selected);
+        }
+        if (PlayerInventory.OFF_HAND_SLOT < slotItems.length) {
+            refreshSlot(PlayerInventory.OFF_HAND_SLOT);
+        }
+    }
+
+    private void rebuild(PlayerInventory target) {
+        inventory = target;
+        counts.clear();
+        slotsByItem.clear();
+        dirtySlots.clear();
+        mappedHandler = null;
+        slotItems = new Item[target.size()];
+        slotCounts = new int[target.size()];
+        for (int slot = 0; slot < slotItems.length; slot++) {
+            refreshSlot(slot);
+        }
+    }
+
+    private void refreshSlot(int slot) {
+        ItemStack stack = inventory.getStack(slot);
+        Item item = stack.isEmpty() ? null : stack.getItem();
+        int count = stack.isEmpty() ? 0 : stack.getCount();
+        Item previousItem = slotItems[slot];
+        int previousCount = slotCounts[slot];
+        if (previousItem == item && previousCount == count) {
+            return;
+        }
+        if (previousItem != null) {
+            int remaining = counts.addTo(previousItem, -previousCount) - previousCount;
+            if (remaining <= 0) {
+                counts.removeInt(previousItem);
+            }
+            IntSortedSet slots = slotsByItem.get(previousItem);
+            if (slots != null) {
+                slots.remove(slot);
+                if (slots.isEmpty()) {
+                    slotsByItem.remove(previousItem);
+                }
+            }
+        }
+        if (item != null) {
+            counts.addTo(item, count);
+            slotsByItem.computeIfAbsent(item, key -> new IntRBTreeSet()).add(slot);
+        }
+        slotItems[slot] = item;
+        slotCounts[slot] = count;
+    }
+}
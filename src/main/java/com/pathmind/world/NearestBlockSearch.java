@@ -0,0 +1,287 @@
+package com.pathmind.world;
+
+import net.minecraft.block.Block;
+import net.minecraft.block.BlockState;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.util.math.ChunkPos;
+import net.minecraft.util.math.ChunkSectionPos;
+import net.minecraft.world.World;
+import net.minecraft.world.chunk.ChunkSection;
+import net.minecraft.world.chunk.PalettedContainer;
+import net.minecraft.world.chunk.WorldChunk;
+
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Optional;
+
+/**
+ * Nearest-block lookup that walks 16x16x16 chunk sections outward from the origin instead of
+ * probing every block of the search cube.
+ * Sections are visited shell by shell (by Chebyshev distance in section coordinates); a section
+ * is only scanned when its block-state palette contains one of the target states, and the walk
+ * stops as soon as no remaining section can hold a block closer than the best match so far.
+ */
+public final class NearestBlockSearch {
+    private static final int SECTION_SIZE = 16;
+
+    private NearestBlockSearch() {
+    }
+
+    /**
+     * Build the raw block-state id set matching every state of the given blocks.
+     */
+    public static BitSet toStateIdSet(Collection<Block> blocks) {
+        BitSet ids = new BitSet();
+        if (blocks == null) {
+            return ids;
+        }
+        for (Block block : blocks) {
+            if (block == null) {
+                continue;
+            }
+            for (BlockState state : block.getStateManager().getStates()) {
+                ids.set(Block.getRawIdFromState(state));
+            }
+        }
+        return ids;
+    }
+
+    public static Optional<BlockPos> findNearest(World world, BlockPos origin, int radius, Collection<Block> blocks) {
+        return findNearest(world, origin, radius, toStateIdSet(blocks));
+    }
+
+    /**
+     * Find the block closest to {@code origin} (squared block distance) whose state id is in
+     * {@code stateIds}, within a cube of the given radius around the origin.
+     */
+    public static Optional<BlockPos> findNearest(World world, BlockPos origin, int radius, BitSet stateIds) {
+        SearchState search = SearchState.create(world, origin, radius, stateIds);
+        if (search == null) {
+            return Optional.empty();
+        }
+
+        ChunkSection[][] column = new ChunkSection[1][];
+        long[] columnKey = {Long.MIN_VALUE};
+        for (int shell = 0; shell <= search.maxShell; shell++) {
+            if (search.bestPos != null && shellLowerBound(shell) > search.bestDistance) {
+                break;
+            }
+            search.forEachSectionInShell(shell, (sx, sy, sz) -> {
+                long key = ChunkPos.toLong(sx, sz);
+                if (key != columnKey[0]) {
+                    WorldChunk chunk = world.getChunkManager().getWorldChunk(sx, sz);
+                    column[0] = chunk != null ? chunk.getSectionArray() : null;
+                    columnKey[0] = key;
+                }
+                ChunkSection[] sections = column[0];
+                if (sections == null) {
+                    return;
+                }
+                int sectionIndex = world.sectionCoordToIndex(sy);
+                if (sectionIndex >= 0 && sectionIndex < sections.length) {
+                    search.scanSection(sections[sectionIndex], sx, sy, sz);
+                }
+            });
+        }
+
+        return Optional.ofNullable(search.bestPos);
+    }
+
+    /**
+     * Smallest squared distance from the origin to any block of a section in the given shell.
+     * The origin can sit anywhere inside its own section, so a section {@code shell} steps away
+     * is at least {@code 16 * shell - 15} blocks away along the axis that put it in that shell.
+     */
+    static long shellLowerBound(int shell) {
+        if (shell <= 0) {
+            return 0L;
+        }
+        long axis = (long) SECTION_SIZE * shell - (SECTION_SIZE - 1);
+        return axis * axis;
+    }
+
+    interface SectionVisitor {
+        void visit(int sectionX, int sectionY, int sectionZ);
+    }
+
+    /**
+     * Search bounds plus the best match found so far. Sections can be fed from the live world or
+     * from copied palettes; either way they should arrive in shell order for the early exit to hold.
+     */
+    static final class SearchState {
+        private final int originX;
+        private final int originY;
+        private final int originZ;
+        private final BitSet stateIds;
+        private final int minX;
+        private final int maxX;
+        private final int minY;
+        private final int maxY;
+        private final int minZ;
+        private final int maxZ;
+        private final int originSectionX;
+        private final int originSectionY;
+        private final int originSectionZ;
+        private final int minSectionX;
+        private final int maxSectionX;
+        private final int minSectionY;
+        private final int maxSectionY;
+        private final int minSectionZ;
+        private final int maxSectionZ;
+        final int maxShell;
+        BlockPos bestPos;
+        long bestDistance;
+
+        private SearchState(BlockPos origin, BitSet stateIds, int minX, int maxX, int minY, int maxY, int minZ, int maxZ) {
+            this.originX = origin.getX();
+            this.originY = origin.getY();
+            this.originZ = origin.getZ();
+            this.stateIds = stateIds;
+            this.minX = minX;
+            this.maxX = maxX;
+            this.minY = minY;
+            this.maxY = maxY;
+            this.minZ = minZ;
+            this.maxZ = maxZ;
+            this.originSectionX = ChunkSectionPos.getSectionCoord(originX);
+            this.originSectionY = ChunkSectionPos.getSectionCoord(originY);
+            this.originSectionZ = ChunkSectionPos.getSectionCoord(originZ);
+            this.minSectionX = ChunkSectionPos.getSectionCoord(minX);
+            this.maxSectionX = ChunkSectionPos.getSectionCoord(maxX);
+            this.minSectionY = ChunkSectionPos.getSectionCoord(minY);
+            this.maxSectionY = ChunkSectionPos.getSectionCoord(maxY);
+            this.minSectionZ = ChunkSectionPos.getSectionCoord(minZ);
+            this.maxSectionZ = ChunkSectionPos.getSectionCoord(maxZ);
+            this.maxShell = Math.max(
+                Math.max(originSectionX - minSectionX, maxSectionX - originSectionX),
+                Math.max(Math.max(originSectionY - minSectionY, maxSectionY - originSectionY),
+                    Math.max(originSectionZ - minSectionZ, maxSectionZ - originSectionZ)));
+            this.bestPos = null;
+            this.bestDistance = Long.MAX_VALUE;
+        }
+
+        /**
+         * Bounds for a cube of {@code radius} around {@code origin}, clamped to the world height,
+         * or {@code null} when there is nothing to search.
+         */
+        static SearchState create(World world, BlockPos origin, int radius, BitSet stateIds) {
+            if (world == null || origin == null || stateIds == null || stateIds.isEmpty() || radius < 0) {
+                return null;
+            }
+            int minY = Math.max(world.getBottomY(), origin.getY() - radius);
+            int maxY = Math.min(world.getBottomY() + world.getHeight() - 1, origin.getY() + radius);
+            if (minY > maxY) {
+                return null;
+            }
+            return new SearchState(origin, stateIds,
+                origin.getX() - radius, origin.getX() + radius,
+                minY, maxY,
+                origin.getZ() - radius, origin.getZ() + radius);
+        }
+
+        /**
+         * Visit every in-bounds section whose Chebyshev distance (in sections) from the origin is {@code shell}.
+         */
+        void forEachSectionInShell(int shell, SectionVisitor visitor) {
+            for (int sx = originSectionX - shell; sx <= originSectionX + shell; sx++) {
+                if (sx < minSectionX || sx > maxSectionX) {
+                    continue;
+                }
+                for (int sz = originSectionZ - shell; sz <= originSectionZ + shell; sz++) {
+                    if (sz < minSectionZ || sz > maxSectionZ) {
+                        continue;
+                    }
+                    boolean onXZEdge = Math.abs(sx - originSectionX) == shell || Math.abs(sz - originSectionZ) == shell;
+                    for (int sy = originSectionY - shell; sy <= originSectionY + shell; sy++) {
+                        // Inner sections of this column belong to earlier shells
+                        if (!onXZEdge && Math.abs(sy - originSectionY) != shell) {
+                            continue;
+                        }
+                        if (sy < minSectionY || sy > maxSectionY) {
+                            continue;
+                        }
+                        visitor.visit(sx, sy, sz);
+                    }
+                }
+            }
+        }
+
+        boolean matches(BlockState state) {
+            return stateIds.get(Block.getRawIdFromState(state));
+        }
+
+        void scanSection(ChunkSection section, int sectionX, int sectionY, int sectionZ) {
+            if (section == null) {
+                return;
+            }
+            scanContainer(section.getBlockStateContainer(), sectionX, sectionY, sectionZ, true);
+        }
+
+        /**
+         * Scan one section's block states. {@code checkPalette} can be skipped when the caller
+         * already knows the palette holds a target state.
+         */
+        void scanContainer(PalettedContainer<BlockState> container, int sectionX, int sectionY, int sectionZ, boolean checkPalette) {
+            int baseX = ChunkSectionPos.getBlockCoord(sectionX);
+            int baseY = ChunkSectionPos.getBlockCoord(sectionY);
+            int baseZ = ChunkSectionPos.getBlockCoord(sectionZ);
+
+            int fromX = Math.max(minX, baseX);
+            int toX = Math.min(maxX, baseX + SECTION_SIZE - 1);
+            int fromY = Math.max(minY, baseY);
+            int toY = Math.min(maxY, baseY + SECTION_SIZE - 1);
+            int fromZ = Math.max(minZ, baseZ);
+            int toZ = Math.min(maxZ, baseZ + SECTION_SIZE - 1);
+            if (fromX > toX || fromY > toY || fromZ > toZ) {
+                return;
+            }
+            if (bestPos != null && boxDistance(fromX, toX, fromY, toY, fromZ, toZ) >= bestDistance) {
+                return;
+            }
+
+            // Cheap palette check: most sections cannot contain a rare target at all
+            if (checkPalette && !container.hasAny(this::matches)) {
+                return;
+            }
+
+            for (int y = fromY; y <= toY; y++) {
+                long dy = y - originY;
+                for (int z = fromZ; z <= toZ; z++) {
+                    long dz = z - originZ;
+                    long partial = dy * dy + dz * dz;
+                    if (partial >= bestDistance) {
+                        continue;
+                    }
+                    for (int x = fromX; x <= toX; x++) {
+                        long dx = x - originX;
+                        long distance = partial + dx * dx;
+                        if (distance >= bestDistance) {
+                            continue;
+                        }
+                        if (matches(container.get(x - baseX, y - baseY, z - baseZ))) {
+                            bestDistance = distance;
+                            bestPos = new BlockPos(x, y, z);
+                        }
+                    }
+                }
+            }
+        }
+
+        private long boxDistance(int fromX, int toX, int fromY, int toY, int fromZ, int toZ) {
+            long dx = axisDistance(originX, fromX, toX);
+            long dy = axisDistance(originY, fromY, toY);
+            long dz = axisDistance(originZ, fromZ, toZ);
+            return dx * dx + dy * dy + dz * dz;
+        }
+
+        private static long axisDistance(int value, int from, int to) {
+            if (value < from) {
+                return from - value;
+            }
+            if (value > to) {
+                return value - to;
+            }
+            return 0L;
+        }
+    }
+}
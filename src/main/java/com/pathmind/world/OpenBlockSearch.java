@@ -0,0 +1,230 @@
+package com.pathmind.world;
+
+import net.minecraft.block.BlockState;
+import net.minecraft.block.Blocks;
+import net.minecraft.entity.Entity;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.util.math.Box;
+import net.minecraft.util.math.ChunkSectionPos;
+import net.minecraft.util.math.MathHelper;
+import net.minecraft.world.World;
+import net.minecraft.world.chunk.ChunkSection;
+import net.minecraft.world.chunk.WorldChunk;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Optional;
+
+/**
+ * Finds the nearest free cell a block could be placed into (PARAM_CLOSEST).
+ * Entities are fetched once for the whole search region and rasterised into an occupancy
+ * bitset, block states are read straight from the chunk sections of the region, and cells are
+ * visited in Chebyshev shells around the origin so the search stops once no farther shell can
+ * beat the best cell found. Scratch buffers are reused between calls; client thread only.
+ */
+public final class OpenBlockSearch {
+    private static final BlockState AIR = Blocks.AIR.getDefaultState();
+    private static final ChunkSection[] UNLOADED_COLUMN = new ChunkSection[0];
+
+    private static OpenBlockSearch instance;
+
+    private final BitSet occupied;
+    private final BlockPos.Mutable cursor;
+    private final BlockPos.Mutable below;
+    private ChunkSection[][] columns;
+
+    private World world;
+    private int minX;
+    private int minY;
+    private int minZ;
+    private int sizeY;
+    private int sizeZ;
+    private int minChunkX;
+    private int minChunkZ;
+    private int chunkSpanZ;
+
+    private OpenBlockSearch() {
+        this.occupied = new BitSet();
+        this.cursor = new BlockPos.Mutable();
+        this.below = new BlockPos.Mutable();
+        this.columns = new ChunkSection[0][];
+    }
+
+    public static OpenBlockSearch getInstance() {
+        if (instance == null) {
+            instance = new OpenBlockSearch();
+        }
+        return instance;
+    }
+
+    /**
+     * Nearest cell (squared block distance, ties broken in x/y/z order) within a cube of the given radius
+     * that is inside the world border, has no collision, is not occupied by an entity and, if requested,
+     * sits on a solid block.
+     */
+    public Optional<BlockPos> findNearest(World targetWorld, BlockPos origin, int radius, boolean requireSolidGround) {
+        if (targetWorld == null || origin == null || radius < 0) {
+            return Optional.empty();
+        }
+
+        int originX = origin.getX();
+        int originY = origin.getY();
+        int originZ = origin.getZ();
+        int bottomY = targetWorld.getBottomY();
+        int topY = bottomY + targetWorld.getHeight() - 1;
+        int regionMinY = Math.max(bottomY, originY - radius);
+        int regionMaxY = Math.min(topY, originY + radius);
+        if (regionMinY > regionMaxY) {
+            return Optional.empty();
+        }
+
+        try {
+            prepare(targetWorld, originX - radius, regionMinY, originZ - radius,
+                originX + radius, regionMaxY, originZ + radius);
+
+            boolean found = false;
+            int bestDx = 0;
+            int bestDy = 0;
+            int bestDz = 0;
+            long bestDistance = Long.MAX_VALUE;
+
+            for (int shell = 0; shell <= radius; shell++) {
+                if (found && (long) shell * shell > bestDistance) {
+                    break;
+                }
+                for (int dx = -shell; dx <= shell; dx++) {
+                    boolean xOnEdge = dx == -shell || dx == shell;
+                    for (int dy = -shell; dy <= shell; dy++) {
+                        int y = originY + dy;
+                        if (y < regionMinY || y > regionMaxY) {
+                            continue;
+                        }
+                        boolean xyOnEdge = xOnEdge || dy == -shell || dy == shell;
+                        // Cells strictly inside the shell were visited by earlier shells
+                        int dzStep = xyOnEdge ? 1 : Math.max(1, 2 * shell);
+                        for (int dz = -shell; dz <= shell; dz += dzStep) {
+                            long distance = (long) dx * dx + (long) dy * dy + (long) dz * dz;
+                            if (distance > bestDistance) {
+                                continue;
+                            }
+                            if (distance == bestDistance && !isBefore(dx, dy, dz, bestDx, bestDy, bestDz)) {
+                                continue;
+                            }
+                            if (isOpen(originX + dx, y, originZ + dz, requireSolidGround)) {
+                                found = true;
+                                bestDistance = distance;
+                                bestDx = dx;
+                                bestDy = dy;
+                                bestDz = dz;
+                            }
+                        }
+                    }
+                }
+            }
+
+            return found ? Optional.of(new BlockPos(originX + bestDx, originY + bestDy, originZ + bestDz)) : Optional.empty();
+        } finally {
+            this.world = null;
+        }
+    }
+
+    private static boolean isBefore(int dx, int dy, int dz, int otherDx, int otherDy, int otherDz) {
+        if (dx != otherDx) {
+            return dx < otherDx;
+        }
+        if (dy != otherDy) {
+            return dy < otherDy;
+        }
+        return dz < otherDz;
+    }
+
+    private void prepare(World targetWorld, int regionMinX, int regionMinY, int regionMinZ,
+                         int regionMaxX, int regionMaxY, int regionMaxZ) {
+        this.world = targetWorld;
+        this.minX = regionMinX;
+        this.minY = regionMinY;
+        this.minZ = regionMinZ;
+        this.sizeY = regionMaxY - regionMinY + 1;
+        this.sizeZ = regionMaxZ - regionMinZ + 1;
+
+        this.minChunkX = ChunkSectionPos.getSectionCoord(regionMinX);
+        this.minChunkZ = ChunkSectionPos.getSectionCoord(regionMinZ);
+        int chunkSpanX = ChunkSectionPos.getSectionCoord(regionMaxX) - minChunkX + 1;
+        this.chunkSpanZ = ChunkSectionPos.getSectionCoord(regionMaxZ) - minChunkZ + 1;
+        int columnCount = chunkSpanX * chunkSpanZ;
+        if (columns.length < columnCount) {
+            columns = new ChunkSection[columnCount][];
+        }
+        Arrays.fill(columns, 0, columnCount, null);
+
+        // One entity query for the whole region instead of one per cell
+        occupied.clear();
+        Box region = new Box(regionMinX, regionMinY, regionMinZ, regionMaxX + 1, regionMaxY + 1, regionMaxZ + 1);
+        for (Entity entity : targetWorld.getOtherEntities(null, region)) {
+            Box box = entity.getBoundingBox();
+            // A cell [x, x + 1) overlaps the box when floor(min) <= x < ceil(max)
+            int fromX = Math.max(regionMinX, MathHelper.floor(box.minX));
+            int toX = Math.min(regionMaxX, MathHelper.ceil(box.maxX) - 1);
+            int fromY = Math.max(regionMinY, MathHelper.floor(box.minY));
+            int toY = Math.min(regionMaxY, MathHelper.ceil(box.maxY) - 1);
+            int fromZ = Math.max(regionMinZ, MathHelper.floor(box.minZ));
+            int toZ = Math.min(regionMaxZ, MathHelper.ceil(box.maxZ) - 1);
+            for (int x = fromX; x <= toX; x++) {
+                for (int y = fromY; y <= toY; y++) {
+                    int rowStart = occupancyIndex(x, y, fromZ);
+                    occupied.set(rowStart, rowStart + (toZ - fromZ) + 1);
+                }
+            }
+        }
+    }
+
+    private int occupancyIndex(int x, int y, int z) {
+        return ((x - minX) * sizeY + (y - minY)) * sizeZ + (z - minZ);
+    }
+
+    private boolean isOpen(int x, int y, int z, boolean requireSolidGround) {
+        if (occupied.get(occupancyIndex(x, y, z))) {
+            return false;
+        }
+        cursor.set(x, y, z);
+        if (!world.getWorldBorder().contains(cursor)) {
+            return false;
+        }
+
+        BlockState state = getBlockState(x, y, z);
+        boolean replaceable = state.isAir()
+            || !state.getFluidState().isEmpty()
+            || state.getCollisionShape(world, cursor).isEmpty();
+        if (!replaceable) {
+            return false;
+        }
+
+        if (requireSolidGround) {
+            below.set(x, y - 1, z);
+            BlockState belowState = getBlockState(x, y - 1, z);
+            return belowState.isSolidBlock(world, below);
+        }
+        return true;
+    }
+
+    private BlockState getBlockState(int x, int y, int z) {
+        int chunkX = ChunkSectionPos.getSectionCoord(x);
+        int chunkZ = ChunkSectionPos.getSectionCoord(z);
+        int columnIndex = (chunkX - minChunkX) * chunkSpanZ + (chunkZ - minChunkZ);
+        ChunkSection[] sections = columns[columnIndex];
+        if (sections == null) {
+            WorldChunk chunk = world.getChunkManager().getWorldChunk(chunkX, chunkZ);
+            sections = chunk != null ? chunk.getSectionArray() : UNLOADED_COLUMN;
+            columns[columnIndex] = sections;
+        }
+        int sectionIndex = world.sectionCoordToIndex(ChunkSectionPos.getSectionCoord(y));
+        if (sectionIndex < 0 || sectionIndex >= sections.length) {
+            return AIR;
+        }
+        ChunkSection section = sections[sectionIndex];
+        if (section == null || section.isEmpty()) {
+            return AIR;
+        }
+        return section.getBlockState(x & 15, y & 15, z & 15);
+    }
+}
@@ -0,0 +1,300 @@
+package com.pathmind.world;
+
+import it.unimi.dsi.fastutil.ints.Int2ObjectMap;
+import it.unimi.dsi.fastutil.ints.Int2ObjectOpenHashMap;
+import it.unimi.dsi.fastutil.longs.Long2BooleanMap;
+import it.unimi.dsi.fastutil.longs.Long2BooleanOpenHashMap;
+import it.unimi.dsi.fastutil.longs.LongArrayList;
+import net.minecraft.block.Block;
+import net.minecraft.block.BlockState;
+import net.minecraft.client.MinecraftClient;
+import net.minecraft.client.render.Camera;
+import net.minecraft.client.render.Frustum;
+import net.minecraft.client.world.ClientWorld;
+import net.minecraft.entity.Entity;
+import net.minecraft.util.hit.BlockHitResult;
+import net.minecraft.util.hit.HitResult;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.util.math.Box;
+import net.minecraft.util.math.ChunkSectionPos;
+import net.minecraft.util.math.MathHelper;
+import net.minecraft.util.math.Vec3d;
+import net.minecraft.world.RaycastContext;
+import net.minecraft.world.chunk.ChunkSection;
+import net.minecraft.world.chunk.PalettedContainer;
+import net.minecraft.world.chunk.WorldChunk;
+import org.joml.Matrix4f;
+import org.joml.Quaternionf;
+
+import java.util.Collection;
+import java.util.Collections;
+
+/**
+ * Answers "can the player see this" for the IS_RENDERED sensor.
+ * Candidates are culled against the camera frustum and against sections the renderer has not built
+ * yet before any raycast is spent on them; the remaining block candidates are raycast nearest-first
+ * so the walk usually ends at the first ray. Line-of-sight results are kept for a few ticks as long
+ * as the camera stays in place, so a sensor polled in a loop does not repeat the same rays.
+ * Client thread only.
+ */
+public final class VisibilityEngine {
+    private static final int BLOCK_SIGHT_TTL_TICKS = 5;
+    private static final int ENTITY_SIGHT_TTL_TICKS = 2;
+    // Sprinting and other FOV effects widen the real view; cull a little loosely
+    private static final float FOV_MARGIN_DEGREES = 15.0F;
+    private static final double CAMERA_QUANTUM = 4.0;
+
+    private static VisibilityEngine instance;
+
+    private final Long2BooleanMap blockSight;
+    private final Int2ObjectMap<EntitySight> entitySight;
+    private final LongArrayList candidates;
+    private final BlockPos.Mutable cursor;
+
+    private ClientWorld world;
+    private long preparedTick;
+    private int cameraCellX;
+    private int cameraCellY;
+    private int cameraCellZ;
+    private long blockSightExpiresAt;
+    private Frustum frustum;
+    private Vec3d cameraPos;
+
+    private VisibilityEngine() {
+        this.blockSight = new Long2BooleanOpenHashMap();
+        this.entitySight = new Int2ObjectOpenHashMap<>();
+        this.candidates = new LongArrayList();
+        this.cursor = new BlockPos.Mutable();
+        this.preparedTick = Long.MIN_VALUE;
+        this.cameraCellY = Integer.MIN_VALUE;
+    }
+
+    public static VisibilityEngine getInstance() {
+        if (instance == null) {
+            instance = new VisibilityEngine();
+        }
+        return instance;
+    }
+
+    private static final class EntitySight {
+        final long blockPos;
+        final long expiresAt;
+        final boolean visible;
+
+        EntitySight(long blockPos, long expiresAt, boolean visible) {
+            this.blockPos = blockPos;
+            this.expiresAt = expiresAt;
+            this.visible = visible;
+        }
+    }
+
+    /**
+     * Whether any block of the given type inside the box spanned by the radii around {@code center} is visible.
+     */
+    public boolean isAnyBlockVisible(MinecraftClient client, Block block, BlockPos center, int horizontalRadius, int verticalRadius) {
+        if (!prepare(client) || block == null || center == null) {
+            return false;
+        }
+
+        candidates.clear();
+        Collection<Block> blocks = Collections.singletonList(block);
+        WorldBlockIndex index = WorldBlockIndex.getInstance();
+        if (index.watch(world, blocks)) {
+            index.forEachWithin(center, horizontalRadius, verticalRadius, blocks, packed -> {
+                if (isBlockInView(cursor.set(packed))) {
+                    candidates.add(packed);
+                }
+                return false;
+            });
+        } else {
+            collectFromSections(client, block, center, horizontalRadius, verticalRadius);
+        }
+        if (candidates.isEmpty()) {
+            return false;
+        }
+
+        // Nearest first: short rays are cheaper and the nearest block is the likeliest to be unobstructed
+        double camX = cameraPos.x;
+        double camY = cameraPos.y;
+        double camZ = cameraPos.z;
+        candidates.sort((long a, long b) -> Double.compare(
+            squaredDistance(a, camX, camY, camZ), squaredDistance(b, camX, camY, camZ)));
+        for (int i = 0; i < candidates.size(); i++) {
+            if (hasLineOfSight(candidates.getLong(i))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Whether the entity is inside the view frustum and the player has line of sight to it.
+     */
+    public boolean isEntityVisible(MinecraftClient client, Entity entity) {
+        if (!prepare(client) || entity == null) {
+            return false;
+        }
+        if (frustum != null && !frustum.isVisible(entity.getBoundingBox().expand(0.5))) {
+            return false;
+        }
+        long entityPos = entity.getBlockPos().asLong();
+        EntitySight cached = entitySight.get(entity.getId());
+        if (cached != null && cached.blockPos == entityPos && cached.expiresAt > preparedTick) {
+            return cached.visible;
+        }
+        boolean visible = client.player.canSee(entity);
+        entitySight.put(entity.getId(), new EntitySight(entityPos, preparedTick + ENTITY_SIGHT_TTL_TICKS, visible));
+        return visible;
+    }
+
+    /**
+     * Refresh the frustum once per tick and drop cached sight lines once the camera moved or they expired.
+     */
+    private boolean prepare(MinecraftClient client) {
+        if (client == null || client.player == null || client.world == null || client.gameRenderer == null) {
+            return false;
+        }
+        Camera camera = client.gameRenderer.getCamera();
+        Vec3d currentCameraPos = camera != null && camera.isReady() ? camera.getPos() : client.player.getEyePos();
+        long tick = client.world.getTime();
+        int cellX = MathHelper.floor(currentCameraPos.x * CAMERA_QUANTUM);
+        int cellY = MathHelper.floor(currentCameraPos.y * CAMERA_QUANTUM);
+        int cellZ = MathHelper.floor(currentCameraPos.z * CAMERA_QUANTUM);
+
+        if (client.world != world) {
+            world = client.world;
+            blockSight.clear();
+            entitySight.clear();
+            preparedTick = Long.MIN_VALUE;
+        }
+        if (cellX != cameraCellX || cellY != cameraCellY || cellZ != cameraCellZ || tick >= blockSightExpiresAt) {
+            blockSight.clear();
+            cameraCellX = cellX;
+            cameraCellY = cellY;
+            cameraCellZ = cellZ;
+            blockSightExpiresAt = tick + BLOCK_SIGHT_TTL_TICKS;
+        }
+        if (tick != preparedTick) {
+            preparedTick = tick;
+            frustum = camera != null && camera.isReady() ? buildFrustum(client, camera) : null;
+            if (entitySight.size() > 1024) {
+                entitySight.clear();
+            }
+        }
+        cameraPos = currentCameraPos;
+        return true;
+    }
+
+    private static Frustum buildFrustum(MinecraftClient client, Camera camera) {
+        float fov = client.options.getFov().getValue() + FOV_MARGIN_DEGREES;
+        Matrix4f projection = client.gameRenderer.getBasicProjectionMatrix(Math.min(fov, 179.0F));
+        Matrix4f rotation = new Matrix4f().rotation(camera.getRotation().conjugate(new Quaternionf()));
+        Frustum cameraFrustum = new Frustum(rotation, projection);
+        Vec3d pos = camera.getPos();
+        cameraFrustum.setPosition(pos.x, pos.y, pos.z);
+        return cameraFrustum;
+    }
+
+    private boolean isBlockInView(BlockPos pos) {
+        if (frustum != null && !frustum.isVisible(new Box(pos))) {
+            return false;
+        }
+        MinecraftClient client = MinecraftClient.getInstance();
+        return client.worldRenderer == null || client.worldRenderer.isRenderingReady(pos);
+    }
+
+    /**
+     * Walk the sections of the search box, skipping whole sections that are off screen, not built by the
+     * renderer, or whose palette cannot hold the block.
+     */
+    private void collectFromSections(MinecraftClient client, Block block, BlockPos center, int horizontalRadius, int verticalRadius) {
+        int minX = center.getX() - horizontalRadius;
+        int maxX = center.getX() + horizontalRadius;
+        int minY = Math.max(world.getBottomY(), center.getY() - verticalRadius);
+        int maxY = Math.min(world.getBottomY() + world.getHeight() - 1, center.getY() + verticalRadius);
+        int minZ = center.getZ() - horizontalRadius;
+        int maxZ = center.getZ() + horizontalRadius;
+        if (minY > maxY) {
+            return;
+        }
+
+        for (int sx = ChunkSectionPos.getSectionCoord(minX); sx <= ChunkSectionPos.getSectionCoord(maxX); sx++) {
+            for (int sz = ChunkSectionPos.getSectionCoord(minZ); sz <= ChunkSectionPos.getSectionCoord(maxZ); sz++) {
+                WorldChunk chunk = world.getChunkManager().getWorldChunk(sx, sz);
+                if (chunk == null) {
+                    continue;
+                }
+                ChunkSection[] sections = chunk.getSectionArray();
+                for (int sy = ChunkSectionPos.getSectionCoord(minY); sy <= ChunkSectionPos.getSectionCoord(maxY); sy++) {
+                    int sectionIndex = world.sectionCoordToIndex(sy);
+                    if (sectionIndex < 0 || sectionIndex >= sections.length) {
+                        continue;
+                    }
+                    ChunkSection section = sections[sectionIndex];
+                    if (section == null || section.isEmpty()) {
+                        continue;
+                    }
+                    int baseX = ChunkSectionPos.getBlockCoord(sx);
+                    int baseY = ChunkSectionPos.getBlockCoord(sy);
+                    int baseZ = ChunkSectionPos.getBlockCoord(sz);
+                    if (frustum != null && !frustum.isVisible(new Box(baseX, baseY, baseZ, baseX + 16, baseY + 16, baseZ + 16))) {
+                        continue;
+                    }
+                    if (client.worldRenderer != null && !client.worldRenderer.isRenderingReady(cursor.set(baseX, baseY, baseZ))) {
+                        continue;
+                    }
+                    PalettedContainer<BlockState> states = section.getBlockStateContainer();
+                    if (!states.hasAny(state -> state.isOf(block))) {
+                        continue;
+                    }
+                    int fromX = Math.max(minX, baseX);
+                    int toX = Math.min(maxX, baseX + 15);
+                    int fromY = Math.max(minY, baseY);
+                    int toY = Math.min(maxY, baseY + 15);
+                    int fromZ = Math.max(minZ, baseZ);
+                    int toZ = Math.min(maxZ, baseZ + 15);
+                    for (int y = fromY; y <= toY; y++) {
+                        for (int z = fromZ; z <= toZ; z++) {
+                            for (int x = fromX; x <= toX; x++) {
+                                if (!states.get(x - baseX, y - baseY, z - baseZ).isOf(block)) {
+                                    continue;
+                                }
+                                if (frustum == null || frustum.isVisible(new Box(cursor.set(x, y, z)))) {
+                                    candidates.add(BlockPos.asLong(x, y, z));
+                                }
+                            }
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    private boolean hasLineOfSight(long packedPos) {
+        if (blockSight.containsKey(packedPos)) {
+            return blockSight.get(packedPos);
+        }
+        cursor.set(packedPos);
+        Vec3d target = Vec3d.ofCenter(cursor);
+        RaycastContext context = new RaycastContext(
+            cameraPos,
+            target,
+            RaycastContext.ShapeType.COLLIDER,
+            RaycastContext.FluidHandling.NONE,
+            MinecraftClient.getInstance().player
+        );
+        BlockHitResult hit = world.raycast(context);
+        boolean visible = hit != null
+            && (hit.getType() == HitResult.Type.MISS
+                || (hit.getType() == HitResult.Type.BLOCK && hit.getBlockPos().asLong() == packedPos));
+        blockSight.put(packedPos, visible);
+        return visible;
+    }
+
+    private static double squaredDistance(long packedPos, double x, double y, double z) {
+        double dx = BlockPos.unpackLongX(packedPos) + 0.5 - x;
+        double dy = BlockPos.unpackLongY(packedPos) + 0.5 - y;
+        double dz = BlockPos.unpackLongZ(packedPos) + 0.5 - z;
+        return dx * dx + dy * dy + dz * dz;
+    }
+}
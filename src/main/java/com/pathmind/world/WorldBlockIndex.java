@@ -0,0 +1,460 @@
+package com.pathmind.world;
+
+import it.unimi.dsi.fastutil.longs.Long2ObjectMap;
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import it.unimi.dsi.fastutil.longs.LongArrayFIFOQueue;
+import it.unimi.dsi.fastutil.longs.LongIterator;
+import it.unimi.dsi.fastutil.longs.LongOpenHashSet;
+import net.fabricmc.fabric.api.client.event.lifecycle.v1.ClientChunkEvents;
+import net.fabricmc.fabric.api.client.event.lifecycle.v1.ClientTickEvents;
+import net.fabricmc.fabric.api.client.networking.v1.ClientPlayConnectionEvents;
+import net.minecraft.block.Block;
+import net.minecraft.block.BlockState;
+import net.minecraft.client.world.ClientWorld;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.util.math.ChunkPos;
+import net.minecraft.util.math.ChunkSectionPos;
+import net.minecraft.world.World;
+import net.minecraft.world.chunk.ChunkSection;
+import net.minecraft.world.chunk.PalettedContainer;
+import net.minecraft.world.chunk.WorldChunk;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.LongPredicate;
+import java.util.function.Predicate;
+
+/**
+ * Client-side index of where "watched" block types are in the loaded world.
+ * A block type becomes watched the first time a query asks for it. The chunks that were already
+ * loaded are then scanned a few per tick; chunk loads and block updates keep the positions current
+ * meanwhile, and once the backlog is done queries are answered from memory instead of reading
+ * block states. Until then, and for block types too common to index (stone, dirt, ...), callers
+ * fall back to {@link NearestBlockSearch}. Block types that no query asked for in a while are
+ * released again.
+ * All methods must be called on the client thread.
+ */
+public final class WorldBlockIndex {
+    private static final int MAX_INDEXED_POSITIONS_PER_BLOCK = 1 << 18;
+    private static final int SECTION_SIZE = 16;
+    private static final int CHUNKS_SCANNED_PER_TICK = 8;
+    // Five minutes at 20 ticks per second
+    private static final long IDLE_RELEASE_TICKS = 20L * 60L * 5L;
+    private static final int IDLE_CHECK_INTERVAL_TICKS = 20 * 10;
+
+    private static WorldBlockIndex instance;
+
+    private World world;
+    private final Long2ObjectMap<WorldChunk> loadedChunks;
+    private final Map<Block, BlockPositions> watchedBlocks;
+    private final Set<Block> rejectedBlocks;
+    private final BitSet watchedStateIds;
+    private long ticks;
+
+    /**
+     * Positions of one block type, grouped by chunk so unloads and radius queries only touch nearby chunks.
+     */
+    private static final class BlockPositions {
+        final Long2ObjectOpenHashMap<LongOpenHashSet> byChunk = new Long2ObjectOpenHashMap<>();
+        final BitSet stateIds;
+        // Chunks that were loaded before the block was watched and have not been scanned yet
+        final LongArrayFIFOQueue pendingChunks = new LongArrayFIFOQueue();
+        int size;
+        long lastQueryTick;
+
+        BlockPositions(BitSet stateIds) {
+            this.stateIds = stateIds;
+        }
+
+        boolean isReady() {
+            return pendingChunks.isEmpty();
+        }
+
+        boolean isOverflowing() {
+            return size > MAX_INDEXED_POSITIONS_PER_BLOCK;
+        }
+
+        void add(long chunkKey, long packedPos) {
+            LongOpenHashSet positions = byChunk.get(chunkKey);
+            if (positions == null) {
+                positions = new LongOpenHashSet();
+                byChunk.put(chunkKey, positions);
+            }
+            if (positions.add(packedPos)) {
+                size++;
+            }
+        }
+
+        void remove(long chunkKey, long packedPos) {
+            LongOpenHashSet positions = byChunk.get(chunkKey);
+            if (positions != null && positions.remove(packedPos)) {
+                size--;
+                if (positions.isEmpty()) {
+                    byChunk.remove(chunkKey);
+                }
+            }
+        }
+
+        void removeChunk(long chunkKey) {
+            LongOpenHashSet positions = byChunk.remove(chunkKey);
+            if (positions != null) {
+                size -= positions.size();
+            }
+        }
+    }
+
+    private WorldBlockIndex() {
+        this.world = null;
+        this.loadedChunks = new Long2ObjectOpenHashMap<>();
+        this.watchedBlocks = new HashMap<>();
+        this.rejectedBlocks = new HashSet<>();
+        this.watchedStateIds = new BitSet();
+    }
+
+    public static WorldBlockIndex getInstance() {
+        if (instance == null) {
+            instance = new WorldBlockIndex();
+        }
+        return instance;
+    }
+
+    /**
+     * Hook the index into the client chunk lifecycle and tick. Block updates are forwarded by {@code WorldMixin}.
+     */
+    public static void register() {
+        WorldBlockIndex index = getInstance();
+        ClientTickEvents.END_CLIENT_TICK.register(client -> index.tick());
+        ClientChunkEvents.CHUNK_LOAD.register(index::onChunkLoad);
+        ClientChunkEvents.CHUNK_UNLOAD.register(index::onChunkUnload);
+        ClientPlayConnectionEvents.DISCONNECT.register((handler, client) -> index.reset(null));
+    }
+
+    private void reset(World newWorld) {
+        this.world = newWorld;
+        loadedChunks.clear();
+        watchedBlocks.clear();
+        rejectedBlocks.clear();
+        watchedStateIds.clear();
+    }
+
+    private boolean ensureWorld(World target) {
+        if (target == null) {
+            return false;
+        }
+        if (target != world) {
+            reset(target);
+        }
+        return true;
+    }
+
+    private void onChunkLoad(ClientWorld clientWorld, WorldChunk chunk) {
+        if (!ensureWorld(clientWorld) || chunk == null) {
+            return;
+        }
+        long chunkKey = chunk.getPos().toLong();
+        loadedChunks.put(chunkKey, chunk);
+        if (watchedBlocks.isEmpty()) {
+            return;
+        }
+        // A chunk can be resent for a position we already hold; start that chunk from scratch
+        for (BlockPositions positions : watchedBlocks.values()) {
+            positions.removeChunk(chunkKey);
+        }
+        scanChunk(chunk, watchedStateIds, (pos, state) -> {
+            BlockPositions positions = watchedBlocks.get(state.getBlock());
+            if (positions != null) {
+                positions.add(chunkKey, pos);
+            }
+        });
+        rejectOverflowingBlocks();
+    }
+
+    private void onChunkUnload(ClientWorld clientWorld, WorldChunk chunk) {
+        if (clientWorld != world || chunk == null) {
+            return;
+        }
+        long chunkKey = chunk.getPos().toLong();
+        loadedChunks.remove(chunkKey);
+        for (BlockPositions positions : watchedBlocks.values()) {
+            positions.removeChunk(chunkKey);
+        }
+    }
+
+    /**
+     * Called after a block state was changed in a client world (block update packets, chunk delta
+     * updates and client-side predictions all end up here).
+     */
+    public void onBlockChanged(World changedWorld, BlockPos pos, BlockState newState) {
+        if (changedWorld != world || watchedBlocks.isEmpty() || pos == null) {
+            return;
+        }
+        long chunkKey = ChunkPos.toLong(ChunkSectionPos.getSectionCoord(pos.getX()), ChunkSectionPos.getSectionCoord(pos.getZ()));
+        if (!loadedChunks.containsKey(chunkKey)) {
+            return;
+        }
+        long packedPos = pos.asLong();
+        for (BlockPositions positions : watchedBlocks.values()) {
+            positions.remove(chunkKey, packedPos);
+        }
+        if (newState != null) {
+            Block block = newState.getBlock();
+            BlockPositions positions = watchedBlocks.get(block);
+            if (positions != null) {
+                positions.add(chunkKey, packedPos);
+                if (positions.isOverflowing()) {
+                    reject(block);
+                }
+            }
+        }
+    }
+
+    /**
+     * Scan a few of the chunks that were loaded before a block type was watched, and now and then release
+     * block types that went unqueried. Called once per client tick.
+     */
+    public void tick() {
+        ticks++;
+        if (watchedBlocks.isEmpty()) {
+            return;
+        }
+        if (ticks % IDLE_CHECK_INTERVAL_TICKS == 0) {
+            releaseIdleBlocks();
+        }
+        int budget = CHUNKS_SCANNED_PER_TICK;
+        List<Block> overflowing = null;
+        for (Map.Entry<Block, BlockPositions> entry : watchedBlocks.entrySet()) {
+            BlockPositions positions = entry.getValue();
+            while (budget > 0 && !positions.pendingChunks.isEmpty() && !positions.isOverflowing()) {
+                long chunkKey = positions.pendingChunks.dequeueLong();
+                WorldChunk chunk = loadedChunks.get(chunkKey);
+                if (chunk == null) {
+                    // Unloaded before we got to it
+                    continue;
+                }
+                budget--;
+                scanChunk(chunk, positions.stateIds, (pos, state) -> positions.add(chunkKey, pos));
+            }
+            if (positions.isOverflowing()) {
+                if (overflowing == null) {
+                    overflowing = new ArrayList<>();
+                }
+                overflowing.add(entry.getKey());
+            }
+            if (budget == 0) {
+                break;
+            }
+        }
+        if (overflowing != null) {
+            for (Block block : overflowing) {
+                reject(block);
+            }
+        }
+    }
+
+    /**
+     * Make sure every given block type is indexed for {@code targetWorld}. Newly watched types have
+     * their loaded chunks scanned over the following ticks.
+     *
+     * @return {@code true} when all blocks can be answered from the index right now
+     */
+    public boolean watch(World targetWorld, Collection<Block> blocks) {
+        if (!ensureWorld(targetWorld) || blocks == null || blocks.isEmpty()) {
+            return false;
+        }
+
+        boolean allWatched = true;
+        for (Block block : blocks) {
+            if (block == null) {
+                continue;
+            }
+            if (rejectedBlocks.contains(block)) {
+                allWatched = false;
+                continue;
+            }
+            BlockPositions positions = watchedBlocks.get(block);
+            if (positions == null) {
+                positions = startWatching(block);
+            }
+            positions.lastQueryTick = ticks;
+            if (!positions.isReady()) {
+                allWatched = false;
+            }
+        }
+        return allWatched;
+    }
+
+    private BlockPositions startWatching(Block block) {
+        BlockPositions positions = new BlockPositions(NearestBlockSearch.toStateIdSet(Collections.singletonList(block)));
+        LongIterator chunkKeys = loadedChunks.keySet().iterator();
+        while (chunkKeys.hasNext()) {
+            positions.pendingChunks.enqueue(chunkKeys.nextLong());
+        }
+        watchedBlocks.put(block, positions);
+        watchedStateIds.or(positions.stateIds);
+        return positions;
+    }
+
+    /**
+     * Stop indexing a block type that turned out to be too common. Queries for it go back to world scans.
+     */
+    private void reject(Block block) {
+        if (watchedBlocks.remove(block) == null) {
+            return;
+        }
+        rejectedBlocks.add(block);
+        rebuildWatchedStateIds();
+        System.out.println("WorldBlockIndex: " + block + " is too common to index, using world scans instead");
+    }
+
+    /**
+     * Drop the positions of block types no query asked for within {@link #IDLE_RELEASE_TICKS}; the next
+     * query watches them again from scratch.
+     */
+    private void releaseIdleBlocks() {
+        if (!watchedBlocks.values().removeIf(positions -> ticks - positions.lastQueryTick > IDLE_RELEASE_TICKS)) {
+            return;
+        }
+        rebuildWatchedStateIds();
+    }
+
+    private void rebuildWatchedStateIds() {
+        watchedStateIds.clear();
+        for (BlockPositions positions : watchedBlocks.values()) {
+            watchedStateIds.or(positions.stateIds);
+        }
+    }
+
+    private void rejectOverflowingBlocks() {
+        List<Block> overflowing = null;
+        for (Map.Entry<Block, BlockPositions> entry : watchedBlocks.entrySet()) {
+            if (entry.getValue().isOverflowing()) {
+                if (overflowing == null) {
+                    overflowing = new ArrayList<>();
+                }
+                overflowing.add(entry.getKey());
+            }
+        }
+        if (overflowing != null) {
+            for (Block block : overflowing) {
+                reject(block);
+            }
+        }
+    }
+
+    /**
+     * Nearest indexed position (squared block distance) inside a cube of the given radius.
+     * Only meaningful after {@link #watch(World, Collection)} returned {@code true} for the blocks.
+     */
+    public Optional<BlockPos> findNearest(BlockPos origin, int radius, Collection<Block> blocks) {
+        long[] best = {0L, Long.MAX_VALUE};
+        boolean[] found = {false};
+        forEachWithin(origin, radius, radius, blocks, packed -> {
+            long dx = BlockPos.unpackLongX(packed) - origin.getX();
+            long dy = BlockPos.unpackLongY(packed) - origin.getY();
+            long dz = BlockPos.unpackLongZ(packed) - origin.getZ();
+            long distance = dx * dx + dy * dy + dz * dz;
+            if (distance < best[1]) {
+                best[0] = packed;
+                best[1] = distance;
+                found[0] = true;
+            }
+            return false;
+        });
+        return found[0] ? Optional.of(BlockPos.fromLong(best[0])) : Optional.empty();
+    }
+
+    /**
+     * Visit every indexed position of the given blocks inside the box spanned by the horizontal and
+     * vertical radii. Visiting stops as soon as the visitor returns {@code true}.
+     *
+     * @return {@code true} when the visitor stopped the walk
+     */
+    public boolean forEachWithin(BlockPos origin, int horizontalRadius, int verticalRadius, Collection<Block> blocks,
+                                 LongPredicate visitor) {
+        if (origin == null || blocks == null || visitor == null) {
+            return false;
+        }
+        int minX = origin.getX() - horizontalRadius;
+        int maxX = origin.getX() + horizontalRadius;
+        int minY = origin.getY() - verticalRadius;
+        int maxY = origin.getY() + verticalRadius;
+        int minZ = origin.getZ() - horizontalRadius;
+        int maxZ = origin.getZ() + horizontalRadius;
+        int minChunkX = ChunkSectionPos.getSectionCoord(minX);
+        int maxChunkX = ChunkSectionPos.getSectionCoord(maxX);
+        int minChunkZ = ChunkSectionPos.getSectionCoord(minZ);
+        int maxChunkZ = ChunkSectionPos.getSectionCoord(maxZ);
+
+        for (Block block : blocks) {
+            BlockPositions positions = watchedBlocks.get(block);
+            if (positions == null || positions.size == 0) {
+                continue;
+            }
+            for (int chunkX = minChunkX; chunkX <= maxChunkX; chunkX++) {
+                for (int chunkZ = minChunkZ; chunkZ <= maxChunkZ; chunkZ++) {
+                    LongOpenHashSet chunkPositions = positions.byChunk.get(ChunkPos.toLong(chunkX, chunkZ));
+                    if (chunkPositions == null) {
+                        continue;
+                    }
+                    LongIterator iterator = chunkPositions.iterator();
+                    while (iterator.hasNext()) {
+                        long packed = iterator.nextLong();
+                        int x = BlockPos.unpackLongX(packed);
+                        int y = BlockPos.unpackLongY(packed);
+                        int z = BlockPos.unpackLongZ(packed);
+                        if (x < minX || x > maxX || y < minY || y > maxY || z < minZ || z > maxZ) {
+                            continue;
+                        }
+                        if (visitor.test(packed)) {
+                            return true;
+                        }
+                    }
+                }
+            }
+        }
+        return false;
+    }
+
+    private interface ChunkScanConsumer {
+        void accept(long packedPos, BlockState state);
+    }
+
+    private static void scanChunk(WorldChunk chunk, BitSet stateIds, ChunkScanConsumer consumer) {
+        if (stateIds.isEmpty()) {
+            return;
+        }
+        ChunkSection[] sections = chunk.getSectionArray();
+        int baseX = chunk.getPos().getStartX();
+        int baseZ = chunk.getPos().getStartZ();
+        Predicate<BlockState> matches = state -> stateIds.get(Block.getRawIdFromState(state));
+        for (int index = 0; index < sections.length; index++) {
+            ChunkSection section = sections[index];
+            if (section == null) {
+                continue;
+            }
+            PalettedContainer<BlockState> container = section.getBlockStateContainer();
+            if (!container.hasAny(matches)) {
+                continue;
+            }
+            int baseY = ChunkSectionPos.getBlockCoord(chunk.sectionIndexToCoord(index));
+            for (int y = 0; y < SECTION_SIZE; y++) {
+                for (int z = 0; z < SECTION_SIZE; z++) {
+                    for (int x = 0; x < SECTION_SIZE; x++) {
+                        BlockState state = container.get(x, y, z);
+                        if (matches.test(state)) {
+                            consumer.accept(BlockPos.asLong(baseX + x, baseY + y, baseZ + z), state);
+                        }
+                    }
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,178 @@
+package com.pathmind.world;
+
+import net.minecraft.client.MinecraftClient;
+import net.minecraft.client.network.ClientPlayerEntity;
+import net.minecraft.client.world.ClientWorld;
+import net.minecraft.entity.Entity;
+import net.minecraft.entity.EntityType;
+import net.minecraft.util.hit.HitResult;
+import net.minecraft.util.math.Box;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Predicate;
+
+/**
+ * What the sensors see during one client tick: the player's bounding box, the crosshair target
+ * and the entities around the player, bucketed by type.
+ * The snapshot is taken the first time a sensor asks for it in a tick and dropped at the next
+ * {@code END_CLIENT_TICK}. Entities are only gathered once a sensor queries them, out to the
+ * smallest radius bucket covering that query, so any number of sensors evaluated in the same tick
+ * share a few entity queries at most. Queries reaching beyond the largest bucket go to the world
+ * directly. Client thread only.
+ */
+public final class WorldObservation {
+    private static final double MIN_ENTITY_RADIUS = 8.0;
+    private static final double MAX_ENTITY_RADIUS = 128.0;
+
+    private static WorldObservation instance;
+
+    private final Map<EntityType<?>, List<Entity>> entitiesByType;
+    private boolean valid;
+    private ClientWorld world;
+    private ClientPlayerEntity player;
+    private Box playerBox;
+    private Box gatheredBox;
+    private HitResult crosshairTarget;
+
+    private WorldObservation() {
+        this.entitiesByType = new IdentityHashMap<>();
+        this.valid = false;
+    }
+
+    public static WorldObservation getInstance() {
+        if (instance == null) {
+            instance = new WorldObservation();
+        }
+        return instance;
+    }
+
+    /**
+     * Drop the current snapshot. Called once per {@code END_CLIENT_TICK}, before any node runs.
+     */
+    public void invalidate() {
+        valid = false;
+        world = null;
+        player = null;
+        playerBox = null;
+        gatheredBox = null;
+        crosshairTarget = null;
+        entitiesByType.clear();
+    }
+
+    /**
+     * The snapshot for the current tick, taken now if no sensor asked for it yet,
+     * or {@code null} when there is no player in a world.
+     */
+    public static WorldObservation current(MinecraftClient client) {
+        if (client == null || client.player == null || client.world == null) {
+            return null;
+        }
+        WorldObservation observation = getInstance();
+        if (!observation.valid || observation.world != client.world || observation.player != client.player) {
+            observation.observe(client);
+        }
+        return observation;
+    }
+
+    private void observe(MinecraftClient client) {
+        invalidate();
+        this.world = client.world;
+        this.player = client.player;
+        this.playerBox = client.player.getBoundingBox();
+        this.crosshairTarget = client.crosshairTarget;
+        this.valid = true;
+    }
+
+    /**
+     * Make sure the gathered entities cover {@code box}, gathering again with the next radius bucket
+     * (8, 16, 32, ... blocks around the player) when they do not.
+     *
+     * @return {@code false} when the box is beyond the largest bucket and must be queried directly
+     */
+    private boolean gather(Box box) {
+        if (gatheredBox != null && covers(box)) {
+            return true;
+        }
+        double reach = Math.max(
+            Math.max(Math.max(playerBox.minX - box.minX, box.maxX - playerBox.maxX),
+                Math.max(playerBox.minY - box.minY, box.maxY - playerBox.maxY)),
+            Math.max(playerBox.minZ - box.minZ, box.maxZ - playerBox.maxZ));
+        double radius = MIN_ENTITY_RADIUS;
+        while (radius < reach) {
+            radius *= 2.0;
+        }
+        if (radius > MAX_ENTITY_RADIUS) {
+            return false;
+        }
+        entitiesByType.clear();
+        gatheredBox = playerBox.expand(radius);
+        for (Entity entity : world.getOtherEntities(player, gatheredBox)) {
+            entitiesByType.computeIfAbsent(entity.getType(), ignored -> new ArrayList<>()).add(entity);
+        }
+        return true;
+    }
+
+    public Box getPlayerBox() {
+        return playerBox;
+    }
+
+    public HitResult getCrosshairTarget() {
+        return crosshairTarget;
+    }
+
+    /**
+     * Entities of the given type (other than the player) whose bounding box intersects {@code box}
+     * and that pass {@code filter}, which may be {@code null}.
+     */
+    public List<Entity> getEntities(EntityType<?> type, Box box, Predicate<? super Entity> filter) {
+        if (type == null || box == null) {
+            return Collections.emptyList();
+        }
+        if (!gather(box)) {
+            return world.getOtherEntities(player, box, entity -> entity.getType() == type && (filter == null || filter.test(entity)));
+        }
+        List<Entity> bucket = entitiesByType.get(type);
+        if (bucket == null) {
+            return Collections.emptyList();
+        }
+        List<Entity> matches = new ArrayList<>();
+        for (Entity entity : bucket) {
+            if (entity.getBoundingBox().intersects(box) && (filter == null || filter.test(entity))) {
+                matches.add(entity);
+            }
+        }
+        return matches;
+    }
+
+    /**
+     * Same as {@link #getEntities} but stops at the first match.
+     */
+    public boolean hasEntity(EntityType<?> type, Box box, Predicate<? super Entity> filter) {
+        if (type == null || box == null) {
+            return false;
+        }
+        if (!gather(box)) {
+            return !world.getOtherEntities(player, box, entity -> entity.getType() == type && (filter == null || filter.test(entity))).isEmpty();
+        }
+        List<Entity> bucket = entitiesByType.get(type);
+        if (bucket == null) {
+            return false;
+        }
+        for (Entity entity : bucket) {
+            if (entity.getBoundingBox().intersects(box) && (filter == null || filter.test(entity))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private boolean covers(Box box) {
+        return box.minX >= gatheredBox.minX && box.maxX <= gatheredBox.maxX
+            && box.minY >= gatheredBox.minY && box.maxY <= gatheredBox.maxY
+            && box.minZ >= gatheredBox.minZ && box.maxZ <= gatheredBox.maxZ;
+    }
+}
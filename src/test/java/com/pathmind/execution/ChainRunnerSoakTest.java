@@ -0,0 +1,105 @@
+package com.pathmind.execution;
+
+import com.pathmind.nodes.Node;
+import com.pathmind.nodes.NodeConnection;
+import com.pathmind.nodes.NodeType;
+import net.minecraft.Bootstrap;
+import net.minecraft.SharedConstants;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Runs a Forever loop for a million iterations on the tick scheduler and checks that nothing the
+ * chain keeps grows per iteration: the frame stack stays one loop deep, the scheduler never holds
+ * more than the chain's next step, and every node future is settled before the next one is handed out.
+ */
+class ChainRunnerSoakTest {
+    private static final int ITERATIONS = 1_000_000;
+    private static final long MAX_TICKS = 10L * ITERATIONS;
+    // Between ticks only the chain's next node step is queued
+    private static final int MAX_PENDING_TASKS = 1;
+
+    private final ExecutionScheduler scheduler = ExecutionScheduler.getInstance();
+    private final PrintStream originalOut = System.out;
+
+    private int bodyRuns;
+    private int pendingNodeFutures;
+    private int maxPendingNodeFutures;
+    private int maxFrameDepth;
+    private int maxPendingTasks;
+
+    @BeforeAll
+    static void bootstrapRegistries() {
+        // Nodes build their default parameters from the game registries
+        SharedConstants.createGameVersion();
+        Bootstrap.initialize();
+    }
+
+    @AfterEach
+    void restore() {
+        System.setOut(originalOut);
+    }
+
+    @Test
+    void foreverLoopStaysFlat() {
+        Node start = new Node(NodeType.START, 0, 0);
+        Node loop = new Node(NodeType.CONTROL_FOREVER, 100, 0);
+        Node body = new Node(NodeType.WAIT, 200, 0);
+        assertTrue(loop.attachActionNode(body));
+
+        ExecutionManager[] managerRef = new ExecutionManager[1];
+        ExecutionManager manager = new ExecutionManager((node, state) -> {
+            if (node == body) {
+                bodyRuns++;
+            }
+            maxFrameDepth = Math.max(maxFrameDepth, managerRef[0].getChainFrameDepth(start));
+            // Settle on the scheduler like a real node would; node types keep their default output
+            // socket, so the Forever node iterates again
+            CompletableFuture<Void> future = new CompletableFuture<>();
+            pendingNodeFutures++;
+            maxPendingNodeFutures = Math.max(maxPendingNodeFutures, pendingNodeFutures);
+            scheduler.runAfterTicks(0, () -> {
+                pendingNodeFutures--;
+                future.complete(null);
+            });
+            return future;
+        });
+        managerRef[0] = manager;
+
+        // Every node execution logs its activation; keep the soak run quiet
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+        manager.executeGraph(List.of(start, loop, body), List.of(new NodeConnection(start, loop, 0, 0)));
+        assertTrue(manager.isChainActive(start));
+
+        long ticks = 0;
+        while (bodyRuns < ITERATIONS) {
+            scheduler.tick();
+            maxPendingTasks = Math.max(maxPendingTasks, scheduler.getPendingTaskCount());
+            if (++ticks > MAX_TICKS) {
+                throw new AssertionError("loop stalled after " + bodyRuns + " iterations");
+            }
+        }
+
+        assertTrue(manager.isChainActive(start), "chain stopped before reaching " + ITERATIONS + " iterations");
+        assertEquals(1, maxFrameDepth, "frame stack grew beyond the single loop frame");
+        assertEquals(1, maxPendingNodeFutures, "node futures piled up");
+        assertTrue(maxPendingTasks <= MAX_PENDING_TASKS, "scheduler held " + maxPendingTasks + " tasks at once");
+
+        assertTrue(manager.requestStopForStart(start));
+        assertFalse(manager.isChainActive(start));
+        for (int i = 0; i < 5 && manager.getChainFrameDepth(start) != -1; i++) {
+            scheduler.tick();
+        }
+        assertEquals(-1, manager.getChainFrameDepth(start), "chain still registered after stopping");
+    }
+}